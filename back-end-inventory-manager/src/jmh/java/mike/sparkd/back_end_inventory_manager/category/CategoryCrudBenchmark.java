@@ -0,0 +1,61 @@
+package mike.sparkd.back_end_inventory_manager.category;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import mike.sparkd.back_end_inventory_manager.category.Model.Category;
+import mike.sparkd.back_end_inventory_manager.category.Repository.InMemoryCategoryRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Category CRUD, memory only: create + rename + delete of one category, and the sorted list the UI loads
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CategoryCrudBenchmark {
+
+    @Param({"4", "1000", "100000"})
+    public int categories;
+
+    private InMemoryCategoryRepository repository;
+    private long next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = new InMemoryCategoryRepository();
+        for (int i = repository.getAllCategories().size(); i < categories; i++) {
+            repository.save(new Category("Certificación " + i));
+        }
+    }
+
+    @Benchmark
+    public boolean createRenameDelete() {
+        Category c = repository.save(new Category("Bench " + next++));
+        c.setName(c.getName() + " (renamed)");
+        repository.update(c);
+        return repository.deleteById(c.getId());
+    }
+
+    @Benchmark
+    public List<Category> listAll() {
+        return repository.getAllCategories();
+    }
+
+    @Benchmark
+    public boolean existsByName() {
+        return repository.existsByNameIgnoreCase("certificación cloud");
+    }
+}
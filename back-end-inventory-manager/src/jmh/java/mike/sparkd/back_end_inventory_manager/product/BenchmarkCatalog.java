@@ -0,0 +1,79 @@
+package mike.sparkd.back_end_inventory_manager.product;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import mike.sparkd.back_end_inventory_manager.common.persistence.DurableStore;
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.Repository.ColumnarProductRepository;
+import mike.sparkd.back_end_inventory_manager.product.Repository.InMemoryProductRepository;
+import mike.sparkd.back_end_inventory_manager.product.Repository.OffHeapProductRepository;
+import mike.sparkd.back_end_inventory_manager.product.Repository.ProductRepository;
+
+// Synthetic catalogs for the benchmarks, shaped like the seeded vouchers: every generated product is a
+// variant of a seed voucher (same category, name plus region/edition, price +-20%), and the seed's mix of
+// out-of-stock and undated vouchers is kept (about a third each). Same size + seed = same catalog.
+final class BenchmarkCatalog {
+    private static final String[] REGIONS = {"LATAM", "NA", "EMEA", "APAC"};
+    private static final String[] EDITIONS = {"Exam Voucher", "Retake Bundle", "Practice Pack", "Team License"};
+    private static final int LOAD_CHUNK = 10_000;
+
+    private BenchmarkCatalog() {
+    }
+
+    // The vouchers every repository starts with, in id order
+    static List<Product> seedVouchers() {
+        List<Product> seed = new ArrayList<>(new InMemoryProductRepository((DurableStore) null, 0).getAllProducts());
+        seed.sort(Comparator.comparing(Product::getId));
+        return seed;
+    }
+
+    static List<Product> generate(int size, long randomSeed) {
+        List<Product> seed = seedVouchers();
+        SplittableRandom random = new SplittableRandom(randomSeed);
+        LocalDate today = LocalDate.now();
+        List<Product> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Product base = seed.get(random.nextInt(seed.size()));
+            String name = base.getName().replace("Exam Voucher", EDITIONS[random.nextInt(EDITIONS.length)])
+                    + " " + REGIONS[random.nextInt(REGIONS.length)] + " #" + i;
+            float price = Math.round(base.getUnitPrice() * (0.8F + random.nextInt(41) / 100.0F) * 100) / 100.0F;
+            LocalDate expiration = random.nextInt(3) == 0 ? null : today.plusDays(random.nextInt(-30, 180));
+            int stock = random.nextInt(3) == 0 ? 0 : random.nextInt(1, 60);
+            out.add(new Product(name, base.getCategory(), price, expiration, stock));
+        }
+        return out;
+    }
+
+    // "inmemory" | "columnar" | "offheap", memory only, search cache off unless asked for
+    static ProductRepository repository(String kind, long searchCacheIds) {
+        switch (kind) {
+            case "inmemory":
+                return new InMemoryProductRepository((DurableStore) null, searchCacheIds);
+            case "columnar":
+                return new ColumnarProductRepository();
+            case "offheap":
+                return new OffHeapProductRepository();
+            default:
+                throw new IllegalArgumentException("Unknown repository " + kind);
+        }
+    }
+
+    static ProductRepository loaded(String kind, int size, long searchCacheIds) {
+        ProductRepository repository = repository(kind, searchCacheIds);
+        List<Product> catalog = generate(size, 42);
+        for (int from = 0; from < catalog.size(); from += LOAD_CHUNK) {
+            repository.saveAll(new ArrayList<>(catalog.subList(from, Math.min(from + LOAD_CHUNK, catalog.size()))));
+        }
+        return repository;
+    }
+
+    static Product copyOf(Product p) {
+        Product copy = new Product(p.getName(), p.getCategory(), p.getUnitPrice(), p.getExpirationDate(), p.getStock());
+        copy.setId(p.getId());
+        return copy;
+    }
+}
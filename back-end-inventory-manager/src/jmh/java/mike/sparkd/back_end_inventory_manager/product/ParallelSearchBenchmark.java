@@ -0,0 +1,66 @@
+package mike.sparkd.back_end_inventory_manager.product;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.PageResponse;
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.Repository.InMemoryProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Crossover for inventory.search.parallel-threshold: the same full-sort searches with threads=1
+// (request thread only) and with the parallel pool forced on (threshold 0). The smallest catalog where
+// threads>1 wins, divided by the match ratio of the query, is the threshold to configure.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms8g", "-Xmx8g"})
+public class ParallelSearchBenchmark {
+
+    @Param({"10000", "50000", "100000", "250000", "500000", "1000000", "2000000"})
+    public int catalogSize;
+
+    // 1 = sequential; 0 = one worker per core
+    @Param({"1", "4", "0"})
+    public int threads;
+
+    private InMemoryProductRepository products;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        products = (InMemoryProductRepository) BenchmarkCatalog.loaded("inmemory", catalogSize, 0);
+        products.setParallelSearch(0, threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        products.close();
+    }
+
+    // every product, page in the middle: full sort of the whole catalog
+    @Benchmark
+    public List<Product> wholeCatalogDeepPage() {
+        return products.getFilteredAndPaginatedProducts("unitPrice", "name", catalogSize / 20, "asc");
+    }
+
+    // about 1/12 of the catalog, deep page: sequentially the planner walks the sort index, with enough
+    // workers it switches to the parallel filter + sort (the cost model divides the sort by the workers)
+    @Benchmark
+    public PageResponse<Product> nameSearchDeepPage() {
+        return products.getByParamsSearch("kubernetes", null, "in", Math.max(1, catalogSize / 200), 10, "unitPrice", "desc");
+    }
+}
@@ -0,0 +1,60 @@
+package mike.sparkd.back_end_inventory_manager.product;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.DefaultProductSortStrategy;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.PrimitiveKeySort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Sorted ids of every in-stock product: stream.sorted(comparator) (what the search cache used to run)
+// vs packed long keys + Arrays.sort
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms8g", "-Xmx8g"})
+public class PrimitiveKeySortBenchmark {
+
+    @Param({"100000", "1000000", "2000000", "5000000"})
+    public int catalogSize;
+
+    @Param({"BY_ID", "BY_UNIT_PRICE", "BY_STOCK", "BY_EXPIRATION_DATE"})
+    public DefaultProductSortStrategy strategy;
+
+    @Param({"asc", "desc"})
+    public String direction;
+
+    private List<Product> catalog;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = BenchmarkCatalog.generate(catalogSize, 42);
+        // ids shuffled against the generation order, like a catalog that has seen updates
+        for (int i = 0; i < catalog.size(); i++) catalog.get(i).setId((long) ((i * 7919L) % catalog.size()) + 1);
+    }
+
+    @Benchmark
+    public long[] streamSorted() {
+        return catalog.stream().filter(p -> p.getStock() > 0).sorted(strategy.buildComparator(direction))
+                .mapToLong(Product::getId).toArray();
+    }
+
+    @Benchmark
+    public long[] primitiveKeys() {
+        return PrimitiveKeySort.sortedIds(catalog, p -> p.getStock() > 0, strategy, direction, catalogSize);
+    }
+}
@@ -0,0 +1,86 @@
+package mike.sparkd.back_end_inventory_manager.product;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.DefaultProductSortStrategy;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.ProductComparators;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Full sort of a generated catalog with each sort field (+ an optional secondary field).
+// comparator=cached is ProductComparators; chained is the comparing/thenComparing/reversed chain the
+// strategies used to build, kept here as the baseline.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms8g", "-Xmx8g"})
+public class ProductComparatorBenchmark {
+
+    @Param({"10000", "100000", "1000000", "5000000"})
+    public int catalogSize;
+
+    @Param({"BY_ID", "BY_NAME", "BY_CATEGORY", "BY_UNIT_PRICE", "BY_STOCK", "BY_EXPIRATION_DATE"})
+    public DefaultProductSortStrategy strategy;
+
+    @Param({"", "name", "stock"})
+    public String secondary;
+
+    @Param({"asc", "desc"})
+    public String direction;
+
+    @Param({"cached", "chained"})
+    public String comparator;
+
+    private List<Product> catalog;
+    private Comparator<Product> cmp;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = BenchmarkCatalog.generate(catalogSize, 42);
+        for (int i = 0; i < catalog.size(); i++) catalog.get(i).setId((long) i + 1);
+        DefaultProductSortStrategy second = secondary.isEmpty() ? null : DefaultProductSortStrategy.fromSortBy(secondary);
+        cmp = "cached".equals(comparator) ? ProductComparators.of(strategy, second, direction) : chained(strategy, second);
+    }
+
+    private Comparator<Product> chained(DefaultProductSortStrategy primary, DefaultProductSortStrategy second) {
+        Comparator<Product> chain = field(primary);
+        if (second != null && second != primary) chain = chain.thenComparing(field(second));
+        chain = chain.thenComparing(Product::getId);
+        return "desc".equalsIgnoreCase(direction) ? chain.reversed() : chain;
+    }
+
+    private static Comparator<Product> field(DefaultProductSortStrategy f) {
+        return switch (f) {
+            case BY_ID -> Comparator.comparing(Product::getId);
+            case BY_NAME -> Comparator.comparing(Product::getNameKey, Comparator.nullsLast(String::compareTo));
+            case BY_CATEGORY -> Comparator.comparing(Product::getCategoryKey, Comparator.nullsLast(String::compareTo));
+            case BY_UNIT_PRICE -> Comparator.comparingDouble(Product::getUnitPrice);
+            case BY_STOCK -> Comparator.comparingInt(Product::getStock);
+            case BY_EXPIRATION_DATE -> Comparator.comparing(Product::getExpirationDate,
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+        };
+    }
+
+    @Benchmark
+    public List<Product> sort() {
+        List<Product> copy = new ArrayList<>(catalog);
+        copy.sort(cmp);
+        return copy;
+    }
+}
@@ -0,0 +1,158 @@
+package mike.sparkd.back_end_inventory_manager.product;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Closed-loop HTTP load against a running backend: `clients` threads, each sending its next request as soon
+// as the previous one answers. Mix: 80% searches (random filters, sort and page), 10% category metrics,
+// 10% stock adjustments (+1 on the seed vouchers; with inventory.persistence.dir set, these wait on fsync).
+// Prints throughput and latency percentiles and writes them as JSON, to compare two runs of the server:
+//
+//   java -jar target/app.jar --inventory.persistence.dir=/tmp/inv                     (platform thread pool)
+//   java -jar target/app.jar --inventory.persistence.dir=/tmp/inv --spring.profiles.active=virtual   (Java 21)
+//   mvn -P benchmarks test-compile exec:exec@load-test -Dload.label=virtual -Dload.clients=400
+public final class ProductLoadTest {
+    private static final String[] SORT_BY = {"id", "name", "unitPrice", "stock", "expirationDate"};
+    private static final String[] CATEGORIES = {"", "Certificaci%C3%B3n%20Cloud", "Certificaci%C3%B3n%20DevOps"};
+    private static final int SEED_PRODUCTS = 24;
+
+    private ProductLoadTest() {
+    }
+
+    // args: baseUrl clients durationSeconds warmupSeconds label resultsFile
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:9090";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        int warmup = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        String label = args.length > 4 ? args[4] : "run";
+        Path results = Path.of(args.length > 5 ? args[5] : "target/load-" + label + ".json");
+
+        HttpClient http = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors())))
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmup);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+        AtomicLong errors = new AtomicLong();
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        Future<?>[] runs = new Future<?>[clients];
+        Client[] recorded = new Client[clients];
+        for (int c = 0; c < clients; c++) {
+            Client client = new Client(http, baseUrl, c, measureFrom, end, errors);
+            recorded[c] = client;
+            runs[c] = pool.submit(client::run);
+        }
+        for (Future<?> run : runs) run.get();
+        pool.shutdown();
+
+        int n = 0;
+        for (Client c : recorded) n += c.count;
+        long[] latencies = new long[n];
+        int at = 0;
+        for (Client c : recorded) {
+            System.arraycopy(c.latencies, 0, latencies, at, c.count);
+            at += c.count;
+        }
+        Arrays.sort(latencies);
+
+        double throughput = n / (double) seconds;
+        String json = String.format(Locale.ROOT,
+                "{\"label\":\"%s\",\"clients\":%d,\"seconds\":%d,\"requests\":%d,\"errors\":%d,"
+                        + "\"throughput\":%.1f,\"p50Ms\":%.2f,\"p99Ms\":%.2f,\"p999Ms\":%.2f,\"maxMs\":%.2f}",
+                label, clients, seconds, n, errors.get(), throughput,
+                millis(latencies, 0.50), millis(latencies, 0.99), millis(latencies, 0.999), millis(latencies, 1.0));
+        System.out.println(json);
+        try {
+            if (results.getParent() != null) Files.createDirectories(results.getParent());
+            Files.writeString(results, json + System.lineSeparator());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write " + results, e);
+        }
+        System.exit(0); // the HttpClient executor threads are not daemons
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+        if (sorted.length == 0) return 0;
+        int i = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, i)] / 1_000_000.0;
+    }
+
+    private static final class Client {
+        private final HttpClient http;
+        private final String baseUrl;
+        private final SplittableRandom random;
+        private final long measureFrom;
+        private final long end;
+        private final AtomicLong errors;
+        private long[] latencies = new long[1024];
+        private int count;
+
+        Client(HttpClient http, String baseUrl, int seed, long measureFrom, long end, AtomicLong errors) {
+            this.http = http;
+            this.baseUrl = baseUrl;
+            this.random = new SplittableRandom(seed);
+            this.measureFrom = measureFrom;
+            this.end = end;
+            this.errors = errors;
+        }
+
+        void run() {
+            long now;
+            while ((now = System.nanoTime()) < end) {
+                HttpRequest request = next();
+                int status;
+                try {
+                    status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (IOException e) {
+                    status = -1;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long done = System.nanoTime();
+                if (now < measureFrom) continue;
+                if (status < 200 || status >= 300) errors.incrementAndGet();
+                if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+                latencies[count++] = done - now;
+            }
+        }
+
+        private HttpRequest next() {
+            int roll = random.nextInt(10);
+            if (roll == 0) {
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/products/metrics")).GET().build();
+            }
+            if (roll == 1) {
+                long id = 1 + random.nextInt(SEED_PRODUCTS);
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/products/" + id + "/stock"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"delta\":1}"))
+                        .build();
+            }
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            String url = baseUrl + "/api/v1/products?page=" + (1 + random.nextInt(3))
+                    + "&size=10&sortBy=" + SORT_BY[random.nextInt(SORT_BY.length)]
+                    + "&direction=" + (random.nextBoolean() ? "asc" : "desc")
+                    + (category.isEmpty() ? "" : "&category=" + category);
+            return HttpRequest.newBuilder(URI.create(url)).GET().build();
+        }
+    }
+}
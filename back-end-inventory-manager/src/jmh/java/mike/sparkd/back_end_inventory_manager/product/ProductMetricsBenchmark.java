@@ -0,0 +1,62 @@
+package mike.sparkd.back_end_inventory_manager.product;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.CategoryExpirySummary;
+import mike.sparkd.back_end_inventory_manager.product.Model.CategoryInventorySummary;
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.Repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Dashboard reads: category metrics, expiry horizons and the expiring-soon list
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms8g", "-Xmx8g"})
+public class ProductMetricsBenchmark {
+
+    @Param({"10000", "100000", "1000000", "5000000"})
+    public int catalogSize;
+
+    @Param({"inmemory", "columnar", "offheap"})
+    public String repository;
+
+    private ProductRepository products;
+    private LocalDate today;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        products = BenchmarkCatalog.loaded(repository, catalogSize, 0);
+        today = LocalDate.now();
+    }
+
+    @Benchmark
+    public List<CategoryInventorySummary> inventorySummary() {
+        return products.getInventorySummaryByCategory();
+    }
+
+    @Benchmark
+    public List<CategoryExpirySummary> expiryHorizons() {
+        return products.getExpirySummaryByCategory(today);
+    }
+
+    @Benchmark
+    public List<Product> expiringWithinAWeek() {
+        return products.getExpiringBetween(today, today.plusDays(7), 100);
+    }
+}
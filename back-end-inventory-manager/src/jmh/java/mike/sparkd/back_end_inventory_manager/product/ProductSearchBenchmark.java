@@ -0,0 +1,76 @@
+package mike.sparkd.back_end_inventory_manager.product;
+
+import java.util.concurrent.TimeUnit;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.PageResponse;
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.Repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// getByParamsSearch / getByCursorSearch as the catalog table calls them: first page, a category filter,
+// a name search, a deep page and the next keyset page. searchCache=0 measures the uncached path.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms8g", "-Xmx8g"})
+public class ProductSearchBenchmark {
+
+    @Param({"10000", "100000", "1000000", "5000000"})
+    public int catalogSize;
+
+    @Param({"inmemory", "columnar", "offheap"})
+    public String repository;
+
+    @Param({"unitPrice", "name", "expirationDate"})
+    public String sortBy;
+
+    @Param({"0", "1000000"})
+    public long searchCache;
+
+    private ProductRepository products;
+    private String secondPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        products = BenchmarkCatalog.loaded(repository, catalogSize, searchCache);
+        secondPage = products.getByParamsSearch(null, null, "all", 1, 10, sortBy, "asc").getNextCursor();
+    }
+
+    @Benchmark
+    public PageResponse<Product> firstPage() {
+        return products.getByParamsSearch(null, null, "all", 1, 10, sortBy, "asc");
+    }
+
+    @Benchmark
+    public PageResponse<Product> categoryInStock() {
+        return products.getByParamsSearch(null, "Certificación DevOps", "in", 1, 10, sortBy, "desc");
+    }
+
+    @Benchmark
+    public PageResponse<Product> nameSearch() {
+        return products.getByParamsSearch("kubernetes", null, "all", 1, 10, sortBy, "asc");
+    }
+
+    @Benchmark
+    public PageResponse<Product> deepPage() {
+        return products.getByParamsSearch(null, "Certificación Cloud", "all", 50, 10, sortBy, "asc");
+    }
+
+    @Benchmark
+    public PageResponse<Product> cursorPage() {
+        return products.getByCursorSearch(null, null, "all", secondPage, 10, sortBy, "asc");
+    }
+}
@@ -0,0 +1,69 @@
+package mike.sparkd.back_end_inventory_manager.product;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.Repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Single-row writes against a loaded catalog, memory only: every write also maintains the sorted,
+// category, name and expiry indexes, so the cost grows with the catalog.
+// save + delete keeps the catalog size stable across iterations.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms8g", "-Xmx8g"})
+public class ProductWriteBenchmark {
+
+    @Param({"10000", "100000", "1000000", "5000000"})
+    public int catalogSize;
+
+    @Param({"inmemory", "columnar", "offheap"})
+    public String repository;
+
+    private ProductRepository products;
+    private List<Product> variants;
+    private long firstId;
+    private final SplittableRandom random = new SplittableRandom(7);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        products = BenchmarkCatalog.loaded(repository, catalogSize, 0);
+        variants = BenchmarkCatalog.generate(4096, 99);
+        firstId = products.getByParamsSearch(null, null, "all", 1, 1, "id", "asc").getContent().get(0).getId();
+    }
+
+    @Benchmark
+    public boolean saveThenDelete() {
+        Product p = BenchmarkCatalog.copyOf(variants.get(random.nextInt(variants.size())));
+        p.setId(null);
+        return products.deleteById(products.save(p).getId());
+    }
+
+    @Benchmark
+    public Product update() {
+        Product p = BenchmarkCatalog.copyOf(variants.get(random.nextInt(variants.size())));
+        p.setId(firstId + random.nextInt(catalogSize));
+        return products.update(p);
+    }
+
+    @Benchmark
+    public Product adjustStock() {
+        return products.adjustStock(firstId + random.nextInt(catalogSize), 1);
+    }
+}
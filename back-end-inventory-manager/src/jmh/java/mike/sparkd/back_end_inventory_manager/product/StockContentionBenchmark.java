@@ -0,0 +1,111 @@
+package mike.sparkd.back_end_inventory_manager.product;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import mike.sparkd.back_end_inventory_manager.common.persistence.DurableStore;
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.Repository.InMemoryProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Flash sale: 32 threads taking units from a few hot products.
+// adjustStock (delta applied inside the map's per-key lock) vs the PUT path (read, copy, update),
+// which is also the one that loses updates under this load. durable=true adds the write-ahead log.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@Threads(32)
+public class StockContentionBenchmark {
+
+    @Param({"1", "16", "1024"})
+    public int hotProducts;
+
+    @Param({"false", "true"})
+    public boolean durable;
+
+    private static final int START_STOCK = 1_000_000_000;
+
+    private InMemoryProductRepository repository;
+    private Path dataDir;
+    private long firstId;
+
+    @State(Scope.Thread)
+    public static class Picker {
+        private final SplittableRandom random = new SplittableRandom();
+        private boolean restock;
+
+        // alternates -1/+1 so stock never runs out during the measurement
+        int nextDelta() {
+            restock = !restock;
+            return restock ? 1 : -1;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (durable) {
+            dataDir = Files.createTempDirectory("stock-bench");
+            repository = new InMemoryProductRepository(DurableStore.open(dataDir, "products"));
+        } else {
+            repository = new InMemoryProductRepository();
+        }
+        firstId = -1;
+        for (int i = 0; i < hotProducts; i++) {
+            Product p = repository.save(new Product("Voucher " + i, "Cat " + (i % 20), 25.0F, null, START_STOCK));
+            if (firstId < 0) firstId = p.getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repository.close();
+        if (dataDir != null) {
+            try (Stream<Path> files = Files.walk(dataDir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(f -> {
+                    try {
+                        Files.delete(f);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        }
+    }
+
+    @Benchmark
+    public Product adjustStock(Picker picker) {
+        return repository.adjustStock(firstId + picker.random.nextInt(hotProducts), picker.nextDelta());
+    }
+
+    @Benchmark
+    public Product readModifyUpdate(Picker picker) {
+        long id = firstId + picker.random.nextInt(hotProducts);
+        Product current = repository.getProductById(id).orElseThrow();
+        Product next = new Product(current.getName(), current.getCategory(), current.getUnitPrice(),
+                current.getExpirationDate(), current.getStock() + picker.nextDelta());
+        next.setId(id);
+        return repository.update(next);
+    }
+}
@@ -0,0 +1,71 @@
+package mike.sparkd.back_end_inventory_manager.product;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.DefaultProductSortStrategy;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.TopKSelection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Page 1 (size 10) sorted by unitPrice: full sort vs bounded top-K
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms6g", "-Xmx6g"})
+public class TopKSelectionBenchmark {
+
+    @Param({"100000", "1000000", "5000000"})
+    public int products;
+
+    @Param({"1", "10"})
+    public int page;
+
+    private static final int SIZE = 10;
+
+    private List<Product> catalog;
+    private Comparator<Product> cmp;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDate today = LocalDate.now();
+        catalog = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            Product p = new Product("Voucher " + i, "Cat " + (i % 20),
+                    random.nextInt(1, 50_000) / 100.0F, today.plusDays(random.nextInt(365)), random.nextInt(50));
+            p.setId((long) i + 1);
+            catalog.add(p);
+        }
+        cmp = DefaultProductSortStrategy.BY_UNIT_PRICE.buildComparator("asc");
+    }
+
+    @Benchmark
+    public List<Product> fullSort() {
+        List<Product> sorted = catalog.stream().sorted(cmp).toList();
+        int from = (page - 1) * SIZE;
+        return sorted.subList(from, Math.min(from + SIZE, sorted.size()));
+    }
+
+    @Benchmark
+    public List<Product> topK() {
+        return TopKSelection.sortedWindow(catalog.iterator(), cmp, (page - 1) * SIZE, SIZE);
+    }
+}
@@ -2,8 +2,11 @@ package mike.sparkd.back_end_inventory_manager;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+// Scheduling is on for the whole app: snapshots, reservation expiry and the expiry sweep all use @Scheduled
 @SpringBootApplication
+@EnableScheduling
 public class BackEndInventoryManagerApplication {
     public static void main(String[] args) {
         SpringApplication.run(BackEndInventoryManagerApplication.class, args);
@@ -5,10 +5,12 @@ import jakarta.validation.constraints.Positive;
 import mike.sparkd.back_end_inventory_manager.category.Service.CategoryService;
 import mike.sparkd.back_end_inventory_manager.category.Model.Category;
 import mike.sparkd.back_end_inventory_manager.category.Model.CategoryReadDto;
+import mike.sparkd.back_end_inventory_manager.common.api.ETags;
 import mike.sparkd.back_end_inventory_manager.common.exception.NotFoundException;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 
 import java.util.Comparator;
 import java.util.List;
@@ -27,8 +29,10 @@ public class CategoryController {
     }
 
     // GET /api/v1/categories
+    // 304 si el cliente ya tiene esta version (If-None-Match)
     @GetMapping
-    public List<CategoryReadDto> list() {
+    public List<CategoryReadDto> list(NativeWebRequest request) {
+        if (ETags.checkNotModified(request, categoryService.getVersion())) return null;
         return categoryService.getAllCategoriesSortedByName().stream()
                 .map(CategoryReadDto::from)
                 .toList();
@@ -36,7 +40,8 @@ public class CategoryController {
 
     // GET /api/v1/categories/{id}
     @GetMapping("/{id}")
-    public CategoryReadDto getById(@PathVariable @Positive long id) {
+    public CategoryReadDto getById(@PathVariable @Positive long id, NativeWebRequest request) {
+        if (ETags.checkNotModified(request, categoryService.getVersion())) return null;
         Category category = categoryService.getCategoryById(id);
         return CategoryReadDto.from(category);
     }
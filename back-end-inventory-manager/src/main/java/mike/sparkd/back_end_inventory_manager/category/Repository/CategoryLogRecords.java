@@ -0,0 +1,67 @@
+package mike.sparkd.back_end_inventory_manager.category.Repository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import mike.sparkd.back_end_inventory_manager.category.Model.Category;
+
+// Binary encoding of category mutations (log) and entries (snapshot)
+final class CategoryLogRecords {
+
+    static final byte UPSERT = 1;
+    static final byte DELETE = 2;
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private CategoryLogRecords() {
+    }
+
+    static byte[] upsert(Category c) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(48);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(UPSERT);
+            writeCategory(out, c);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] delete(long id) {
+        return ByteBuffer.allocate(9).put(DELETE).putLong(id).array();
+    }
+
+    static void writeCategory(DataOutputStream out, Category c) throws IOException {
+        out.writeLong(c.getId());
+        byte[] name = c.getName().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(name.length);
+        out.write(name);
+        writeDate(out, c.getCreationDate());
+        writeDate(out, c.getUpdateDate());
+    }
+
+    static Category readCategory(ByteBuffer in) {
+        long id = in.getLong();
+        byte[] name = new byte[in.getInt()];
+        in.get(name);
+        Category c = new Category(new String(name, StandardCharsets.UTF_8));
+        c.setId(id);
+        c.setCreationDate(readDate(in));
+        c.setUpdateDate(readDate(in));
+        return c;
+    }
+
+    private static void writeDate(DataOutputStream out, LocalDate date) throws IOException {
+        out.writeLong(date == null ? NO_DATE : date.toEpochDay());
+    }
+
+    private static LocalDate readDate(ByteBuffer in) {
+        long day = in.getLong();
+        return day == NO_DATE ? null : LocalDate.ofEpochDay(day);
+    }
+}
@@ -11,4 +11,6 @@ public interface CategoryRepository {
     boolean deleteById(long id);
     List<Category> getAllCategories();
     Optional<Category> findById(long id);
+    // Grows on every write, never goes back
+    long getVersion();
 }
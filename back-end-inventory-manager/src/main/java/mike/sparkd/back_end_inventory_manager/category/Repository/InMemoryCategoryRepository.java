@@ -3,11 +3,22 @@ package mike.sparkd.back_end_inventory_manager.category.Repository;
 import mike.sparkd.back_end_inventory_manager.category.Model.Category;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Repository;
+import mike.sparkd.back_end_inventory_manager.common.events.ChangeListener;
+import mike.sparkd.back_end_inventory_manager.common.events.ChangeSource;
+import mike.sparkd.back_end_inventory_manager.common.events.ChangeType;
 import mike.sparkd.back_end_inventory_manager.common.exception.BadRequestException;
 import mike.sparkd.back_end_inventory_manager.common.exception.ConflictException;
 import mike.sparkd.back_end_inventory_manager.common.exception.NotFoundException;
+import mike.sparkd.back_end_inventory_manager.common.persistence.Checkpointable;
+import mike.sparkd.back_end_inventory_manager.common.persistence.DurableStore;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Comparator;
 import java.util.List;
@@ -15,6 +26,7 @@ import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 //Hashmap or hashset
 //How do pagination works
@@ -22,69 +34,191 @@ import java.util.concurrent.atomic.AtomicLong;
 
 @Repository
 @Primary
-public class InMemoryCategoryRepository implements CategoryRepository {
+public class InMemoryCategoryRepository implements CategoryRepository, Checkpointable, ChangeSource {
     private final ConcurrentHashMap<Long, Category> byId = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, Long> nameIndex = new ConcurrentHashMap<>();
     private final AtomicLong seq = new AtomicLong(1);
+    private final AtomicLong version = new AtomicLong(); // bumped after the maps change, still under the lock
+    private final DurableStore store; // null: memory only
+    // serializes writes (so log order = memory order); a checkpoint holds it only to rotate the log
+    private final ReentrantLock writes = new ReentrantLock();
+    private volatile ChangeListener changes = ChangeListener.NONE; // called under writes, so events follow write order
 
     private static String key(String s) { return s == null ? null : s.trim().toLowerCase(); }
 
     public InMemoryCategoryRepository() {
-        save(new Category("Certificación Agile/IT"));
-        save(new Category("Certificación Cloud"));
-        save(new Category("Certificación DevOps"));
-        save(new Category("Certificación Networking"));
+        this((DurableStore) null);
+    }
+
+    @Autowired
+    public InMemoryCategoryRepository(@Value("${inventory.persistence.dir:}") String dataDir) {
+        this(dataDir.isBlank() ? null : DurableStore.open(Path.of(dataDir), "categories"));
+    }
+
+    public InMemoryCategoryRepository(DurableStore store) {
+        this.store = store;
+        if (store == null || !store.recover(this::loadSnapshot, this::applyLogged)) {
+            save(new Category("Certificación Agile/IT"));
+            save(new Category("Certificación Cloud"));
+            save(new Category("Certificación DevOps"));
+            save(new Category("Certificación Networking"));
+        }
     }
 
     @Override
     public Category save(Category c) {
         String k = key(c.getName());
         if (k == null || k.isBlank()) throw new BadRequestException("Category name cannot be blank");
-        if (nameIndex.containsKey(k)) throw new ConflictException("Category selected name already exists");
-
-        long id = seq.getAndIncrement();
-        LocalDate now = LocalDate.now();
-        c.setId(id);
-        c.setCreationDate(now);
-        c.setUpdateDate(now);
 
-        byId.put(id, c);
-        nameIndex.put(k, id);
+        long ticket;
+        writes.lock();
+        try {
+            if (nameIndex.containsKey(k)) throw new ConflictException("Category selected name already exists");
+
+            long id = seq.getAndIncrement();
+            LocalDate now = LocalDate.now();
+            c.setId(id);
+            c.setCreationDate(now);
+            c.setUpdateDate(now);
+
+            ticket = append(CategoryLogRecords.upsert(c));
+            byId.put(id, c);
+            nameIndex.put(k, id);
+            version.incrementAndGet();
+            changes.changed("category", ChangeType.CREATED, id, c);
+        } finally {
+            writes.unlock();
+        }
+        sync(ticket);
         return c;
     }
 
     @Override
     public Category update(Category c) {
         long id = c.getId();
-        Category existing = byId.get(id);
-        if (existing == null) throw new ConflictException("Category selected name already exists");
-
-        String oldK = key(existing.getName());
         String newK = key(c.getName());
-        if (newK == null || newK.isBlank()) throw new BadRequestException("Category name cannot be blank");
-
 
-        if (!newK.equals(oldK)) {
-            Long clash = nameIndex.get(newK);
-            if (clash != null && clash != id) throw new ConflictException("Category selected name already exists");
-            if (oldK != null) nameIndex.remove(oldK);
-            nameIndex.put(newK, id);
+        long ticket;
+        writes.lock();
+        try {
+            Category existing = byId.get(id);
+            if (existing == null) throw new ConflictException("Category selected name already exists");
+
+            String oldK = key(existing.getName());
+            if (newK == null || newK.isBlank()) throw new BadRequestException("Category name cannot be blank");
+
+            if (!newK.equals(oldK)) {
+                Long clash = nameIndex.get(newK);
+                if (clash != null && clash != id) throw new ConflictException("Category selected name already exists");
+            }
+
+            c.setCreationDate(existing.getCreationDate());
+            ticket = append(CategoryLogRecords.upsert(c));
+            if (!newK.equals(oldK)) {
+                if (oldK != null) nameIndex.remove(oldK);
+                nameIndex.put(newK, id);
+            }
+            byId.put(id, c);
+            version.incrementAndGet();
+            changes.changed("category", ChangeType.UPDATED, id, c);
+        } finally {
+            writes.unlock();
         }
-
-        c.setCreationDate(existing.getCreationDate());
-        byId.put(id, c);
+        sync(ticket);
         return c;
     }
 
     @Override
     public boolean deleteById(long id) {
-        Category removed = byId.remove(id);
-        if (removed == null) return false;
-        String k = key(removed.getName());
-        if (k != null) nameIndex.remove(k);
+        long ticket;
+        writes.lock();
+        try {
+            if (!byId.containsKey(id)) return false;
+            ticket = append(CategoryLogRecords.delete(id));
+            Category removed = byId.remove(id);
+            String k = key(removed.getName());
+            if (k != null) nameIndex.remove(k);
+            version.incrementAndGet();
+            changes.changed("category", ChangeType.DELETED, id, null);
+        } finally {
+            writes.unlock();
+        }
+        sync(ticket);
         return true;
     }
 
+    private long append(byte[] record) {
+        return store == null ? 0 : store.append(record);
+    }
+
+    private void sync(long ticket) {
+        if (ticket > 0) store.await(ticket);
+    }
+
+    private void applyLogged(ByteBuffer record) {
+        byte op = record.get();
+        if (op == CategoryLogRecords.UPSERT) {
+            Category c = CategoryLogRecords.readCategory(record);
+            Category previous = byId.put(c.getId(), c);
+            if (previous != null) nameIndex.remove(key(previous.getName()));
+            nameIndex.put(key(c.getName()), c.getId());
+            seq.accumulateAndGet(c.getId() + 1, Math::max);
+        } else if (op == CategoryLogRecords.DELETE) {
+            Category removed = byId.remove(record.getLong());
+            if (removed != null) nameIndex.remove(key(removed.getName()));
+        } else {
+            throw new IllegalStateException("Unknown log record " + op);
+        }
+    }
+
+    // nameIndex is derived from byId, so the snapshot only stores the categories and seq
+    @Override
+    public boolean checkpoint() {
+        if (store == null) return false;
+        return store.checkpoint(writes, out -> {
+            for (Category c : byId.values()) {
+                out.writeBoolean(true);
+                CategoryLogRecords.writeCategory(out, c);
+            }
+            out.writeBoolean(false);
+            out.writeLong(seq.get());
+        });
+    }
+
+    private void loadSnapshot(ByteBuffer in) {
+        while (in.get() != 0) {
+            Category c = CategoryLogRecords.readCategory(in);
+            byId.put(c.getId(), c);
+            nameIndex.put(key(c.getName()), c.getId());
+        }
+        seq.set(Math.max(seq.get(), in.getLong()));
+    }
+
+    @Override
+    public String getStoreName() {
+        return "categories";
+    }
+
+    @Override
+    public boolean isDurable() {
+        return store != null;
+    }
+
+    @Override
+    public Duration getRecoveryTime() {
+        return store == null ? Duration.ZERO : store.getRecoveryTime();
+    }
+
+    @Override
+    public long getLogBytes() {
+        return store == null ? 0 : store.getLogBytes();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (store != null) store.close();
+    }
+
     @Override
     public List<Category> getAllCategories() {
         return byId.values().stream()
@@ -97,6 +231,16 @@ public class InMemoryCategoryRepository implements CategoryRepository {
         return Optional.ofNullable(byId.get(id));
     }
 
+    @Override
+    public void setChangeListener(ChangeListener listener) {
+        this.changes = listener == null ? ChangeListener.NONE : listener;
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
     public boolean existsByNameIgnoreCase(String name) {
         return nameIndex.containsKey(key(name));
     }
@@ -45,4 +45,8 @@ public class CategoryService {
     public boolean deleteCategoryById(long id) {
         return categoryRepository.deleteById(id);
     }
+
+    public long getVersion() {
+        return categoryRepository.getVersion();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package mike.sparkd.back_end_inventory_manager.common.api;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.NativeWebRequest;
+
+// Strong ETags for GET responses: path + query string + the version of the repository that answers it.
+// Versions start over at 0 on every start, so the tag also carries a per-process id; otherwise a tag
+// from before a restart could match different data later on.
+public final class ETags {
+    private static final String PROCESS = Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+    private ETags() {}
+
+    // true when the client already has this response: Spring then answers 304 and the handler returns null.
+    // context: anything else the response depends on (e.g. today's date for views relative to today).
+    public static boolean checkNotModified(NativeWebRequest request, long version, Object... context) {
+        HttpServletResponse response = request.getNativeResponse(HttpServletResponse.class);
+        if (response != null && !response.containsHeader(HttpHeaders.CACHE_CONTROL)) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache"); // may be stored, but always revalidated
+        }
+        return request.checkNotModified(of(query(request) + Arrays.toString(context), version));
+    }
+
+    public static String of(String query, long version) {
+        return "\"" + PROCESS + "-" + Long.toHexString(version) + "-" + digest(query) + "\"";
+    }
+
+    // First 128 bits of SHA-256: String.hashCode collides on trivial inputs ("Aa" and "BB"), and two
+    // queries sharing a tag would let one be answered 304 with the other's body
+    private static String digest(String query) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(query.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required on every JVM", e);
+        }
+    }
+
+    private static String query(NativeWebRequest request) {
+        HttpServletRequest http = request.getNativeRequest(HttpServletRequest.class);
+        if (http == null) return request.getDescription(false);
+        String q = http.getQueryString();
+        return q == null ? http.getRequestURI() : http.getRequestURI() + "?" + q;
+    }
+}
@@ -0,0 +1,28 @@
+package mike.sparkd.back_end_inventory_manager.common.events;
+
+import java.time.Instant;
+
+public class ChangeEvent {
+    private final long seq;
+    private final String entity;   // "product" | "category"
+    private final ChangeType type;
+    private final long id;
+    private final Object data;     // null for DELETED
+    private final Instant timestamp;
+
+    public ChangeEvent(long seq, String entity, ChangeType type, long id, Object data, Instant timestamp) {
+        this.seq = seq;
+        this.entity = entity;
+        this.type = type;
+        this.id = id;
+        this.data = data;
+        this.timestamp = timestamp;
+    }
+
+    public long getSeq() { return seq; }
+    public String getEntity() { return entity; }
+    public ChangeType getType() { return type; }
+    public long getId() { return id; }
+    public Object getData() { return data; }
+    public Instant getTimestamp() { return timestamp; }
+}
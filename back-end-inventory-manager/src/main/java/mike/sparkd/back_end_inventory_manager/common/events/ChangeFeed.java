@@ -0,0 +1,111 @@
+package mike.sparkd.back_end_inventory_manager.common.events;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Last `capacity` writes of every ChangeSource, numbered 1, 2, 3... in one sequence.
+//
+// Writers never wait: a write takes the next number and stores its event in slot seq % capacity,
+// overwriting whatever was there. Readers keep their own position and copy events out; a reader that
+// finds its next slot already reused fell more than a buffer behind and has to start over (null from
+// readAfter). A slot whose number was taken but not stored yet stops the read there, so events always
+// come out in sequence order. Writers take no lock at all (they run inside the repositories' map computes):
+// sleeping readers register their thread and the writer unparks them after storing the event.
+//
+// Sequence numbers start over with the process, so positions handed out are tagged with an epoch.
+@Component
+public class ChangeFeed implements ChangeListener {
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 1);
+    private final int capacity;
+    private final AtomicReferenceArray<ChangeEvent> ring;
+    private final AtomicLong lastSeq = new AtomicLong();
+    private final Set<Thread> sleepers = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public ChangeFeed(List<ChangeSource> sources, @Value("${inventory.changes.buffer-size:65536}") int capacity) {
+        this(capacity);
+        for (ChangeSource source : sources) source.setChangeListener(this);
+    }
+
+    public ChangeFeed(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("buffer size must be > 0");
+        this.capacity = capacity;
+        this.ring = new AtomicReferenceArray<>(capacity);
+    }
+
+    @Override
+    public void changed(String entity, ChangeType type, long id, Object data) {
+        long seq = lastSeq.incrementAndGet();
+        ring.set((int) (seq % capacity), new ChangeEvent(seq, entity, type, id, data, Instant.now()));
+        if (!sleepers.isEmpty()) wakeReaders();
+    }
+
+    public long getLastSeq() {
+        return lastSeq.get();
+    }
+
+    // Up to max events after `after`, in order; empty when there is nothing new yet,
+    // null when some of them were already overwritten
+    public List<ChangeEvent> readAfter(long after, int max) {
+        List<ChangeEvent> out = new ArrayList<>();
+        for (long seq = after + 1; out.size() < max && seq <= lastSeq.get(); seq++) {
+            ChangeEvent e = ring.get((int) (seq % capacity));
+            if (e == null || e.getSeq() < seq) break; // number taken, event not stored yet
+            if (e.getSeq() > seq) return null;
+            out.add(e);
+        }
+        return out;
+    }
+
+    // Waits until there may be events after `after` (or the timeout passes). The reader registers before
+    // checking lastSeq and the writer bumps lastSeq before looking for sleepers, so one of the two always
+    // sees the other: either the check finds the new event or the writer unparks this thread.
+    public void awaitAfter(long after, long timeoutMillis) throws InterruptedException {
+        Thread reader = Thread.currentThread();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        sleepers.add(reader);
+        try {
+            while (lastSeq.get() <= after) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) return;
+                LockSupport.parkNanos(this, left);
+                if (Thread.interrupted()) throw new InterruptedException();
+            }
+        } finally {
+            sleepers.remove(reader);
+        }
+    }
+
+    // "<epoch>-<seq>": the SSE event id, sent back as Last-Event-ID to resume
+    public String position(long seq) {
+        return epoch + "-" + seq;
+    }
+
+    // Sequence after which to resume, or -1 when the position belongs to another run or to the future
+    public long parsePosition(String position) {
+        int dash = position.lastIndexOf('-');
+        if (dash < 0 || !position.substring(0, dash).equals(epoch)) return -1;
+        try {
+            long seq = Long.parseLong(position.substring(dash + 1));
+            return seq < 0 || seq > lastSeq.get() ? -1 : seq;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void wakeReaders() {
+        for (Thread reader : sleepers) LockSupport.unpark(reader);
+    }
+}
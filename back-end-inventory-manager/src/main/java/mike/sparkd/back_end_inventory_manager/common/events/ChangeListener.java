@@ -0,0 +1,10 @@
+package mike.sparkd.back_end_inventory_manager.common.events;
+
+// Called by a repository inside the write it describes (per-id lock held), so it must not block.
+// data: the stored entity after the change, null for DELETED
+@FunctionalInterface
+public interface ChangeListener {
+    ChangeListener NONE = (entity, type, id, data) -> { };
+
+    void changed(String entity, ChangeType type, long id, Object data);
+}
@@ -0,0 +1,6 @@
+package mike.sparkd.back_end_inventory_manager.common.events;
+
+// Repository that reports its writes (see ChangeFeed)
+public interface ChangeSource {
+    void setChangeListener(ChangeListener listener);
+}
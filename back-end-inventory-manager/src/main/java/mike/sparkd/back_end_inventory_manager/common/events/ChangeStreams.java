@@ -0,0 +1,128 @@
+package mike.sparkd.back_end_inventory_manager.common.events;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Server-Sent Events over the ChangeFeed, one sender thread per open stream.
+//   event "change": id <epoch>-<seq>, data ChangeEvent
+//   event "reset":  the requested position is gone (older than the buffer, or from before a restart) or the
+//                   client fell a whole buffer behind. Reload the data, then reconnect: the reset id is the
+//                   current position, which EventSource sends back as Last-Event-ID.
+// A slow client only holds up its own sender; the feed keeps moving and the stream is closed with a reset
+// once it is overtaken.
+@Component
+public class ChangeStreams {
+    private static final int BATCH = 256;
+    private static final long HEARTBEAT_MILLIS = 15_000;
+
+    private final ChangeFeed feed;
+    private final Semaphore slots;
+    private final long timeoutMillis;
+    private final AtomicInteger open = new AtomicInteger();
+    private final ExecutorService senders = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "change-stream");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public ChangeStreams(ChangeFeed feed, MeterRegistry registry,
+                         @Value("${inventory.changes.max-streams:256}") int maxStreams,
+                         @Value("${inventory.changes.stream-timeout:PT30M}") Duration timeout) {
+        this.feed = feed;
+        this.slots = new Semaphore(maxStreams);
+        this.timeoutMillis = timeout.toMillis();
+        Gauge.builder("inventory.changes.streams", open, AtomicInteger::get)
+                .description("Open change streams")
+                .register(registry);
+    }
+
+    // position: Last-Event-ID / ?from= of a previous stream, null = only what happens from now on.
+    // null when every stream slot is taken
+    public SseEmitter open(String position) {
+        if (!slots.tryAcquire()) return null;
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        AtomicBoolean closed = new AtomicBoolean();
+        emitter.onCompletion(() -> closed.set(true));
+        emitter.onTimeout(() -> closed.set(true));
+        emitter.onError(e -> closed.set(true));
+
+        long after = position == null || position.isBlank() ? feed.getLastSeq() : feed.parsePosition(position.trim());
+        open.incrementAndGet();
+        try {
+            senders.execute(() -> pump(emitter, after, closed));
+        } catch (RuntimeException e) {
+            open.decrementAndGet();
+            slots.release();
+            throw e;
+        }
+        return emitter;
+    }
+
+    private void pump(SseEmitter emitter, long after, AtomicBoolean closed) {
+        try {
+            if (after < 0) {
+                reset(emitter, "unknown position");
+                return;
+            }
+            long lastSent = System.currentTimeMillis();
+            while (!closed.get()) {
+                List<ChangeEvent> batch = feed.readAfter(after, BATCH);
+                if (batch == null) {
+                    reset(emitter, "fell behind");
+                    return;
+                }
+                if (batch.isEmpty()) {
+                    feed.awaitAfter(after, HEARTBEAT_MILLIS);
+                    if (System.currentTimeMillis() - lastSent >= HEARTBEAT_MILLIS) {
+                        emitter.send(SseEmitter.event().comment("keep-alive")); // finds dead connections
+                        lastSent = System.currentTimeMillis();
+                    }
+                    continue;
+                }
+                for (ChangeEvent e : batch) {
+                    emitter.send(SseEmitter.event()
+                            .id(feed.position(e.getSeq()))
+                            .name("change")
+                            .data(e, MediaType.APPLICATION_JSON));
+                }
+                after = batch.get(batch.size() - 1).getSeq();
+                lastSent = System.currentTimeMillis();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // client gone or emitter already completed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        } finally {
+            open.decrementAndGet();
+            slots.release();
+        }
+    }
+
+    private void reset(SseEmitter emitter, String reason) throws IOException {
+        emitter.send(SseEmitter.event()
+                .id(feed.position(feed.getLastSeq()))
+                .name("reset")
+                .data(reason));
+        emitter.complete();
+    }
+
+    @PreDestroy
+    public void close() {
+        senders.shutdownNow();
+    }
+}
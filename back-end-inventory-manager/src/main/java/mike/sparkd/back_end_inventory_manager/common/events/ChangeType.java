@@ -0,0 +1,7 @@
+package mike.sparkd.back_end_inventory_manager.common.events;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
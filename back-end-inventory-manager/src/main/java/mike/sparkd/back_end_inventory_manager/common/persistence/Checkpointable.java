@@ -0,0 +1,20 @@
+package mike.sparkd.back_end_inventory_manager.common.persistence;
+
+import java.time.Duration;
+
+// Repository that can snapshot its state to disk (see DurableStore)
+public interface Checkpointable {
+
+    String getStoreName();
+
+    // false when running memory-only
+    boolean isDurable();
+
+    // Writes a snapshot and drops the log it replaces; false when there was nothing new to write
+    boolean checkpoint();
+
+    // Time spent loading the snapshot and replaying the log at startup
+    Duration getRecoveryTime();
+
+    long getLogBytes();
+}
@@ -0,0 +1,234 @@
+package mike.sparkd.back_end_inventory_manager.common.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+// Snapshot + write-ahead log for one in-memory repository, in <dir>:
+//   <name>.snapshot       full state, valid for every log generation below its own
+//   <name>-<gen>.wal      mutations, replayed in generation order on top of the snapshot
+//
+// checkpoint() rotates the log to a new generation while the owner's writers are held off for an
+// instant, then writes the snapshot with writers running again. The snapshot is fuzzy (it may or may
+// not include writes made while it runs), which is fine because those writes are in the new log and
+// log records carry full state, so replaying them on top gives the same result.
+public final class DurableStore implements Closeable {
+
+    private static final int MAGIC = 0x494E5653; // "INVS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4;
+
+    @FunctionalInterface
+    public interface SnapshotWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface SnapshotLoader {
+        void load(ByteBuffer payload);
+    }
+
+    private final Path dir;
+    private final String name;
+    private final Pattern logFile;
+    private final ReentrantLock checkpointLock = new ReentrantLock();
+    private WriteAheadLog log;
+    private long generation;
+    private Duration recoveryTime = Duration.ZERO;
+
+    private DurableStore(Path dir, String name) {
+        this.dir = dir;
+        this.name = name;
+        this.logFile = Pattern.compile(Pattern.quote(name) + "-(\\d+)\\.wal");
+    }
+
+    public static DurableStore open(Path dir, String name) {
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create " + dir, e);
+        }
+        return new DurableStore(dir, name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Loads the snapshot (memory-mapped) and replays the logs after it.
+    // Returns false for a brand new store, so the owner can seed it.
+    public boolean recover(SnapshotLoader loader, Consumer<ByteBuffer> replay) {
+        long start = System.nanoTime();
+        boolean found = false;
+
+        Path snapshot = snapshotPath();
+        if (Files.exists(snapshot)) {
+            generation = loadSnapshot(snapshot, loader);
+            found = true;
+        }
+
+        List<Long> generations = logGenerations();
+        for (long g : generations) {
+            if (g < generation) {
+                delete(logPath(g)); // left behind by a crash right after the last snapshot
+            } else if (g != generations.get(generations.size() - 1)) {
+                found |= WriteAheadLog.readAll(logPath(g), replay) > 0;
+            }
+        }
+        if (!generations.isEmpty()) generation = Math.max(generation, generations.get(generations.size() - 1));
+
+        log = WriteAheadLog.open(logPath(generation));
+        found |= log.replay(replay) > 0;
+        recoveryTime = Duration.ofNanos(System.nanoTime() - start);
+        return found;
+    }
+
+    public long append(byte[] record) {
+        return log.append(record);
+    }
+
+    public void await(long ticket) {
+        log.await(ticket);
+    }
+
+    // Returns false when nothing changed since the last snapshot
+    public boolean checkpoint(Lock writers, SnapshotWriter writer) {
+        checkpointLock.lock();
+        try {
+            if (log.size() == 0 && Files.exists(snapshotPath())) return false;
+
+            long next;
+            writers.lock();
+            try {
+                next = generation + 1;
+                log.rotate(logPath(next));
+                generation = next;
+            } finally {
+                writers.unlock();
+            }
+
+            writeSnapshot(next, writer);
+            for (long g : logGenerations()) {
+                if (g < next) delete(logPath(g));
+            }
+            return true;
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    public Duration getRecoveryTime() {
+        return recoveryTime;
+    }
+
+    public long getLogBytes() {
+        return log == null ? 0 : log.size();
+    }
+
+    @Override
+    public void close() {
+        if (log != null) log.close();
+    }
+
+    // Header: magic, version, generation, payload length, payload CRC32
+    private void writeSnapshot(long gen, SnapshotWriter writer) {
+        Path tmp = dir.resolve(name + ".snapshot.tmp");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ch.position(HEADER_BYTES);
+                CRC32 crc = new CRC32();
+                DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(ch), 64 * 1024), crc));
+                writer.write(out);
+                out.flush();
+                long payload = ch.position() - HEADER_BYTES;
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                        .putInt(MAGIC).putInt(VERSION).putLong(gen).putLong(payload).putInt((int) crc.getValue());
+                header.flip();
+                ch.write(header, 0);
+                ch.force(true);
+            }
+            Files.move(tmp, snapshotPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write snapshot " + snapshotPath(), e);
+        }
+    }
+
+    private long loadSnapshot(Path snapshot, SnapshotLoader loader) {
+        try (FileChannel ch = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            // a single mapping covers up to 2GB of snapshot
+            if (ch.size() > Integer.MAX_VALUE) throw new IllegalStateException("Snapshot too large to map: " + snapshot);
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (map.limit() < HEADER_BYTES || map.getInt() != MAGIC || map.getInt() != VERSION) {
+                throw new IllegalStateException("Not a snapshot file: " + snapshot);
+            }
+            long gen = map.getLong();
+            long length = map.getLong();
+            int expectedCrc = map.getInt();
+            if (length != map.limit() - HEADER_BYTES) throw new IllegalStateException("Truncated snapshot: " + snapshot);
+
+            ByteBuffer payload = map.slice(HEADER_BYTES, (int) length);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != expectedCrc) throw new IllegalStateException("Corrupt snapshot: " + snapshot);
+
+            loader.load(payload);
+            return gen;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read snapshot " + snapshot, e);
+        }
+    }
+
+    private List<Long> logGenerations() {
+        List<Long> out = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(f -> {
+                Matcher m = logFile.matcher(f.getFileName().toString());
+                if (m.matches()) out.add(Long.parseLong(m.group(1)));
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list " + dir, e);
+        }
+        out.sort(null);
+        return out;
+    }
+
+    private Path snapshotPath() {
+        return dir.resolve(name + ".snapshot");
+    }
+
+    private Path logPath(long gen) {
+        return dir.resolve(name + "-" + gen + ".wal");
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete " + file, e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package mike.sparkd.back_end_inventory_manager.common.persistence;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Periodic background snapshots of the durable repositories.
+// Metrics (actuator /metrics): inventory.snapshot.duration, inventory.snapshot.recovery, inventory.snapshot.log.bytes
+@Component
+public class SnapshotScheduler {
+    private static final Logger log = LoggerFactory.getLogger(SnapshotScheduler.class);
+
+    private final List<Checkpointable> stores;
+    private final MeterRegistry registry;
+
+    public SnapshotScheduler(List<Checkpointable> stores, MeterRegistry registry) {
+        this.stores = stores.stream().filter(Checkpointable::isDurable).toList();
+        this.registry = registry;
+        for (Checkpointable store : this.stores) {
+            TimeGauge.builder("inventory.snapshot.recovery", store, TimeUnit.MILLISECONDS,
+                            s -> s.getRecoveryTime().toMillis())
+                    .description("Snapshot load + log replay time at startup")
+                    .tag("store", store.getStoreName())
+                    .register(registry);
+            Gauge.builder("inventory.snapshot.log.bytes", store, Checkpointable::getLogBytes)
+                    .description("Log written since the last snapshot")
+                    .tag("store", store.getStoreName())
+                    .register(registry);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${inventory.persistence.snapshot-interval:PT5M}",
+            fixedDelayString = "${inventory.persistence.snapshot-interval:PT5M}")
+    public void snapshotAll() {
+        for (Checkpointable store : stores) {
+            Timer timer = Timer.builder("inventory.snapshot.duration")
+                    .description("Time to write a snapshot")
+                    .tag("store", store.getStoreName())
+                    .register(registry);
+            try {
+                long start = System.nanoTime();
+                if (store.checkpoint()) {
+                    timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            } catch (RuntimeException e) {
+                // the log is still complete, the next run tries again
+                log.error("Snapshot of {} failed", store.getStoreName(), e);
+            }
+        }
+    }
+}
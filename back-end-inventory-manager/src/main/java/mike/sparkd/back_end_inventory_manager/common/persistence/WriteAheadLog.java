@@ -0,0 +1,335 @@
+package mike.sparkd.back_end_inventory_manager.common.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+// Append-only log with group commit.
+// Frame: int payload length, int CRC32 of the payload, payload bytes.
+//
+// append() only queues the frame and hands back a ticket, so it is cheap enough to call while holding
+// a per-key lock (that keeps the log order equal to the in-memory order). It takes no lock: frames are
+// pushed onto a stack with one CAS, each numbered one past the frame under it, so ticket order is log
+// order. A single writer thread swaps the whole stack out, writes it in one go and fsyncs once;
+// await(ticket) blocks until the batch holding that ticket is on disk. Concurrent writers therefore
+// share fsyncs instead of paying one each.
+//
+// Fail-stop: once a write or fsync fails, every later append() throws before the caller touches its
+// in-memory state, so memory never runs ahead of a log that has stopped taking records.
+public final class WriteAheadLog implements Closeable {
+
+    private Path path;
+    private FileChannel channel;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+
+    // Newest queued frame; the bottom one (no bytes) only carries the last ticket already taken by the writer
+    private final AtomicReference<Frame> queue = new AtomicReference<>(new Frame(null, 0, null));
+    private long durable;        // last ticket known to be on disk
+    private IOException failure;
+    private volatile boolean failed;  // failure is set; read by append() without the lock
+    private volatile boolean replayed;
+    private volatile boolean closed;
+    private boolean stopped;     // the writer thread has exited
+    private volatile boolean writerParked;
+    private Thread writer;
+
+    private static final class Frame {
+        final ByteBuffer bytes;
+        final long ticket;
+        final Frame below;
+
+        Frame(ByteBuffer bytes, long ticket, Frame below) {
+            this.bytes = bytes;
+            this.ticket = ticket;
+            this.below = below;
+        }
+    }
+
+    private WriteAheadLog(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    public static WriteAheadLog open(Path path) {
+        try {
+            if (path.getParent() != null) Files.createDirectories(path.getParent());
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new WriteAheadLog(path, channel);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open log " + path, e);
+        }
+    }
+
+    public Path getPath() {
+        lock.lock();
+        try {
+            return path;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Feeds every complete record to the consumer, in order, and returns how many there were.
+    // A torn or corrupt tail (crash in the middle of a write) is cut off. Must run once, before any append.
+    public long replay(Consumer<ByteBuffer> consumer) {
+        lock.lock();
+        try {
+            if (replayed) throw new IllegalStateException("log already replayed");
+            long[] validEnd = new long[1];
+            long records = read(path, consumer, validEnd);
+            channel.truncate(validEnd[0]);
+            channel.position(validEnd[0]);
+            startWriter();
+            replayed = true;
+            return records;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot replay log " + path, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Queues a record; returns the ticket to pass to await(). Throws, queuing nothing, once the log has failed.
+    public long append(byte[] payload) {
+        ByteBuffer frame = ByteBuffer.allocate(8 + payload.length);
+        frame.putInt(payload.length).putInt(crc(payload)).put(payload).flip();
+        if (!replayed) throw new IllegalStateException("replay the log before appending");
+        if (closed) throw new IllegalStateException("log is closed");
+        if (failed) throw new UncheckedIOException("Log stopped after a failed write, no more records are accepted", failure);
+        Frame top;
+        Frame queued;
+        do {
+            top = queue.get();
+            queued = new Frame(frame, top.ticket + 1, top);
+        } while (!queue.compareAndSet(top, queued));
+        // the writer raises the flag before its last look at the queue, so one of the two sees the other
+        if (writerParked) LockSupport.unpark(writer);
+        return queued.ticket;
+    }
+
+    public void await(long ticket) {
+        lock.lock();
+        try {
+            while (durable < ticket && failure == null && !stopped) {
+                flushed.awaitUninterruptibly();
+            }
+            if (durable >= ticket) return;
+            if (failure == null) throw new IllegalStateException("log closed before ticket " + ticket + " was written");
+            throw new UncheckedIOException("Write to " + path + " failed", failure);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Reads a closed log (an older generation) without modifying it
+    public static long readAll(Path path, Consumer<ByteBuffer> consumer) {
+        try {
+            return read(path, consumer, new long[1]);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read log " + path, e);
+        }
+    }
+
+    // Switches appends to a fresh file once everything queued so far is on disk.
+    // The caller is expected to hold off its writers meanwhile, so the cut between files is clean.
+    public void rotate(Path next) {
+        lock.lock();
+        try {
+            if (!replayed || closed) throw new IllegalStateException("log is not open for appends");
+            long appended = queue.get().ticket;
+            while (durable < appended && failure == null && !stopped) {
+                flushed.awaitUninterruptibly();
+            }
+            if (failure != null) throw new UncheckedIOException("Write to " + path + " failed", failure);
+            if (durable < appended) throw new IllegalStateException("log is closed");
+            // the writer only takes the channel under the lock, and it is idle: nothing is pending
+            FileChannel fresh = FileChannel.open(next, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            channel.close();
+            channel = fresh;
+            path = next;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot rotate log to " + next, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long size() {
+        lock.lock();
+        try {
+            return channel.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        Thread w;
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            w = writer;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            if (w != null) {
+                LockSupport.unpark(w);
+                w.join();
+            }
+            lock.lock();
+            try {
+                channel.close();
+            } finally {
+                lock.unlock();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void startWriter() {
+        writer = new Thread(this::writeLoop, "wal-writer-" + path.getFileName());
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private void writeLoop() {
+        while (true) {
+            Frame batch = takeQueued();
+            if (batch == null) { // closed and drained
+                stop();
+                return;
+            }
+            long batchEnd = batch.ticket;
+            FileChannel target;
+            lock.lock();
+            try {
+                target = channel;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            try {
+                // the stack holds the newest frame on top: lay the batch out oldest first
+                long first = bottomTicket(batch) + 1;
+                ByteBuffer[] frames = new ByteBuffer[(int) (batchEnd - first + 1)];
+                for (Frame f = batch; f.bytes != null; f = f.below) {
+                    frames[(int) (f.ticket - first)] = f.bytes;
+                }
+                long remaining = 0;
+                for (ByteBuffer f : frames) remaining += f.remaining();
+                while (remaining > 0) {
+                    remaining -= target.write(frames);
+                }
+                target.force(false);
+            } catch (IOException e) {
+                error = e;
+            }
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                    failed = true;
+                } else {
+                    durable = batchEnd;
+                }
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (error != null) {
+                stop();
+                return;
+            }
+        }
+    }
+
+    // Swaps out everything queued, leaving a bottom frame with the last ticket taken; null once closed and drained
+    private Frame takeQueued() {
+        while (true) {
+            Frame top = queue.get();
+            if (top.bytes != null) {
+                if (queue.compareAndSet(top, new Frame(null, top.ticket, null))) return top;
+                continue;
+            }
+            if (closed) return null;
+            writerParked = true;
+            if (queue.get() == top && !closed) LockSupport.park(this);
+            writerParked = false;
+        }
+    }
+
+    private static long bottomTicket(Frame batch) {
+        Frame f = batch;
+        while (f.bytes != null) f = f.below;
+        return f.ticket;
+    }
+
+    private void stop() {
+        lock.lock();
+        try {
+            stopped = true;
+            flushed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long read(Path path, Consumer<ByteBuffer> consumer, long[] validEnd) throws IOException {
+        long records = 0;
+        try (InputStream raw = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(raw, 64 * 1024))) {
+            while (true) {
+                int length;
+                int crc;
+                byte[] payload;
+                try {
+                    length = in.readInt();
+                    crc = in.readInt();
+                    if (length < 0) break;
+                    payload = in.readNBytes(length);
+                } catch (EOFException e) {
+                    break;
+                }
+                if (payload.length < length || crc != crc(payload)) break;
+                consumer.accept(ByteBuffer.wrap(payload).asReadOnlyBuffer());
+                validEnd[0] += 8 + length;
+                records++;
+            }
+        }
+        return records;
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
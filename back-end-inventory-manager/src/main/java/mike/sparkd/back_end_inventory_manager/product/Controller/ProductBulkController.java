@@ -0,0 +1,84 @@
+package mike.sparkd.back_end_inventory_manager.product.Controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import mike.sparkd.back_end_inventory_manager.common.exception.BadRequestException;
+import mike.sparkd.back_end_inventory_manager.product.Model.BatchDeleteRequest;
+import mike.sparkd.back_end_inventory_manager.product.Model.BatchUpdateRequest;
+import mike.sparkd.back_end_inventory_manager.product.Model.BulkOperationResult;
+import mike.sparkd.back_end_inventory_manager.product.Service.BulkFormat;
+import mike.sparkd.back_end_inventory_manager.product.Service.ProductBulkService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping(
+        path = {"api/v1/products"}
+)
+public class ProductBulkController {
+    private final ProductBulkService productBulkService;
+
+    @Autowired
+    public ProductBulkController(ProductBulkService productBulkService) {
+        this.productBulkService = productBulkService;
+    }
+
+    // Body: NDJSON (application/x-ndjson) or CSV with header (text/csv), read as a stream
+    @PostMapping(path = {"/bulk"}, consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public BulkOperationResult importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                              InputStream body) throws IOException {
+        BulkFormat format = BulkFormat.from(contentType);
+        if (format == null) throw new BadRequestException("Unsupported content type " + contentType);
+        return productBulkService.importProducts(body, format);
+    }
+
+    // Whole catalog (or the filtered part) straight from the repository iterator, in id order
+    @GetMapping({"/export"})
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(name="name", required=false) String name,
+            @RequestParam(name="category", required=false) String category,
+            @RequestParam(name="availability", required=false, defaultValue="all") String availability, // in|out|all
+            @RequestParam(name="format", defaultValue="ndjson") String format // ndjson|csv
+    ) {
+        BulkFormat f = "csv".equalsIgnoreCase(format) ? BulkFormat.CSV
+                : "ndjson".equalsIgnoreCase(format) ? BulkFormat.NDJSON : null;
+        if (f == null) throw new BadRequestException("format must be ndjson or csv");
+
+        StreamingResponseBody body = out -> productBulkService.exportProducts(name, category, availability, f, out);
+        return ResponseEntity.ok()
+                .contentType(f.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products." + format.toLowerCase() + "\"")
+                .body(body);
+    }
+
+    // 200 with per-item errors, or 400 when an atomic batch was rejected (nothing applied)
+    @PatchMapping({"/batch"})
+    public ResponseEntity<BulkOperationResult> updateProducts(@RequestBody BatchUpdateRequest request) {
+        boolean atomic = isAtomic(request.getMode());
+        if (request.getItems() == null || request.getItems().isEmpty()) throw new BadRequestException("items must not be empty");
+        return respond(productBulkService.updateProducts(request.getItems(), atomic), atomic);
+    }
+
+    @DeleteMapping({"/batch"})
+    public ResponseEntity<BulkOperationResult> deleteProducts(@RequestBody BatchDeleteRequest request) {
+        boolean atomic = isAtomic(request.getMode());
+        if (request.getIds() == null || request.getIds().isEmpty()) throw new BadRequestException("ids must not be empty");
+        return respond(productBulkService.deleteProducts(request.getIds(), atomic), atomic);
+    }
+
+    private static boolean isAtomic(String mode) {
+        if (mode == null || mode.isBlank() || "atomic".equalsIgnoreCase(mode.trim())) return true;
+        String m = mode.trim().toLowerCase().replace('_', '-');
+        if ("best-effort".equals(m)) return false;
+        throw new BadRequestException("mode must be atomic or best-effort");
+    }
+
+    private static ResponseEntity<BulkOperationResult> respond(BulkOperationResult result, boolean atomic) {
+        return atomic && result.getFailed() > 0 ? ResponseEntity.badRequest().body(result) : ResponseEntity.ok(result);
+    }
+}
@@ -0,0 +1,34 @@
+package mike.sparkd.back_end_inventory_manager.product.Controller;
+
+import mike.sparkd.back_end_inventory_manager.common.events.ChangeStreams;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping(
+        path = {"api/v1/products"}
+)
+public class ProductChangesController {
+    private final ChangeStreams changeStreams;
+
+    @Autowired
+    public ProductChangesController(ChangeStreams changeStreams) {
+        this.changeStreams = changeStreams;
+    }
+
+    // SSE con los cambios de productos y categorias (created/updated/deleted), en orden de secuencia.
+    // Para retomar: Last-Event-ID (lo manda EventSource solo al reconectar) o ?from= con el id del ultimo evento.
+    // 503 si ya estan abiertos todos los streams permitidos
+    @GetMapping(path = {"/changes"}, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(
+            @RequestParam(name="from", required=false) String from,
+            @RequestHeader(name="Last-Event-ID", required=false) String lastEventId) {
+        SseEmitter emitter = changeStreams.open(lastEventId != null ? lastEventId : from);
+        if (emitter == null) return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        return ResponseEntity.ok(emitter);
+    }
+}
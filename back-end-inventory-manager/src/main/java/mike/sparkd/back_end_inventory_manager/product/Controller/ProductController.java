@@ -4,15 +4,20 @@ package mike.sparkd.back_end_inventory_manager.product.Controller;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
 
+import mike.sparkd.back_end_inventory_manager.common.api.ETags;
+import mike.sparkd.back_end_inventory_manager.product.Model.CategoryExpirySummary;
 import mike.sparkd.back_end_inventory_manager.product.Model.CategoryInventorySummary;
 import mike.sparkd.back_end_inventory_manager.product.Model.PageResponse;
 import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.Model.StockAdjustment;
 import mike.sparkd.back_end_inventory_manager.product.Service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 
 @RestController
 @RequestMapping(
@@ -35,16 +40,50 @@ public class ProductController {
             @RequestParam(name="category", required=false) String category,
             @RequestParam(name="availability", required=false, defaultValue="all") String availability, // in|out|all
             @RequestParam(name="sortBy", defaultValue="id") String sortBy, // id|name|unitPrice|stock|expirationDate
-            @RequestParam(name="direction", defaultValue="asc") String direction
+            @RequestParam(name="direction", defaultValue="asc") String direction,
+            @RequestParam(name="cursor", required=false) String cursor, // nextCursor de la pagina anterior
+            NativeWebRequest request
     ) {
+        // 304 antes de buscar si el cliente ya tiene esta version (If-None-Match)
+        if (ETags.checkNotModified(request, productService.getVersion())) return null;
+        if (cursor != null && !cursor.isBlank()) {
+            return productService.searchByCursor(cursor, size, name, category, availability, sortBy, direction);
+        }
         return productService.search(page, size, name, category, availability, sortBy, direction);
     }
 
     @GetMapping({"/metrics"})
-    public List<CategoryInventorySummary> getInventorySummaryByCategory(){
+    public List<CategoryInventorySummary> getInventorySummaryByCategory(NativeWebRequest request){
+        if (ETags.checkNotModified(request, productService.getVersion())) return null;
         return this.productService.getAllCategoryMetrics();
     }
 
+    // Unidades y valor por categoria en cada horizonte de vencimiento (vencido, <1 semana, <2 semanas, mas, sin fecha)
+    @GetMapping({"/metrics/expiry"})
+    public List<CategoryExpirySummary> getExpiryMetrics(NativeWebRequest request) {
+        // los horizontes dependen del dia, no solo de los datos
+        if (ETags.checkNotModified(request, productService.getVersion(), LocalDate.now())) return null;
+        return this.productService.getExpiryMetrics();
+    }
+
+    // Productos que vencen entre hoy y hoy + days, los mas proximos primero
+    @GetMapping({"/expiring"})
+    public List<Product> getExpiringProducts(
+            @RequestParam(name="days", defaultValue="7") int days,
+            @RequestParam(name="limit", defaultValue="100") int limit,
+            NativeWebRequest request) {
+        if (ETags.checkNotModified(request, productService.getVersion(), LocalDate.now())) return null;
+        return this.productService.getExpiringProducts(days, limit);
+    }
+
+    // Unidades y valor por categoria de esos mismos productos
+    @GetMapping({"/expiring/summary"})
+    public List<CategoryInventorySummary> getExpiringSummary(@RequestParam(name="days", defaultValue="7") int days,
+                                                             NativeWebRequest request) {
+        if (ETags.checkNotModified(request, productService.getVersion(), LocalDate.now())) return null;
+        return this.productService.getExpiringSummary(days);
+    }
+
     @PostMapping
     public ResponseEntity<Product> saveProduct(@RequestBody @Valid Product product) {
         Product created = this.productService.saveProduct(product);
@@ -58,6 +97,12 @@ public class ProductController {
         return ResponseEntity.ok(updated);
     }
 
+    // Suma delta al stock sin reemplazar el producto; 409 si el stock quedaria negativo
+    @PostMapping({"/{id}/stock"})
+    public ResponseEntity<Product> adjustStock(@PathVariable @Positive long id, @RequestBody @Valid StockAdjustment adjustment) {
+        return ResponseEntity.ok(this.productService.adjustStock(id, adjustment.getDelta()));
+    }
+
     @DeleteMapping({"/{id}"})
     public ResponseEntity<Void> deleteProduct(@PathVariable @Positive long id) {
         boolean deleted = this.productService.deleteProductById(id);
@@ -0,0 +1,13 @@
+package mike.sparkd.back_end_inventory_manager.product.Model;
+
+import java.util.List;
+
+public class BatchDeleteRequest {
+    private String mode;                // atomic (default) | best-effort
+    private List<Long> ids;
+
+    public String getMode() { return mode; }
+    public void setMode(String mode) { this.mode = mode; }
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+}
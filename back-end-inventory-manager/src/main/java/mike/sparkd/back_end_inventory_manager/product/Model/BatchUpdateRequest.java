@@ -0,0 +1,13 @@
+package mike.sparkd.back_end_inventory_manager.product.Model;
+
+import java.util.List;
+
+public class BatchUpdateRequest {
+    private String mode;                // atomic (default) | best-effort
+    private List<ProductPatch> items;
+
+    public String getMode() { return mode; }
+    public void setMode(String mode) { this.mode = mode; }
+    public List<ProductPatch> getItems() { return items; }
+    public void setItems(List<ProductPatch> items) { this.items = items; }
+}
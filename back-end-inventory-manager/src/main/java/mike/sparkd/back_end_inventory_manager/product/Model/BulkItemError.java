@@ -0,0 +1,17 @@
+package mike.sparkd.back_end_inventory_manager.product.Model;
+
+public class BulkItemError {
+    private final long index;   // line number for imports, 0-based position in the request for batch operations
+    private final Long id;      // product id, when known
+    private final String message;
+
+    public BulkItemError(long index, Long id, String message) {
+        this.index = index;
+        this.id = id;
+        this.message = message;
+    }
+
+    public long getIndex() { return index; }
+    public Long getId() { return id; }
+    public String getMessage() { return message; }
+}
@@ -0,0 +1,22 @@
+package mike.sparkd.back_end_inventory_manager.product.Model;
+
+import java.util.List;
+
+public class BulkOperationResult {
+    private final long succeeded;
+    private final long failed;
+    private final List<BulkItemError> errors;   // first MAX_REPORTED_ERRORS only
+    private final boolean errorsTruncated;
+
+    public BulkOperationResult(long succeeded, long failed, List<BulkItemError> errors, boolean errorsTruncated) {
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.errors = errors;
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    public long getSucceeded() { return succeeded; }
+    public long getFailed() { return failed; }
+    public List<BulkItemError> getErrors() { return errors; }
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+}
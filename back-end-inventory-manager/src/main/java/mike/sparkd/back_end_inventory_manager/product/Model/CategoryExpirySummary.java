@@ -0,0 +1,43 @@
+package mike.sparkd.back_end_inventory_manager.product.Model;
+
+import java.util.Map;
+
+// Units and stock value of one category per expiry horizon (every horizon present, zeros included)
+public class CategoryExpirySummary {
+    private final String category;
+    private final Map<ExpiryHorizon, Totals> horizons;
+    private final int unitsAtRisk;
+    private final double valueAtRisk;
+
+    public CategoryExpirySummary(String category, Map<ExpiryHorizon, Totals> horizons) {
+        this.category = category;
+        this.horizons = horizons;
+        int units = 0;
+        double value = 0;
+        for (Map.Entry<ExpiryHorizon, Totals> e : horizons.entrySet()) {
+            if (!e.getKey().isAtRisk()) continue;
+            units += e.getValue().getUnits();
+            value += e.getValue().getValue();
+        }
+        this.unitsAtRisk = units;
+        this.valueAtRisk = value;
+    }
+
+    public String getCategory() { return category; }
+    public Map<ExpiryHorizon, Totals> getHorizons() { return horizons; }
+    public int getUnitsAtRisk() { return unitsAtRisk; }
+    public double getValueAtRisk() { return valueAtRisk; }
+
+    public static class Totals {
+        private final int units;
+        private final double value;
+
+        public Totals(int units, double value) {
+            this.units = units;
+            this.value = value;
+        }
+
+        public int getUnits() { return units; }
+        public double getValue() { return value; }
+    }
+}
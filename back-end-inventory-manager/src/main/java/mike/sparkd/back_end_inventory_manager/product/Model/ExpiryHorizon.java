@@ -0,0 +1,46 @@
+package mike.sparkd.back_end_inventory_manager.product.Model;
+
+import java.time.LocalDate;
+
+// Expiry buckets by days until expiration, same cut-offs as the catalogue table colors in the frontend
+// (<= 0 expired, < 7, <= 14, later). Day 14 stays in LESS_THAN_2_WEEKS because the table paints it yellow
+public enum ExpiryHorizon {
+    EXPIRED(Long.MIN_VALUE, 0),
+    LESS_THAN_1_WEEK(1, 6),
+    LESS_THAN_2_WEEKS(7, 14),
+    MORE_THAN_2_WEEKS(15, Long.MAX_VALUE),
+    NO_EXPIRATION(0, -1);
+
+    private final long minDays;
+    private final long maxDays;
+
+    ExpiryHorizon(long minDays, long maxDays) {
+        this.minDays = minDays;
+        this.maxDays = maxDays;
+    }
+
+    public static ExpiryHorizon of(LocalDate expirationDate, LocalDate today) {
+        return expirationDate == null ? NO_EXPIRATION : ofDays(expirationDate.toEpochDay() - today.toEpochDay());
+    }
+
+    public static ExpiryHorizon ofDays(long daysUntilExpiration) {
+        if (daysUntilExpiration <= EXPIRED.maxDays) return EXPIRED;
+        if (daysUntilExpiration <= LESS_THAN_1_WEEK.maxDays) return LESS_THAN_1_WEEK;
+        if (daysUntilExpiration <= LESS_THAN_2_WEEKS.maxDays) return LESS_THAN_2_WEEKS;
+        return MORE_THAN_2_WEEKS;
+    }
+
+    // Epoch-day range covered on the given day (empty for NO_EXPIRATION)
+    public long firstDay(LocalDate today) {
+        return minDays == Long.MIN_VALUE ? Long.MIN_VALUE : today.toEpochDay() + minDays;
+    }
+
+    public long lastDay(LocalDate today) {
+        return maxDays == Long.MAX_VALUE ? Long.MAX_VALUE : today.toEpochDay() + maxDays;
+    }
+
+    // Counted in the at-risk totals: already expired or expiring within two weeks
+    public boolean isAtRisk() {
+        return this == EXPIRED || this == LESS_THAN_1_WEEK || this == LESS_THAN_2_WEEKS;
+    }
+}
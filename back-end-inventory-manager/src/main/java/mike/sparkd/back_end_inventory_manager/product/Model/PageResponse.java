@@ -9,13 +9,19 @@ public class PageResponse<T> {
     private final int size;
     private final long totalElements;
     private final int totalPages;
+    private final String nextCursor;  // null on the last page
 
     public PageResponse(List<T> content, int page, int size, long totalElements) {
+        this(content, page, size, totalElements, null);
+    }
+
+    public PageResponse(List<T> content, int page, int size, long totalElements, String nextCursor) {
         this.content = content;
         this.page = page;
         this.size = size;
         this.totalElements = totalElements;
         this.totalPages = (int) Math.ceil((double) totalElements / size);
+        this.nextCursor = nextCursor;
     }
 
     public List<T> getContent() { return content; }
@@ -23,4 +29,5 @@ public class PageResponse<T> {
     public int getSize() { return size; }
     public long getTotalElements() { return totalElements; }
     public int getTotalPages() { return totalPages; }
+    public String getNextCursor() { return nextCursor; }
 }
\ No newline at end of file
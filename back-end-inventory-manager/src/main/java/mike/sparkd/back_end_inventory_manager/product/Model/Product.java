@@ -1,6 +1,7 @@
 
 package mike.sparkd.back_end_inventory_manager.product.Model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.FutureOrPresent;
 import jakarta.validation.constraints.Min;
@@ -8,6 +9,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import jakarta.validation.constraints.Size.List;
 import java.time.LocalDate;
+import java.util.Locale;
 
 public class Product {
     private Long id;
@@ -32,20 +34,24 @@ public class Product {
     private LocalDate creationDate;
     private LocalDate updateDate;
 
+    // Normalized copies of name/category for sorting and filtering, kept in sync by the setters
+    private String nameKey;
+    private String categoryKey;
+
     public Product() {
     }
 
     public Product(String name, String category, float unitPrice, LocalDate expirationDate, int stock) {
-        this.name = name;
-        this.category = category;
+        this.setName(name);
+        this.setCategory(category);
         this.unitPrice = unitPrice;
         this.expirationDate = expirationDate;
         this.stock = stock;
     }
 
     public Product(String name, String category, float unitPrice, int stock) {
-        this.name = name;
-        this.category = category;
+        this.setName(name);
+        this.setCategory(category);
         this.unitPrice = unitPrice;
         this.stock = stock;
     }
@@ -64,6 +70,7 @@ public class Product {
 
     public void setName(String name) {
         this.name = name;
+        this.nameKey = normalizeKey(name);
     }
 
     public String getCategory() {
@@ -72,6 +79,7 @@ public class Product {
 
     public void setCategory(String category) {
         this.category = category;
+        this.categoryKey = normalizeKey(category);
     }
 
     public float getUnitPrice() {
@@ -113,4 +121,18 @@ public class Product {
     public void setUpdateDate(LocalDate updateDate) {
         this.updateDate = updateDate;
     }
+
+    @JsonIgnore
+    public String getNameKey() {
+        return this.nameKey;
+    }
+
+    @JsonIgnore
+    public String getCategoryKey() {
+        return this.categoryKey;
+    }
+
+    public static String normalizeKey(String s) {
+        return s == null ? null : s.trim().toLowerCase(Locale.ROOT);
+    }
 }
@@ -0,0 +1,50 @@
+package mike.sparkd.back_end_inventory_manager.product.Model;
+
+import java.time.LocalDate;
+
+// Partial update of one product: null fields are left as they are
+public class ProductPatch {
+    private Long id;
+    private String name;
+    private String category;
+    private Float unitPrice;
+    private Integer stock;
+    private LocalDate expirationDate;
+
+    public ProductPatch() {
+    }
+
+    public ProductPatch(Long id, String name, String category, Float unitPrice, Integer stock, LocalDate expirationDate) {
+        this.id = id;
+        this.name = name;
+        this.category = category;
+        this.unitPrice = unitPrice;
+        this.stock = stock;
+        this.expirationDate = expirationDate;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    public Float getUnitPrice() { return unitPrice; }
+    public void setUnitPrice(Float unitPrice) { this.unitPrice = unitPrice; }
+    public Integer getStock() { return stock; }
+    public void setStock(Integer stock) { this.stock = stock; }
+    public LocalDate getExpirationDate() { return expirationDate; }
+    public void setExpirationDate(LocalDate expirationDate) { this.expirationDate = expirationDate; }
+
+    // New product with the fields sent here and the rest taken from current (dates are left to the repository)
+    public Product applyTo(Product current) {
+        Product p = new Product(
+                name != null ? name : current.getName(),
+                category != null ? category : current.getCategory(),
+                unitPrice != null ? unitPrice : current.getUnitPrice(),
+                expirationDate != null ? expirationDate : current.getExpirationDate(),
+                stock != null ? stock : current.getStock());
+        p.setId(current.getId());
+        return p;
+    }
+}
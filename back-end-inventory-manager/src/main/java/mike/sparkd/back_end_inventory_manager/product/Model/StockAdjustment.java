@@ -0,0 +1,10 @@
+package mike.sparkd.back_end_inventory_manager.product.Model;
+
+import jakarta.validation.constraints.NotNull;
+
+public class StockAdjustment {
+    private @NotNull(message = "delta is required") Integer delta; // negativo para descontar unidades
+
+    public Integer getDelta() { return delta; }
+    public void setDelta(Integer delta) { this.delta = delta; }
+}
@@ -0,0 +1,54 @@
+package mike.sparkd.back_end_inventory_manager.product.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+
+// Dictionary encoding of category strings: each distinct category is stored once and rows keep an int code.
+// Codes are never reused. Not thread-safe: callers lock around it.
+class CategoryDictionary {
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> categories = new ArrayList<>();
+    private final List<String> keys = new ArrayList<>();
+
+    int encode(String category) {
+        Integer code = codes.get(category);
+        if (code != null) return code;
+        int next = categories.size();
+        codes.put(category, next);
+        categories.add(category);
+        keys.add(Product.normalizeKey(category));
+        return next;
+    }
+
+    String decode(int code) {
+        return categories.get(code);
+    }
+
+    // Normalized category, as Product.getCategoryKey()
+    String key(int code) {
+        return keys.get(code);
+    }
+
+    int size() {
+        return categories.size();
+    }
+
+    // Per code, whether it passes the category filter of the query
+    boolean[] matching(ProductQuery query) {
+        boolean[] out = new boolean[categories.size()];
+        for (int c = 0; c < out.length; c++) {
+            out[c] = query.matchesCategory(keys.get(c));
+        }
+        return out;
+    }
+
+    // Metrics group of a code, same rule as CategoryMetrics.group
+    String group(int code) {
+        String category = categories.get(code);
+        return (category == null || category.isBlank()) ? CategoryMetrics.NO_CATEGORY : category;
+    }
+}
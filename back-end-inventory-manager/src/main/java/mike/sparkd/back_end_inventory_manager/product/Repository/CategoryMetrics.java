@@ -0,0 +1,158 @@
+package mike.sparkd.back_end_inventory_manager.product.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.CategoryInventorySummary;
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+
+// Per-category stock/value accumulators, updated with deltas on every write
+// so the metrics endpoint reads O(#categories) instead of re-aggregating the catalog.
+class CategoryMetrics {
+    static final String NO_CATEGORY = "NO-CATEGORY";
+
+    private final ConcurrentHashMap<String, Accumulator> byCategory = new ConcurrentHashMap<>();
+
+    static String group(Product p) {
+        return (p.getCategory() == null || p.getCategory().isBlank()) ? NO_CATEGORY : p.getCategory();
+    }
+
+    void add(Product p) {
+        apply(group(p), 1, p.getStock(), value(p));
+    }
+
+    void remove(Product p) {
+        apply(group(p), -1, -p.getStock(), -value(p));
+    }
+
+    void replace(Product existing, Product updated) {
+        remove(existing);
+        add(updated);
+    }
+
+    void apply(String category, long count, long stock, double value) {
+        Accumulator a = byCategory.computeIfAbsent(category, k -> new Accumulator());
+        a.products.add(count);
+        a.totalStock.add(stock);
+        a.totalValue.add(value);
+    }
+
+    void apply(Delta delta) {
+        delta.byCategory.forEach((category, d) -> apply(category, d.count, d.stock, d.value));
+    }
+
+    // Adds these totals into target (to sum several accumulators, e.g. the days of the expiry index)
+    void addTo(Delta target) {
+        byCategory.forEach((category, a) ->
+                target.totals(category).add(a.products.sum(), a.totalStock.sum(), a.totalValue.sum()));
+    }
+
+    List<CategoryInventorySummary> snapshot() {
+        List<CategoryInventorySummary> out = new ArrayList<>();
+        byCategory.forEach((category, acc) -> {
+            if (acc.products.sum() <= 0) return; // todos sus productos fueron borrados
+            out.add(summary(category, acc.totalStock.intValue(), acc.totalValue.sum()));
+        });
+        out.sort(Comparator.comparing(CategoryInventorySummary::getCategory, String.CASE_INSENSITIVE_ORDER));
+        return out;
+    }
+
+    // Full pass over the products, used to cross-check the incremental accumulators
+    static List<CategoryInventorySummary> recompute(Collection<Product> products) {
+        Map<String, double[]> totals = new HashMap<>();
+        for (Product p : products) {
+            double[] t = totals.computeIfAbsent(group(p), k -> new double[2]);
+            t[0] += p.getStock();
+            t[1] += value(p);
+        }
+        List<CategoryInventorySummary> out = new ArrayList<>();
+        totals.forEach((category, t) -> out.add(summary(category, (int) t[0], t[1])));
+        out.sort(Comparator.comparing(CategoryInventorySummary::getCategory, String.CASE_INSENSITIVE_ORDER));
+        return out;
+    }
+
+    static boolean sameTotals(List<CategoryInventorySummary> a, List<CategoryInventorySummary> b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            CategoryInventorySummary x = a.get(i);
+            CategoryInventorySummary y = b.get(i);
+            if (!x.getCategory().equals(y.getCategory())) return false;
+            if (x.getTotalUnitsInStock() != y.getTotalUnitsInStock()) return false;
+            // the adders sum in a different order than a sequential pass
+            double tolerance = 1e-6 * Math.max(1.0, Math.abs(y.getTotalStockValue()));
+            if (Math.abs(x.getTotalStockValue() - y.getTotalStockValue()) > tolerance) return false;
+        }
+        return true;
+    }
+
+    private static double value(Product p) {
+        return (double) p.getUnitPrice() * p.getStock();
+    }
+
+    static CategoryInventorySummary summary(String category, int totalStock, double totalValue) {
+        double avgUnitPricer = totalStock > 0 ? (totalValue / totalStock) : 0.0;
+        avgUnitPricer = Math.round(avgUnitPricer * 100.0) / 100.0;
+        return new CategoryInventorySummary(category, totalStock, totalValue, avgUnitPricer);
+    }
+
+    private static class Accumulator {
+        final LongAdder products = new LongAdder();
+        final LongAdder totalStock = new LongAdder();
+        final DoubleAdder totalValue = new DoubleAdder();
+    }
+
+    // Deltas of a multi-row write, folded locally and applied once per category (see apply(Delta))
+    static final class Delta {
+        private final Map<String, Totals> byCategory = new HashMap<>();
+
+        void add(Product p) {
+            totals(group(p)).add(1, p.getStock(), value(p));
+        }
+
+        void remove(Product p) {
+            totals(group(p)).add(-1, -p.getStock(), -value(p));
+        }
+
+        void replace(Product existing, Product updated) {
+            remove(existing);
+            add(updated);
+        }
+
+        // For stores that keep fields in columns rather than Product objects
+        void add(String group, int stock, float unitPrice) {
+            totals(group).add(1, stock, (double) unitPrice * stock);
+        }
+
+        List<CategoryInventorySummary> summaries() {
+            List<CategoryInventorySummary> out = new ArrayList<>();
+            byCategory.forEach((category, t) -> {
+                if (t.count > 0) out.add(summary(category, (int) t.stock, t.value));
+            });
+            out.sort(Comparator.comparing(CategoryInventorySummary::getCategory, String.CASE_INSENSITIVE_ORDER));
+            return out;
+        }
+
+        private Totals totals(String category) {
+            return byCategory.computeIfAbsent(category, k -> new Totals());
+        }
+    }
+
+    private static final class Totals {
+        long count;
+        long stock;
+        double value;
+
+        void add(long count, long stock, double value) {
+            this.count += count;
+            this.stock += stock;
+            this.value += value;
+        }
+    }
+}
@@ -0,0 +1,604 @@
+package mike.sparkd.back_end_inventory_manager.product.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import mike.sparkd.back_end_inventory_manager.common.exception.BadRequestException;
+import mike.sparkd.back_end_inventory_manager.common.exception.NotFoundException;
+import mike.sparkd.back_end_inventory_manager.product.Model.CategoryExpirySummary;
+import mike.sparkd.back_end_inventory_manager.product.Model.CategoryInventorySummary;
+import mike.sparkd.back_end_inventory_manager.product.Model.ExpiryHorizon;
+import mike.sparkd.back_end_inventory_manager.product.Model.PageResponse;
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.Model.ProductPatch;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.DefaultProductSortStrategy;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.MultiFieldProductSortStrategy;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.ProductCursor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+// Struct-of-arrays product store: one primitive array per field, categories dictionary-encoded.
+// Filters and aggregations scan the columns; Product objects are only built for the rows returned.
+// Rows are kept dense: a delete moves the last row into the hole.
+@Repository
+@Primary
+@Profile("columnar")
+public class ColumnarProductRepository implements ProductRepository {
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongLongHashMap rowById = new LongLongHashMap();
+    private final CategoryDictionary categories = new CategoryDictionary();
+    private final Map<Long, StockHold> holds = new HashMap<>();
+    private long seq = 1L;
+    private int rows;
+    private final AtomicLong version = new AtomicLong();
+
+    private long[] ids = new long[64];
+    private String[] names = new String[64];
+    private String[] nameKeys = new String[64];
+    private int[] categoryCodes = new int[64];
+    private float[] unitPrices = new float[64];
+    private int[] stocks = new int[64];
+    private int[] expirationDays = new int[64];
+    private int[] creationDays = new int[64];
+    private int[] updateDays = new int[64];
+
+    public ColumnarProductRepository() {
+        ProductSeedData.vouchers().forEach(this::save);
+    }
+
+    @Override
+    public Product save(Product product) {
+        lock.writeLock().lock();
+        try {
+            long id = seq++;
+            LocalDate now = LocalDate.now();
+            product.setId(id);
+            product.setCreationDate(now);
+            product.setUpdateDate(now);
+
+            ensureCapacity(rows + 1);
+            int row = rows++;
+            write(row, product);
+            rowById.put(id, row);
+            return product;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public List<Product> saveAll(List<Product> products) {
+        lock.writeLock().lock();
+        try {
+            LocalDate now = LocalDate.now();
+            ensureCapacity(rows + products.size());
+            for (Product product : products) {
+                long id = seq++;
+                product.setId(id);
+                product.setCreationDate(now);
+                product.setUpdateDate(now);
+                int row = rows++;
+                write(row, product);
+                rowById.put(id, row);
+            }
+            return products;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public Product update(Product product) {
+        long id = product.getId();
+        lock.writeLock().lock();
+        try {
+            long row = rowById.get(id);
+            if (row == LongLongHashMap.MISSING) throw new NotFoundException("Product " + id + "not found");
+            product.setCreationDate(day(creationDays[(int) row]));
+            product.setUpdateDate(LocalDate.now());
+            write((int) row, product);
+            return product;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public boolean deleteById(long id) {
+        lock.writeLock().lock();
+        try {
+            return removeRow(id);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    // Only the stock and update-date columns change
+    @Override
+    public Product adjustStock(long id, int delta) {
+        lock.writeLock().lock();
+        try {
+            long row = rowById.get(id);
+            if (row == LongLongHashMap.MISSING) throw new NotFoundException("Product " + id + " not found");
+            int r = (int) row;
+            stocks[r] = StockChange.apply(id, stocks[r], delta);
+            updateDays[r] = epochDay(LocalDate.now());
+            return materialize(r);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    // The write lock is reentrant: adjustStock runs inside the same hold as the hold map change
+    @Override
+    public Product takeHold(long id, long holdId, int quantity) {
+        lock.writeLock().lock();
+        try {
+            Product p = adjustStock(id, -quantity);
+            holds.put(holdId, new StockHold(id, quantity));
+            return p;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public boolean endHold(long holdId, boolean giveBack) {
+        lock.writeLock().lock();
+        try {
+            StockHold hold = holds.get(holdId);
+            if (hold == null) return false;
+            if (giveBack && rowById.get(hold.productId) != LongLongHashMap.MISSING) adjustStock(hold.productId, hold.quantity);
+            holds.remove(holdId);
+            return true;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public Set<Long> getHoldIds() {
+        lock.readLock().lock();
+        try {
+            return Set.copyOf(holds.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Batches run under a single write-lock hold, so atomic only needs the ids checked first
+    @Override
+    public List<Long> updateAll(List<Product> products, boolean atomic) {
+        lock.writeLock().lock();
+        try {
+            List<Long> missing = new ArrayList<>();
+            for (Product p : products) {
+                if (p.getId() == null || rowById.get(p.getId()) == LongLongHashMap.MISSING) missing.add(p.getId());
+            }
+            if (atomic && !missing.isEmpty()) return missing;
+
+            LocalDate now = LocalDate.now();
+            for (Product p : products) {
+                long row = p.getId() == null ? LongLongHashMap.MISSING : rowById.get(p.getId());
+                if (row == LongLongHashMap.MISSING) continue;
+                p.setCreationDate(day(creationDays[(int) row]));
+                p.setUpdateDate(now);
+                write((int) row, p);
+            }
+            return missing;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    // Merged against the row under the same write-lock hold
+    @Override
+    public List<Long> patchAll(List<ProductPatch> patches, boolean atomic) {
+        lock.writeLock().lock();
+        try {
+            List<Long> missing = new ArrayList<>();
+            for (ProductPatch p : patches) {
+                if (p.getId() == null || rowById.get(p.getId()) == LongLongHashMap.MISSING) missing.add(p.getId());
+            }
+            if (atomic && !missing.isEmpty()) return missing;
+
+            LocalDate now = LocalDate.now();
+            for (ProductPatch patch : patches) {
+                long row = patch.getId() == null ? LongLongHashMap.MISSING : rowById.get(patch.getId());
+                if (row == LongLongHashMap.MISSING) continue;
+                Product p = patch.applyTo(materialize((int) row));
+                p.setCreationDate(day(creationDays[(int) row]));
+                p.setUpdateDate(now);
+                write((int) row, p);
+            }
+            return missing;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public List<Long> deleteAllById(List<Long> idsToDelete, boolean atomic) {
+        lock.writeLock().lock();
+        try {
+            List<Long> missing = new ArrayList<>();
+            for (Long id : new LinkedHashSet<>(idsToDelete)) {
+                if (id == null || rowById.get(id) == LongLongHashMap.MISSING) missing.add(id);
+            }
+            if (atomic && !missing.isEmpty()) return missing;
+
+            for (Long id : idsToDelete) {
+                if (id != null) removeRow(id);
+            }
+            return missing;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    private boolean removeRow(long id) {
+        long removed = rowById.remove(id);
+        if (removed == LongLongHashMap.MISSING) return false;
+        int row = (int) removed;
+        int last = --rows;
+        if (row != last) {
+            move(last, row);
+            rowById.put(ids[row], row);
+        }
+        names[last] = null;
+        nameKeys[last] = null;
+        return true;
+    }
+
+    @Override
+    public List<Product> getAllProducts() {
+        lock.readLock().lock();
+        try {
+            List<Product> out = new ArrayList<>(rows);
+            for (int r = 0; r < rows; r++) out.add(materialize(r));
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Iterator<Product> iterateProducts(String name, String category, String availability) {
+        ProductQuery query = ProductQuery.of(name, category, availability, null);
+        return new IdChunkIterator((fromId, out) -> readChunk(query, fromId, out));
+    }
+
+    private long readChunk(ProductQuery query, long fromId, List<Product> out) {
+        lock.readLock().lock();
+        try {
+            boolean[] categoryMatches = categories.matching(query);
+            long end = Math.min(seq, fromId + IdChunkIterator.IDS_PER_CHUNK);
+            for (long id = fromId; id < end; id++) {
+                long row = rowById.get(id);
+                if (row == LongLongHashMap.MISSING) continue;
+                int r = (int) row;
+                if (!categoryMatches[categoryCodes[r]]) continue;
+                if (!query.matchesStock(stocks[r])) continue;
+                if (!query.matchesName(nameKeys[r])) continue;
+                out.add(materialize(r));
+            }
+            return end >= seq ? -1 : end;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Product> getProductById(long id) {
+        lock.readLock().lock();
+        try {
+            long row = rowById.get(id);
+            return row == LongLongHashMap.MISSING ? Optional.empty() : Optional.of(materialize((int) row));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Product> getFilteredAndPaginatedProducts(String filter, String filterTwo, int page, String direction) {
+        if (page < 1) throw new IllegalArgumentException("page must be >= 1");
+        DefaultProductSortStrategy[] fields = new MultiFieldProductSortStrategy(filter, filterTwo).sortFields();
+        long from = (long) (page - 1) * 10;
+        lock.readLock().lock();
+        try {
+            HandleTopK top = new HandleTopK(rowOrder(fields, direction), from + 10);
+            for (int r = 0; r < rows; r++) top.offer(r, null);
+            return materialize(top.window((int) Math.min(from, Integer.MAX_VALUE)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Filter and top-K on row indexes; only the rows of the page become Products
+    @Override
+    public PageResponse<Product> getByParamsSearch(String name, String category, String availability,
+                                                   int page, int size, String sortBy, String direction) {
+        if (page < 1) throw new BadRequestException("page must be >= 1");
+        if (size < 1) size = 10;
+
+        ProductQuery query = ProductQuery.of(name, category, availability, sortBy);
+        long from = (long) (page - 1) * size;
+        lock.readLock().lock();
+        try {
+            boolean[] categoryMatches = categories.matching(query);
+            HandleTopK top = new HandleTopK(rowOrder(new DefaultProductSortStrategy[]{query.strategy}, direction), from + size);
+            long total = 0;
+            for (int r = 0; r < rows; r++) {
+                if (!matches(r, query, categoryMatches)) continue;
+                total++;
+                top.offer(r, null);
+            }
+            List<Product> content = materialize(top.window((int) Math.min(from, Integer.MAX_VALUE)));
+            return ProductPages.offsetPage(content, query.strategy, direction, page, size, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public PageResponse<Product> getByCursorSearch(String name, String category, String availability,
+                                                   String cursor, int size, String sortBy, String direction) {
+        if (size < 1) size = 10;
+        if (cursor == null || cursor.isBlank()) {
+            return getByParamsSearch(name, category, availability, 1, size, sortBy, direction);
+        }
+
+        ProductCursor after = ProductCursor.decode(cursor);
+        String dir = "desc".equalsIgnoreCase(direction) ? "desc" : "asc";
+        ProductQuery query = ProductQuery.of(name, category, availability, sortBy);
+        if (after.getStrategy() != query.strategy || !after.getDirection().equals(dir)) {
+            throw new BadRequestException("cursor does not match sortBy/direction");
+        }
+
+        Product probe = after.getProbe();
+        boolean desc = "desc".equals(dir);
+        lock.readLock().lock();
+        try {
+            boolean[] categoryMatches = categories.matching(query);
+            HandleTopK top = new HandleTopK(rowOrder(new DefaultProductSortStrategy[]{query.strategy}, dir), size + 1);
+            long total = 0;
+            for (int r = 0; r < rows; r++) {
+                if (!matches(r, query, categoryMatches)) continue;
+                total++;
+                int c = compareToProbe(query.strategy, r, probe);
+                if (desc ? c < 0 : c > 0) top.offer(r, null);
+            }
+            return ProductPages.keysetPage(materialize(top.window(0)), query.strategy, dir, size, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<CategoryInventorySummary> getInventorySummaryByCategory() {
+        lock.readLock().lock();
+        try {
+            int codes = categories.size();
+            long[] products = new long[codes];
+            long[] stock = new long[codes];
+            double[] value = new double[codes];
+            for (int r = 0; r < rows; r++) {
+                int c = categoryCodes[r];
+                products[c]++;
+                stock[c] += stocks[r];
+                value[c] += (double) unitPrices[r] * stocks[r];
+            }
+
+            // several codes ("", "  ", null) can fall into the same NO-CATEGORY group
+            Map<String, double[]> groups = new LinkedHashMap<>();
+            for (int c = 0; c < codes; c++) {
+                if (products[c] == 0) continue;
+                double[] g = groups.computeIfAbsent(categories.group(c), k -> new double[2]);
+                g[0] += stock[c];
+                g[1] += value[c];
+            }
+            List<CategoryInventorySummary> out = new ArrayList<>();
+            groups.forEach((group, g) -> out.add(CategoryMetrics.summary(group, (int) g[0], g[1])));
+            out.sort(Comparator.comparing(CategoryInventorySummary::getCategory, String.CASE_INSENSITIVE_ORDER));
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Product> getExpiringBetween(LocalDate from, LocalDate to, int limit) {
+        lock.readLock().lock();
+        try {
+            return ExpiryIndex.select(expiringRows(from, to), from, to, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<CategoryInventorySummary> getExpiringSummaryByCategory(LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            return CategoryMetrics.recompute(expiringRows(from, to));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<CategoryExpirySummary> getExpirySummaryByCategory(LocalDate today) {
+        lock.readLock().lock();
+        try {
+            ExpiryBreakdown out = new ExpiryBreakdown();
+            long t = today.toEpochDay();
+            for (int r = 0; r < rows; r++) {
+                int day = expirationDays[r];
+                ExpiryHorizon h = day == NO_DATE ? ExpiryHorizon.NO_EXPIRATION : ExpiryHorizon.ofDays(day - t);
+                out.horizon(h).add(categories.group(categoryCodes[r]), stocks[r], unitPrices[r]);
+            }
+            return out.build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Product> removeExpired(LocalDate today, int limit) {
+        lock.writeLock().lock();
+        try {
+            List<Product> expired = ExpiryIndex.select(expiringRows(null, today.minusDays(1)), null, today.minusDays(1), limit);
+            for (Product p : expired) removeRow(p.getId());
+            return expired;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    // Only rows whose date column is in range are materialized; caller holds the lock
+    private List<Product> expiringRows(LocalDate from, LocalDate to) {
+        long lo = from == null ? Long.MIN_VALUE : from.toEpochDay();
+        long hi = to.toEpochDay();
+        List<Product> out = new ArrayList<>();
+        for (int r = 0; r < rows; r++) {
+            int day = expirationDays[r];
+            if (day != NO_DATE && day >= lo && day <= hi) out.add(materialize(r));
+        }
+        return out;
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    // Bumped while still holding the write lock: a reader that sees the new version scans after this write
+    private void unlockWrite() {
+        version.incrementAndGet();
+        lock.writeLock().unlock();
+    }
+
+    public int getSize() {
+        lock.readLock().lock();
+        try {
+            return rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Column checks: cheap primitive checks first, the name only when the rest matched; caller holds the lock
+    private boolean matches(int r, ProductQuery query, boolean[] categoryMatches) {
+        return categoryMatches[categoryCodes[r]] && query.matchesStock(stocks[r]) && query.matchesName(nameKeys[r]);
+    }
+
+    // Same order as ProductComparators (fields, then id), read from the columns; caller holds the lock
+    private HandleTopK.Order rowOrder(DefaultProductSortStrategy[] fields, String direction) {
+        if ("desc".equalsIgnoreCase(direction)) return (a, ka, b, kb) -> compareRows(fields, (int) b, (int) a);
+        return (a, ka, b, kb) -> compareRows(fields, (int) a, (int) b);
+    }
+
+    private int compareRows(DefaultProductSortStrategy[] fields, int a, int b) {
+        for (DefaultProductSortStrategy field : fields) {
+            int c = switch (field) {
+                case BY_ID -> 0;
+                case BY_NAME -> HandleTopK.compareKeys(nameKeys[a], nameKeys[b]);
+                case BY_CATEGORY -> HandleTopK.compareKeys(categories.key(categoryCodes[a]), categories.key(categoryCodes[b]));
+                case BY_UNIT_PRICE -> Float.compare(unitPrices[a], unitPrices[b]);
+                case BY_STOCK -> Integer.compare(stocks[a], stocks[b]);
+                case BY_EXPIRATION_DATE -> HandleTopK.compareDays(expirationDays[a], expirationDays[b], NO_DATE);
+            };
+            if (c != 0) return c;
+        }
+        return Long.compare(ids[a], ids[b]);
+    }
+
+    // Ascending compare of a row against the cursor probe (sort key + id)
+    private int compareToProbe(DefaultProductSortStrategy field, int r, Product probe) {
+        int c = switch (field) {
+            case BY_ID -> 0;
+            case BY_NAME -> HandleTopK.compareKeys(nameKeys[r], probe.getNameKey());
+            case BY_CATEGORY -> HandleTopK.compareKeys(categories.key(categoryCodes[r]), probe.getCategoryKey());
+            case BY_UNIT_PRICE -> Float.compare(unitPrices[r], probe.getUnitPrice());
+            case BY_STOCK -> Integer.compare(stocks[r], probe.getStock());
+            case BY_EXPIRATION_DATE -> HandleTopK.compareDays(expirationDays[r], epochDay(probe.getExpirationDate()), NO_DATE);
+        };
+        return c != 0 ? c : Long.compare(ids[r], probe.getId());
+    }
+
+    private List<Product> materialize(long[] rowHandles) {
+        List<Product> out = new ArrayList<>(rowHandles.length);
+        for (long r : rowHandles) out.add(materialize((int) r));
+        return out;
+    }
+
+    private void write(int row, Product p) {
+        ids[row] = p.getId();
+        names[row] = p.getName();
+        nameKeys[row] = p.getNameKey();
+        categoryCodes[row] = categories.encode(p.getCategory());
+        unitPrices[row] = p.getUnitPrice();
+        stocks[row] = p.getStock();
+        expirationDays[row] = epochDay(p.getExpirationDate());
+        creationDays[row] = epochDay(p.getCreationDate());
+        updateDays[row] = epochDay(p.getUpdateDate());
+    }
+
+    private void move(int from, int to) {
+        ids[to] = ids[from];
+        names[to] = names[from];
+        nameKeys[to] = nameKeys[from];
+        categoryCodes[to] = categoryCodes[from];
+        unitPrices[to] = unitPrices[from];
+        stocks[to] = stocks[from];
+        expirationDays[to] = expirationDays[from];
+        creationDays[to] = creationDays[from];
+        updateDays[to] = updateDays[from];
+    }
+
+    private Product materialize(int row) {
+        Product p = new Product(names[row], categories.decode(categoryCodes[row]), unitPrices[row],
+                day(expirationDays[row]), stocks[row]);
+        p.setId(ids[row]);
+        p.setCreationDate(day(creationDays[row]));
+        p.setUpdateDate(day(updateDays[row]));
+        return p;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= ids.length) return;
+        int capacity = Math.max(needed, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        nameKeys = Arrays.copyOf(nameKeys, capacity);
+        categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+        unitPrices = Arrays.copyOf(unitPrices, capacity);
+        stocks = Arrays.copyOf(stocks, capacity);
+        expirationDays = Arrays.copyOf(expirationDays, capacity);
+        creationDays = Arrays.copyOf(creationDays, capacity);
+        updateDays = Arrays.copyOf(updateDays, capacity);
+    }
+
+    private static int epochDay(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    private static LocalDate day(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+}
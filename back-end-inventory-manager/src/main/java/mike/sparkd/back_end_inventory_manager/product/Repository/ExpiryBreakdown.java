@@ -0,0 +1,39 @@
+package mike.sparkd.back_end_inventory_manager.product.Repository;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.CategoryExpirySummary;
+import mike.sparkd.back_end_inventory_manager.product.Model.CategoryInventorySummary;
+import mike.sparkd.back_end_inventory_manager.product.Model.ExpiryHorizon;
+
+// Per-horizon category totals, turned into one CategoryExpirySummary per category
+final class ExpiryBreakdown {
+    private final Map<ExpiryHorizon, CategoryMetrics.Delta> byHorizon = new EnumMap<>(ExpiryHorizon.class);
+
+    CategoryMetrics.Delta horizon(ExpiryHorizon h) {
+        return byHorizon.computeIfAbsent(h, k -> new CategoryMetrics.Delta());
+    }
+
+    List<CategoryExpirySummary> build() {
+        Map<String, Map<ExpiryHorizon, CategoryExpirySummary.Totals>> byCategory = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        byHorizon.forEach((h, delta) -> {
+            for (CategoryInventorySummary s : delta.summaries()) {
+                byCategory.computeIfAbsent(s.getCategory(), k -> emptyHorizons())
+                        .put(h, new CategoryExpirySummary.Totals(s.getTotalUnitsInStock(), s.getTotalStockValue()));
+            }
+        });
+        List<CategoryExpirySummary> out = new ArrayList<>(byCategory.size());
+        byCategory.forEach((category, horizons) -> out.add(new CategoryExpirySummary(category, horizons)));
+        return out;
+    }
+
+    private static Map<ExpiryHorizon, CategoryExpirySummary.Totals> emptyHorizons() {
+        Map<ExpiryHorizon, CategoryExpirySummary.Totals> m = new EnumMap<>(ExpiryHorizon.class);
+        for (ExpiryHorizon h : ExpiryHorizon.values()) m.put(h, new CategoryExpirySummary.Totals(0, 0.0));
+        return m;
+    }
+}
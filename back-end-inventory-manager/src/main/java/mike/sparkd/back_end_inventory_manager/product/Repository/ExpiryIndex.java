@@ -0,0 +1,135 @@
+package mike.sparkd.back_end_inventory_manager.product.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.CategoryExpirySummary;
+import mike.sparkd.back_end_inventory_manager.product.Model.CategoryInventorySummary;
+import mike.sparkd.back_end_inventory_manager.product.Model.ExpiryHorizon;
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+
+// Products with an expiration date, bucketed by epoch day; every day keeps its own per-category totals.
+// "Expiring between" walks only the buckets in range, summaries add up one accumulator per day and
+// category, and expired products are found at the head of the map instead of by scanning the catalog.
+// A day is dropped as soon as its last product leaves, so the map only holds dates that are in use.
+// Dropping races with a concurrent add into the same day: the day is marked retired before the emptiness
+// check and add() looks at the mark after adding, so either the add sees it and moves to a fresh day, or
+// the check sees the product and keeps the day.
+class ExpiryIndex {
+
+    static final Comparator<Product> ORDER =
+            Comparator.comparing(Product::getExpirationDate).thenComparing(Product::getId);
+
+    private final ConcurrentSkipListMap<Long, Day> byDay = new ConcurrentSkipListMap<>();
+    private final CategoryMetrics undated = new CategoryMetrics();
+
+    private static final class Day {
+        final Set<Product> products = ConcurrentHashMap.newKeySet();
+        final CategoryMetrics metrics = new CategoryMetrics();
+        final AtomicBoolean retired = new AtomicBoolean();
+    }
+
+    // from null: no lower bound (already expired products included)
+    static boolean inRange(LocalDate date, LocalDate from, LocalDate to) {
+        return date != null && (from == null || !date.isBefore(from)) && !date.isAfter(to);
+    }
+
+    void add(Product p) {
+        if (p.getExpirationDate() == null) {
+            undated.add(p);
+            return;
+        }
+        long key = p.getExpirationDate().toEpochDay();
+        while (true) {
+            Day day = byDay.computeIfAbsent(key, k -> new Day());
+            day.products.add(p);
+            if (!day.retired.get()) {
+                day.metrics.add(p);
+                return;
+            }
+            // being dropped (or checked for it) right now: try again on whatever the map holds next
+            day.products.remove(p);
+            Thread.onSpinWait();
+        }
+    }
+
+    void remove(Product p) {
+        if (p.getExpirationDate() == null) {
+            undated.remove(p);
+            return;
+        }
+        long key = p.getExpirationDate().toEpochDay();
+        Day day = byDay.get(key);
+        if (day != null && day.products.remove(p)) {
+            day.metrics.remove(p);
+            if (day.products.isEmpty()) prune(key, day);
+        }
+    }
+
+    // One check at a time per day; a day that got a product in the meantime is handed back to add()
+    private void prune(long key, Day day) {
+        if (!day.retired.compareAndSet(false, true)) return;
+        if (day.products.isEmpty()) {
+            byDay.remove(key, day);
+        } else {
+            day.retired.set(false);
+        }
+    }
+
+    // Earliest first (then by id), at most limit
+    List<Product> products(LocalDate from, LocalDate to, int limit) {
+        List<Product> out = new ArrayList<>();
+        for (Day day : days(from, to).values()) {
+            if (out.size() >= limit) break;
+            List<Product> sorted = new ArrayList<>(day.products);
+            sorted.sort(ORDER);
+            out.addAll(sorted.subList(0, Math.min(sorted.size(), limit - out.size())));
+        }
+        return out;
+    }
+
+    List<CategoryInventorySummary> summary(LocalDate from, LocalDate to) {
+        CategoryMetrics.Delta total = new CategoryMetrics.Delta();
+        for (Day day : days(from, to).values()) day.metrics.addTo(total);
+        return total.summaries();
+    }
+
+    // One subMap per horizon, adding up day totals: O(days x categories), independent of the catalog size
+    List<CategoryExpirySummary> breakdown(LocalDate today) {
+        ExpiryBreakdown out = new ExpiryBreakdown();
+        for (ExpiryHorizon h : ExpiryHorizon.values()) {
+            CategoryMetrics.Delta totals = out.horizon(h);
+            if (h == ExpiryHorizon.NO_EXPIRATION) {
+                undated.addTo(totals);
+                continue;
+            }
+            for (Day day : byDay.subMap(h.firstDay(today), true, h.lastDay(today), true).values()) {
+                day.metrics.addTo(totals);
+            }
+        }
+        return out.build();
+    }
+
+    // Full pass, for the implementations without an index
+    static List<Product> select(Collection<Product> products, LocalDate from, LocalDate to, int limit) {
+        return products.stream()
+                .filter(p -> inRange(p.getExpirationDate(), from, to))
+                .sorted(ORDER)
+                .limit(limit)
+                .toList();
+    }
+
+    private NavigableMap<Long, Day> days(LocalDate from, LocalDate to) {
+        return from == null
+                ? byDay.headMap(to.toEpochDay(), true)
+                : byDay.subMap(from.toEpochDay(), true, to.toEpochDay(), true);
+    }
+}
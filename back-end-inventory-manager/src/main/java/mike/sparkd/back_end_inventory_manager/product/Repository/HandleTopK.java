@@ -0,0 +1,106 @@
+package mike.sparkd.back_end_inventory_manager.product.Repository;
+
+import java.util.Arrays;
+
+// Bounded top-K over long handles (a column row, a record address) instead of Products: a scan keeps
+// at most k handles, plus an optional sort key per handle when reading it from storage is not free,
+// and the caller builds Products only for the handles of the page.
+final class HandleTopK {
+    private static final long[] NONE = new long[0];
+    // JVM array size limit
+    private static final int MAX_K = Integer.MAX_VALUE - 8;
+
+    // Ascending order of two handles; key is whatever was offered with the handle (may be null)
+    interface Order {
+        int compare(long a, Object keyA, long b, Object keyB);
+    }
+
+    private final Order order;
+    private final int k;
+    // max-heap: the root is the worst handle kept so far
+    private long[] handles;
+    private Object[] keys;
+    private int size;
+
+    HandleTopK(Order order, long k) {
+        if (k < 1) throw new IllegalArgumentException("k must be >= 1");
+        this.order = order;
+        this.k = (int) Math.min(k, MAX_K);
+        int initial = Math.min(this.k, 1024);
+        this.handles = new long[initial];
+        this.keys = new Object[initial];
+    }
+
+    void offer(long handle, Object key) {
+        if (size < k) {
+            if (size == handles.length) {
+                int capacity = (int) Math.min(k, (long) size * 2);
+                handles = Arrays.copyOf(handles, capacity);
+                keys = Arrays.copyOf(keys, capacity);
+            }
+            handles[size] = handle;
+            keys[size] = key;
+            siftUp(size++);
+        } else if (order.compare(handle, key, handles[0], keys[0]) < 0) {
+            handles[0] = handle;
+            keys[0] = key;
+            siftDown(0, size);
+        }
+    }
+
+    // Kept handles in ascending order, skipping the first from
+    long[] window(int from) {
+        // heap sort in place: the max goes to the end each round
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+        return from >= size ? NONE : Arrays.copyOfRange(handles, from, size);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (order.compare(handles[i], keys[i], handles[parent], keys[parent]) <= 0) return;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i, int end) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= end) return;
+            if (child + 1 < end && order.compare(handles[child + 1], keys[child + 1], handles[child], keys[child]) > 0) {
+                child++;
+            }
+            if (order.compare(handles[child], keys[child], handles[i], keys[i]) <= 0) return;
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long h = handles[a];
+        handles[a] = handles[b];
+        handles[b] = h;
+        Object key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+    }
+
+    // Same field order as ProductComparators, for orders that read raw fields
+
+    static int compareKeys(String a, String b) {
+        if (a == null) return b == null ? 0 : 1;
+        if (b == null) return -1;
+        return a.compareTo(b);
+    }
+
+    // epoch days with noDate sorted last, like a null LocalDate
+    static int compareDays(int a, int b, int noDate) {
+        if (a == noDate) return b == noDate ? 0 : 1;
+        if (b == noDate) return -1;
+        return Integer.compare(a, b);
+    }
+}
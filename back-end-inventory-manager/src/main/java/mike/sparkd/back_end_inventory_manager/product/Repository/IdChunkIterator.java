@@ -0,0 +1,48 @@
+package mike.sparkd.back_end_inventory_manager.product.Repository;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+
+// Walks a lock-based repository in id order, one bounded id range per chunk: the lock is only held
+// while a chunk is read and memory stays constant whatever the catalog size. Rows moved by deletes or
+// compaction are still found through their id. Weakly consistent, like iterating a ConcurrentHashMap.
+final class IdChunkIterator implements Iterator<Product> {
+    static final int IDS_PER_CHUNK = 1024;
+
+    @FunctionalInterface
+    interface ChunkReader {
+        // Adds the matching products with ids in [fromId, fromId + IDS_PER_CHUNK) and returns the next
+        // id to read, or -1 once past the last assigned id
+        long read(long fromId, List<Product> out);
+    }
+
+    private final ChunkReader reader;
+    private List<Product> chunk = new ArrayList<>();
+    private int pos;
+    private long nextId = 1;
+
+    IdChunkIterator(ChunkReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (pos == chunk.size()) {
+            if (nextId < 0) return false;
+            chunk = new ArrayList<>();
+            pos = 0;
+            nextId = reader.read(nextId, chunk);
+        }
+        return true;
+    }
+
+    @Override
+    public Product next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return chunk.get(pos++);
+    }
+}
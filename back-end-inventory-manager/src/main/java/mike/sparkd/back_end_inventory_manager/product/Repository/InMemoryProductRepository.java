@@ -1,73 +1,101 @@
 
 package mike.sparkd.back_end_inventory_manager.product.Repository;
 
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.time.ZoneId;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
 
+import mike.sparkd.back_end_inventory_manager.product.Model.CategoryExpirySummary;
 import mike.sparkd.back_end_inventory_manager.product.Model.CategoryInventorySummary;
 import mike.sparkd.back_end_inventory_manager.product.Model.PageResponse;
 import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.Model.ProductPatch;
 import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.DefaultProductSortStrategy;
 import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.MultiFieldProductSortStrategy;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.PrimitiveKeySort;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.ProductCursor;
 import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.ProductSortStrategy;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.TopKSelection;
 import mike.sparkd.back_end_inventory_manager.common.exception.BadRequestException;
 import mike.sparkd.back_end_inventory_manager.common.exception.ConflictException;
 import mike.sparkd.back_end_inventory_manager.common.exception.NotFoundException;
+import mike.sparkd.back_end_inventory_manager.common.events.ChangeListener;
+import mike.sparkd.back_end_inventory_manager.common.events.ChangeSource;
+import mike.sparkd.back_end_inventory_manager.common.events.ChangeType;
+import mike.sparkd.back_end_inventory_manager.common.persistence.Checkpointable;
+import mike.sparkd.back_end_inventory_manager.common.persistence.DurableStore;
+import jakarta.annotation.PreDestroy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
 @Repository
 @Primary
-public class InMemoryProductRepository implements ProductRepository {
+@Profile("!columnar & !offheap")
+public class InMemoryProductRepository implements ProductRepository, Checkpointable, ChangeSource, MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(InMemoryProductRepository.class);
+    private static final long DEFAULT_SEARCH_CACHE_IDS = 1_000_000L;
     private final ConcurrentHashMap<Long, Product> productsMap = new ConcurrentHashMap<>();
     private final AtomicLong seq = new AtomicLong(1L);
+    // open reservation holds by hold id; changed inside the productsMap compute of the product when stock moves
+    private final ConcurrentHashMap<Long, StockHold> holds = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final SearchCache searchCache;
+    private final ProductIndexes indexes;
+    private final CategoryMetrics metrics = new CategoryMetrics();
+    private volatile boolean metricsConsistencyCheck;
+    private volatile ParallelSearch parallelSearch = ParallelSearch.DISABLED;
+    private volatile ChangeListener changes = ChangeListener.NONE;
+    private final DurableStore store; // null: memory only
+    // writers share it; a checkpoint takes it exclusively only while it rotates the log
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
 
     public InMemoryProductRepository() {
-        // Loading relative dates
-        final ZoneId MX = ZoneId.of("America/Monterrey");
-        final LocalDate EXP_GT_1M   = LocalDate.now(MX).plusMonths(3);           // > 1 mes
-        final LocalDate EXP_1_TO_2M = LocalDate.now(MX).plusDays(5); // entre 1 y 2 meses
-        final LocalDate EXP_LT_1M   = LocalDate.now(MX).plusDays(12);            // < 1 mes
-
-// =================== Categoría: Certificación Cloud ===================
-        this.save(new Product("AWS Cloud Practitioner (CLF-C02) - Exam Voucher", "Certificación Cloud", 100.0F, null, 0));                 // sin expiración
-        this.save(new Product("Google Cloud Associate Cloud Engineer (ACE) - Exam Voucher", "Certificación Cloud", 125.0F, EXP_GT_1M, 15)); // >1 mes
-        this.save(new Product("Microsoft Azure Fundamentals (AZ-900) - Exam Voucher", "Certificación Cloud", 99.0F, EXP_1_TO_2M, 25));      // 1-2 meses
-        this.save(new Product("AWS Solutions Architect Associate (SAA-C03) - Exam Voucher", "Certificación Cloud", 150.0F, EXP_LT_1M, 0));  // <1 mes
-        this.save(new Product("Google Cloud Professional Cloud Architect (PCA) - Exam Voucher", "Certificación Cloud", 200.0F, EXP_GT_1M, 10));
-        this.save(new Product("Microsoft Azure Administrator (AZ-104) - Exam Voucher", "Certificación Cloud", 165.0F, EXP_1_TO_2M, 12));
-        this.save(new Product("AWS Developer Associate (DVA-C02) - Exam Voucher", "Certificación Cloud", 140.0F, null, 0));               // sin expiración
-        this.save(new Product("AWS SysOps Administrator Associate (SOA-C02) - Exam Voucher", "Certificación Cloud", 150.0F, EXP_LT_1M, 5));
-
-// =================== Categoría: Certificación DevOps ===================
-        this.save(new Product("Kubernetes CKA (Certified Kubernetes Administrator) - Exam Voucher", "Certificación DevOps", 395.0F, EXP_GT_1M, 0));
-        this.save(new Product("Kubernetes CKAD (Certified Kubernetes Application Developer) - Exam Voucher", "Certificación DevOps", 395.0F, EXP_1_TO_2M, 8));
-        this.save(new Product("Kubernetes CKS (Certified Kubernetes Security Specialist) - Exam Voucher", "Certificación DevOps", 395.0F, EXP_LT_1M, 5));
-        this.save(new Product("HashiCorp Terraform Associate - Exam Voucher", "Certificación DevOps", 150.0F, null, 0));                  // sin expiración
-        this.save(new Product("HashiCorp Vault Associate - Exam Voucher", "Certificación DevOps", 150.0F, EXP_1_TO_2M, 7));
-        this.save(new Product("Google Cloud Professional DevOps Engineer - Exam Voucher", "Certificación DevOps", 200.0F, EXP_GT_1M, 4));
-        this.save(new Product("Microsoft Azure DevOps Engineer Expert (AZ-400) - Exam Voucher", "Certificación DevOps", 195.0F, null, 0)); // sin expiración
-
-// =================== Categoría: Certificación Networking ===================
-        this.save(new Product("Cisco CCNA 200-301 - Exam Voucher", "Certificación Networking", 300.0F, EXP_GT_1M, 6));
-        this.save(new Product("Cisco CCNP Enterprise (ENCOR 350-401) - Exam Voucher", "Certificación Networking", 400.0F, EXP_LT_1M, 0));
-        this.save(new Product("Cisco DevNet Associate (DEVASC 200-901) - Exam Voucher", "Certificación Networking", 300.0F, EXP_1_TO_2M, 10));
-        this.save(new Product("CompTIA Network+ (N10-009) - Exam Voucher", "Certificación Networking", 180.0F, null, 0));                 // sin expiración
-        this.save(new Product("CompTIA Security+ (SY0-701) - Exam Voucher", "Certificación Networking", 250.0F, EXP_GT_1M, 12));
-        this.save(new Product("Juniper JNCIA-Junos (JN0-104) - Exam Voucher", "Certificación Networking", 200.0F, EXP_1_TO_2M, 7));
-        this.save(new Product("Aruba Certified Switching Associate (HPE6-A72) - Exam Voucher", "Certificación Networking", 210.0F, null, 0)); // sin expiración
-
-// =================== Categoría: Certificación Agile/IT ===================
-        this.save(new Product("Scrum.org PSM I (Professional Scrum Master I) - Exam Attempt", "Certificación Agile/IT", 150.0F, EXP_LT_1M, 0));
-        this.save(new Product("Scrum.org PSM II (Professional Scrum Master II) - Exam Attempt", "Certificación Agile/IT", 200.0F, EXP_1_TO_2M, 6));
-        this.save(new Product("Scrum.org PSPO I (Professional Scrum Product Owner I) - Exam Attempt", "Certificación Agile/IT", 150.0F, null, 10)); // sin expiración
-        this.save(new Product("ITIL 4 Foundation - Exam Voucher", "Certificación Agile/IT", 200.0F, EXP_GT_1M, 0));
-        this.save(new Product("COBIT 2019 Foundation - Exam Voucher", "Certificación Agile/IT", 220.0F, EXP_1_TO_2M, 5));
-        this.save(new Product("SAFe Agilist (Leading SAFe) - Exam Voucher", "Certificación Agile/IT", 250.0F, null, 0));                 // sin expiración
-        this.save(new Product("PMI Agile Certified Practitioner (PMI-ACP) - Exam Voucher", "Certificación Agile/IT", 300.0F, EXP_GT_1M, 4));
+        this((DurableStore) null);
+    }
+
+    @Autowired
+    public InMemoryProductRepository(@Value("${inventory.persistence.dir:}") String dataDir,
+                                     @Value("${inventory.search.cache-max-ids:1000000}") long searchCacheMaxIds) {
+        this(dataDir.isBlank() ? null : DurableStore.open(Path.of(dataDir), "products"), searchCacheMaxIds);
+    }
+
+    public InMemoryProductRepository(DurableStore store) {
+        this(store, DEFAULT_SEARCH_CACHE_IDS);
+    }
+
+    // With a store, the catalog is rebuilt from snapshot + log; the seed vouchers are only loaded (and logged) when it is empty
+    public InMemoryProductRepository(DurableStore store, long searchCacheMaxIds) {
+        this.store = store;
+        this.searchCache = new SearchCache(searchCacheMaxIds);
+        this.indexes = new ProductIndexes(this.searchCache);
+        if (store == null || !store.recover(this::loadSnapshot, this::applyLogged)) {
+            ProductSeedData.vouchers().forEach(this::save);
+        } else {
+            log.info("Recovered {} products from {} in {} ms", productsMap.size(), store.getName(),
+                    store.getRecoveryTime().toMillis());
+            searchCache.publish(); // categories touched by the replay
+        }
+    }
+
+    // Search cache metrics (actuator /metrics): inventory.search.cache.requests, .hit.ratio, .ids
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        searchCache.bindTo(registry);
     }
 
     public Product save(Product product) {
@@ -76,38 +104,535 @@ public class InMemoryProductRepository implements ProductRepository {
         product.setId(id);
         product.setCreationDate(now);
         product.setUpdateDate(now);
-        this.productsMap.put(id, product);
+        long[] ticket = new long[1];
+        this.beginWrite();
+        try {
+            this.productsMap.compute(id, (k, existing) -> {
+                ticket[0] = this.append(ProductLogRecords.upsert(ProductLogRecords.SAVE, product));
+                this.onInsert(product);
+                this.changed(ChangeType.CREATED, product);
+                return product;
+            });
+        } finally {
+            this.endWrite();
+        }
+        this.sync(ticket[0]);
         return product;
     }
 
+    // One id block, one checkpoint-lock hold and a single fsync wait for the whole list
+    public List<Product> saveAll(List<Product> products) {
+        if (products.isEmpty()) return products;
+        long first = this.seq.getAndAdd(products.size());
+        LocalDate now = LocalDate.now();
+        long[] ticket = new long[1];
+        this.beginWrite();
+        try {
+            for (int i = 0; i < products.size(); i++) {
+                Product product = products.get(i);
+                product.setId(first + i);
+                product.setCreationDate(now);
+                product.setUpdateDate(now);
+                this.productsMap.compute(product.getId(), (k, existing) -> {
+                    ticket[0] = this.append(ProductLogRecords.upsert(ProductLogRecords.SAVE, product));
+                    this.onInsert(product);
+                    this.changed(ChangeType.CREATED, product);
+                    return product;
+                });
+            }
+        } finally {
+            this.endWrite();
+        }
+        // tickets grow with the log, so the last one covers the whole batch
+        this.sync(ticket[0]);
+        return products;
+    }
+
     public Product update(Product product) {
         long id = product.getId();
         LocalDate now = LocalDate.now();
-        return (Product)this.productsMap.compute(id, (k, existing) -> {
-            if (existing == null) {
-                throw new NotFoundException("Product " + id + "not found");
-            } else {
+        long[] ticket = new long[1];
+        Product updated;
+        this.beginWrite();
+        try {
+            updated = (Product)this.productsMap.compute(id, (k, existing) -> {
+                if (existing == null) {
+                    throw new NotFoundException("Product " + id + "not found");
+                } else {
+                    product.setId(id);
+                    product.setCreationDate(existing.getCreationDate());
+                    product.setUpdateDate(now);
+                    ticket[0] = this.append(ProductLogRecords.upsert(ProductLogRecords.UPDATE, product));
+                    this.onReplace(existing, product);
+                    this.changed(ChangeType.UPDATED, product);
+                    return product;
+                }
+            });
+        } finally {
+            this.endWrite();
+        }
+        this.sync(ticket[0]);
+        return updated;
+    }
+
+    public boolean deleteById(long id) {
+        Product[] removed = new Product[1];
+        long[] ticket = new long[1];
+        this.beginWrite();
+        try {
+            this.productsMap.computeIfPresent(id, (k, existing) -> {
+                ticket[0] = this.append(ProductLogRecords.delete(id));
+                this.onRemove(existing);
+                this.changed(ChangeType.DELETED, existing);
+                removed[0] = existing;
+                return null;
+            });
+        } finally {
+            this.endWrite();
+        }
+        this.sync(ticket[0]);
+        return removed[0] != null;
+    }
+
+    // Runs inside the bin lock of compute(), so concurrent deltas on a hot product queue up there instead
+    // of racing a read-modify-write through update(); the fsync wait happens after the lock is released,
+    // letting those deltas share one log flush.
+    public Product adjustStock(long id, int delta) {
+        return this.changeStock(id, delta, product -> ProductLogRecords.upsert(ProductLogRecords.UPDATE, product), null, null);
+    }
+
+    // The hold is opened in the same compute and the same log record as the stock it takes
+    public Product takeHold(long id, long holdId, int quantity) {
+        StockHold hold = new StockHold(id, quantity);
+        return this.changeStock(id, -quantity, product -> ProductLogRecords.hold(holdId, quantity, product),
+                () -> this.holds.putIfAbsent(holdId, hold) == null, () -> this.holds.remove(holdId, hold));
+    }
+
+    public boolean endHold(long holdId, boolean giveBack) {
+        StockHold hold = this.holds.get(holdId);
+        if (hold == null) return false;
+        if (giveBack) {
+            try {
+                return this.changeStock(hold.productId, hold.quantity, product -> ProductLogRecords.holdEnd(holdId, product),
+                        () -> this.holds.remove(holdId, hold), () -> this.holds.putIfAbsent(holdId, hold)) != null;
+            } catch (NotFoundException e) {
+                // deleted while held: nothing to put the units back into
+                log.debug("Product {} is gone, {} held units dropped", hold.productId, hold.quantity);
+            }
+        }
+        // no stock change: only the checkpoint lock, so the version and search cache stay as they are
+        long ticket;
+        if (store != null) checkpointLock.readLock().lock();
+        try {
+            if (!this.holds.remove(holdId, hold)) return false;
+            try {
+                ticket = this.append(ProductLogRecords.holdEnd(holdId, null));
+            } catch (RuntimeException e) {
+                this.holds.putIfAbsent(holdId, hold); // the log refused it: the hold is still open
+                throw e;
+            }
+        } finally {
+            if (store != null) checkpointLock.readLock().unlock();
+        }
+        this.sync(ticket);
+        return true;
+    }
+
+    public Set<Long> getHoldIds() {
+        return Set.copyOf(this.holds.keySet());
+    }
+
+    // claim runs inside the compute once the new stock is known to be valid; false leaves the product
+    // untouched and nothing logged, and the call returns null. unclaim undoes a claim the log then refuses.
+    private Product changeStock(long id, int delta, Function<Product, byte[]> record,
+                                BooleanSupplier claim, Runnable unclaim) {
+        LocalDate now = LocalDate.now();
+        long[] ticket = new long[1];
+        boolean[] claimed = {true};
+        Product adjusted;
+        this.beginWrite();
+        try {
+            adjusted = this.productsMap.compute(id, (k, existing) -> {
+                if (existing == null) throw new NotFoundException("Product " + id + " not found");
+                Product product = new Product(existing.getName(), existing.getCategory(), existing.getUnitPrice(),
+                        existing.getExpirationDate(), StockChange.apply(id, existing.getStock(), delta));
+                if (claim != null && !claim.getAsBoolean()) {
+                    claimed[0] = false;
+                    return existing;
+                }
                 product.setId(id);
                 product.setCreationDate(existing.getCreationDate());
                 product.setUpdateDate(now);
+                try {
+                    ticket[0] = this.append(record.apply(product));
+                } catch (RuntimeException e) {
+                    if (claim != null) unclaim.run();
+                    throw e;
+                }
+                this.onReplace(existing, product);
+                this.changed(ChangeType.UPDATED, product);
                 return product;
+            });
+        } finally {
+            this.endWrite();
+        }
+        this.sync(ticket[0]);
+        return claimed[0] ? adjusted : null;
+    }
+
+    // Batch writes: one checkpoint-lock hold, one fsync wait, and the category metrics updated once per
+    // category instead of once per row (the ordered indexes are per-element structures, so they still
+    // take one remove/add per changed row). atomic: ids are checked up front; one that disappears
+    // concurrently halfway makes the rows already written go back to their previous version. A row that
+    // another request wrote in the meantime (stock, hold, delete) is left as that request stored it, and
+    // the batch ends in a ConflictException naming it.
+    public List<Long> updateAll(List<Product> products, boolean atomic) {
+        return replaceAll(products.stream().map(Product::getId).toList(), (i, existing) -> products.get(i), atomic);
+    }
+
+    // The merge reads the stored product inside the compute, so it sees every earlier write to that id
+    public List<Long> patchAll(List<ProductPatch> patches, boolean atomic) {
+        return replaceAll(patches.stream().map(ProductPatch::getId).toList(),
+                (i, existing) -> patches.get(i).applyTo(existing), atomic);
+    }
+
+    // next builds the new version of ids[i] from the stored one; runs inside the per-id compute
+    private List<Long> replaceAll(List<Long> ids, BiFunction<Integer, Product, Product> next,
+                                  boolean atomic) {
+        if (atomic) {
+            List<Long> missing = missingIds(ids);
+            if (!missing.isEmpty()) return missing;
+        }
+        LocalDate now = LocalDate.now();
+        List<Long> missing = new ArrayList<>();
+        List<Product> previous = new ArrayList<>();
+        List<Product> written = new ArrayList<>();
+        List<Long> kept = new ArrayList<>();
+        CategoryMetrics.Delta delta = new CategoryMetrics.Delta();
+        long[] ticket = new long[1];
+        this.beginWrite();
+        try {
+            for (int i = 0; i < ids.size(); i++) {
+                Long id = ids.get(i);
+                if (id == null) {
+                    missing.add(null);
+                    continue;
+                }
+                int item = i;
+                Product[] before = new Product[1];
+                Product stored = this.productsMap.computeIfPresent(id, (k, existing) -> {
+                    Product product = next.apply(item, existing);
+                    product.setCreationDate(existing.getCreationDate());
+                    product.setUpdateDate(now);
+                    ticket[0] = this.append(ProductLogRecords.upsert(ProductLogRecords.UPDATE, product));
+                    this.indexes.replace(existing, product);
+                    delta.replace(existing, product);
+                    this.changed(ChangeType.UPDATED, product);
+                    before[0] = existing;
+                    return product;
+                });
+                if (before[0] != null) {
+                    previous.add(before[0]);
+                    written.add(stored);
+                } else {
+                    missing.add(id);
+                    if (atomic) break;
+                }
+            }
+            if (atomic && !missing.isEmpty()) {
+                for (int i = previous.size() - 1; i >= 0; i--) {
+                    if (!this.restore(previous.get(i), written.get(i), delta, ticket)) kept.add(previous.get(i).getId());
+                }
+            }
+        } finally {
+            this.metrics.apply(delta);
+            this.endWrite();
+        }
+        this.sync(ticket[0]);
+        if (!kept.isEmpty()) throw partiallyUndone(kept);
+        return missing;
+    }
+
+    public List<Long> deleteAllById(List<Long> ids, boolean atomic) {
+        if (atomic) {
+            List<Long> missing = missingIds(ids);
+            if (!missing.isEmpty()) return missing;
+        }
+        List<Long> missing = new ArrayList<>();
+        List<Product> removed = new ArrayList<>();
+        List<Long> kept = new ArrayList<>();
+        CategoryMetrics.Delta delta = new CategoryMetrics.Delta();
+        long[] ticket = new long[1];
+        this.beginWrite();
+        try {
+            for (Long id : new LinkedHashSet<>(ids)) {
+                if (id == null) {
+                    missing.add(null);
+                    continue;
+                }
+                Product[] gone = new Product[1];
+                this.productsMap.computeIfPresent(id, (k, existing) -> {
+                    ticket[0] = this.append(ProductLogRecords.delete(id));
+                    this.indexes.remove(existing);
+                    delta.remove(existing);
+                    this.changed(ChangeType.DELETED, existing);
+                    gone[0] = existing;
+                    return null;
+                });
+                if (gone[0] != null) {
+                    removed.add(gone[0]);
+                } else {
+                    missing.add(id);
+                    if (atomic) break;
+                }
+            }
+            if (atomic && !missing.isEmpty()) {
+                for (int i = removed.size() - 1; i >= 0; i--) {
+                    if (!this.restore(removed.get(i), null, delta, ticket)) kept.add(removed.get(i).getId());
+                }
+            }
+        } finally {
+            this.metrics.apply(delta);
+            this.endWrite();
+        }
+        this.sync(ticket[0]);
+        if (!kept.isEmpty()) throw partiallyUndone(kept);
+        return missing;
+    }
+
+    public List<Product> getExpiringBetween(LocalDate from, LocalDate to, int limit) {
+        return this.indexes.expiry().products(from, to, limit);
+    }
+
+    public List<CategoryInventorySummary> getExpiringSummaryByCategory(LocalDate from, LocalDate to) {
+        return this.indexes.expiry().summary(from, to);
+    }
+
+    public List<CategoryExpirySummary> getExpirySummaryByCategory(LocalDate today) {
+        return this.indexes.expiry().breakdown(today);
+    }
+
+    // Same write path as deleteAllById, with the candidates taken from the head of the expiry index.
+    // A candidate that got a later date in the meantime is left alone.
+    public List<Product> removeExpired(LocalDate today, int limit) {
+        List<Product> candidates = this.indexes.expiry().products(null, today.minusDays(1), limit);
+        if (candidates.isEmpty()) return candidates;
+        List<Product> removed = new ArrayList<>(candidates.size());
+        CategoryMetrics.Delta delta = new CategoryMetrics.Delta();
+        long[] ticket = new long[1];
+        this.beginWrite();
+        try {
+            for (Product candidate : candidates) {
+                this.productsMap.computeIfPresent(candidate.getId(), (k, existing) -> {
+                    LocalDate expiration = existing.getExpirationDate();
+                    if (expiration == null || !expiration.isBefore(today)) return existing;
+                    ticket[0] = this.append(ProductLogRecords.delete(k));
+                    this.indexes.remove(existing);
+                    delta.remove(existing);
+                    this.changed(ChangeType.DELETED, existing);
+                    removed.add(existing);
+                    return null;
+                });
             }
+        } finally {
+            this.metrics.apply(delta);
+            this.endWrite();
+        }
+        this.sync(ticket[0]);
+        return removed;
+    }
+
+    private List<Long> missingIds(List<Long> ids) {
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            if (id == null || !this.productsMap.containsKey(id)) missing.add(id);
+        }
+        return missing;
+    }
+
+    // Puts a previous version back (undo of an atomic batch), logged like any other write. Only while the
+    // row still holds what the batch wrote (written; null for a delete): a later write by someone else is
+    // kept, and the call returns false.
+    private boolean restore(Product old, Product written, CategoryMetrics.Delta delta, long[] ticket) {
+        boolean[] undone = new boolean[1];
+        this.productsMap.compute(old.getId(), (k, current) -> {
+            if (current != written) return current;
+            ticket[0] = this.append(ProductLogRecords.upsert(ProductLogRecords.UPDATE, old));
+            if (current == null) {
+                this.indexes.add(old);
+                delta.add(old);
+            } else {
+                this.indexes.replace(current, old);
+                delta.replace(current, old);
+            }
+            this.changed(current == null ? ChangeType.CREATED : ChangeType.UPDATED, old);
+            undone[0] = true;
+            return old;
         });
+        return undone[0];
     }
 
-    public boolean deleteById(long id) {
-        if (!this.productsMap.containsKey(id)) {
-            return false;
+    private static ConflictException partiallyUndone(List<Long> kept) {
+        return new ConflictException("Batch rejected, but products " + kept
+                + " were changed by another request before they could be rolled back; they keep that change");
+    }
+
+    // The record is queued inside the compute so the log keeps the per-id order of the map;
+    // waiting for the fsync happens outside, so other ids are never blocked on disk IO.
+    // The map's bin lock is a monitor: with virtual threads, nothing that parks (fsync wait, I/O) may
+    // run inside a compute, or it pins the carrier thread. append() and the change feed take no lock:
+    // the log queues with a CAS and readers are woken with unpark.
+    private long append(byte[] record) {
+        return store == null ? 0 : store.append(record);
+    }
+
+    private void sync(long ticket) {
+        if (ticket > 0) store.await(ticket);
+    }
+
+    private void beginWrite() {
+        if (store != null) checkpointLock.readLock().lock();
+    }
+
+    // The version and the search cache generations move once the write is visible in the map,
+    // so a reader that sees them also sees the data
+    private void endWrite() {
+        version.incrementAndGet();
+        searchCache.publish();
+        if (store != null) checkpointLock.readLock().unlock();
+    }
+
+    // Snapshot: one (true, product) entry per product, false, then seq, then the open holds
+    // (count, then hold id, product id, quantity). seq is read after the walk so it is past every id written out.
+    @Override
+    public boolean checkpoint() {
+        if (store == null) return false;
+        return store.checkpoint(checkpointLock.writeLock(), out -> {
+            for (Product p : productsMap.values()) {
+                out.writeBoolean(true);
+                ProductLogRecords.writeProduct(out, p);
+            }
+            out.writeBoolean(false);
+            out.writeLong(seq.get());
+            out.writeInt(holds.size());
+            for (Map.Entry<Long, StockHold> e : holds.entrySet()) {
+                out.writeLong(e.getKey());
+                out.writeLong(e.getValue().productId);
+                out.writeInt(e.getValue().quantity);
+            }
+        });
+    }
+
+    private void loadSnapshot(ByteBuffer in) {
+        while (in.get() != 0) {
+            Product p = ProductLogRecords.readProduct(in);
+            productsMap.put(p.getId(), p);
+            onInsert(p);
+        }
+        seq.set(Math.max(seq.get(), in.getLong()));
+        // snapshots written before holds were tracked end here
+        int openHolds = in.hasRemaining() ? in.getInt() : 0;
+        for (int i = 0; i < openHolds; i++) {
+            long holdId = in.getLong();
+            holds.put(holdId, new StockHold(in.getLong(), in.getInt()));
+        }
+    }
+
+    @Override
+    public String getStoreName() {
+        return "products";
+    }
+
+    @Override
+    public boolean isDurable() {
+        return store != null;
+    }
+
+    @Override
+    public Duration getRecoveryTime() {
+        return store == null ? Duration.ZERO : store.getRecoveryTime();
+    }
+
+    @Override
+    public long getLogBytes() {
+        return store == null ? 0 : store.getLogBytes();
+    }
+
+    private void applyLogged(ByteBuffer record) {
+        byte op = record.get();
+        if (op == ProductLogRecords.DELETE) {
+            long id = record.getLong();
+            productsMap.computeIfPresent(id, (k, existing) -> {
+                onRemove(existing);
+                return null;
+            });
+        } else if (op == ProductLogRecords.SAVE || op == ProductLogRecords.UPDATE) {
+            replay(ProductLogRecords.readProduct(record));
+        } else if (op == ProductLogRecords.HOLD) {
+            long holdId = record.getLong();
+            int quantity = record.getInt();
+            Product p = ProductLogRecords.readProduct(record);
+            replay(p);
+            holds.put(holdId, new StockHold(p.getId(), quantity));
+        } else if (op == ProductLogRecords.HOLD_END) {
+            holds.remove(record.getLong());
+            if (record.get() != 0) replay(ProductLogRecords.readProduct(record));
         } else {
-            this.productsMap.remove(id);
-            return true;
+            throw new IllegalStateException("Unknown log record " + op);
         }
     }
 
+    private void replay(Product p) {
+        productsMap.compute(p.getId(), (k, existing) -> {
+            if (existing == null) onInsert(p);
+            else onReplace(existing, p);
+            return p;
+        });
+        seq.accumulateAndGet(p.getId() + 1, Math::max);
+    }
+
+    @PreDestroy
+    public void close() {
+        parallelSearch.close();
+        if (store != null) store.close();
+    }
+
+    // Index/metrics maintenance, always called inside the productsMap compute for that id
+    private void onInsert(Product p) {
+        indexes.add(p);
+        metrics.add(p);
+    }
+
+    private void onReplace(Product existing, Product updated) {
+        indexes.replace(existing, updated);
+        metrics.replace(existing, updated);
+    }
+
+    private void onRemove(Product p) {
+        indexes.remove(p);
+        metrics.remove(p);
+    }
+
+    // Reported from inside the compute, next to the log record, so events of one id come in write order
+    private void changed(ChangeType type, Product p) {
+        this.changes.changed("product", type, p.getId(), type == ChangeType.DELETED ? null : p);
+    }
+
+    @Override
+    public void setChangeListener(ChangeListener listener) {
+        this.changes = listener == null ? ChangeListener.NONE : listener;
+    }
+
     public List<Product> getAllProducts() {
         return new ArrayList<>(this.productsMap.values());
     }
 
+    // Walks the id index lazily; weakly consistent like the skip list it reads from
+    public Iterator<Product> iterateProducts(String name, String category, String availability) {
+        ProductQuery query = ProductQuery.of(name, category, availability, null);
+        return indexes.sorted(DefaultProductSortStrategy.BY_ID, "asc").stream().filter(query::matches).iterator();
+    }
+
     public Optional<Product> getProductById(long id) {
         return Optional.ofNullable((Product)this.productsMap.get(id));
     }
@@ -133,74 +658,207 @@ public class InMemoryProductRepository implements ProductRepository {
         if (page < 1) throw new BadRequestException("page must be >= 1");
         if (size < 1) size = 10;
 
-        //Filter
-        var stream = productsMap.values().stream();
+        ProductQuery query = ProductQuery.of(name, category, availability, sortBy);
+        SearchCache.Key key = SearchCache.key(query, direction);
+        long generation = searchCache.generation(key);
+        long[] cached = searchCache.get(key, generation);
+        long from = (long) (page - 1) * size;
+        if (cached != null) {
+            return ProductPages.offsetPage(slice(cached, from, size), query.strategy, direction, page, size, cached.length);
+        }
 
-        if (name != null && !name.isBlank()){
-            final String q = name.trim().toLowerCase();
-            stream = stream.filter(p->{
-                String n = p.getName();
-                return n != null && n.toLowerCase().contains(q);
-            });
+        SearchPlan plan = plan(query);
+        long total = plan.total;
+        if (searchCache.admits(key, total)) {
+            // repeated search: sort every match once, later pages and repeats are served from the ids
+            long[] ids = sortedIds(plan, direction);
+            searchCache.put(key, generation, ids);
+            return ProductPages.offsetPage(slice(ids, from, size), query.strategy, direction, page, size, ids.length);
         }
-        if (category != null && !category.isBlank()){
-            final String cat = category.trim();
-            stream = stream.filter(p->cat.equalsIgnoreCase(p.getCategory()));
+        if (total == 0 || from >= total) {
+            return new PageResponse<>(List.of(), page, size, total);
         }
-        if (availability != null && !availability.isBlank()) {
-            final String a = availability.trim().toLowerCase();
 
-            if ("all".equals(a)) {
-                // sin filtro
-            } else if ("in".equals(a)) {
-                stream = stream.filter(p -> p.getStock() > 0);
-            } else if ("out".equals(a)) {
-                stream = stream.filter(p -> p.getStock() <= 0);
-            }
+        List<Product> content;
+        int workers = parallelSearch.workersFor(total);
+        if (plan.prefersIndexWalk(from + size, workers)) {
+            content = walk(indexes.sorted(plan.query.strategy, direction), plan.query, from, size);
+        } else {
+            content = sortedPage(plan, direction, page, size, workers);
         }
+        return ProductPages.offsetPage(content, plan.query.strategy, direction, page, size, total);
+    }
 
-        //Direciton
-        DefaultProductSortStrategy strategy = DefaultProductSortStrategy.fromSortBy(sortBy);
-        Comparator<Product> cmp = strategy.buildComparator(direction);
+    public PageResponse<Product> getByCursorSearch(
+            String name,
+            String category,
+            String availability,
+            String cursor,           // nextCursor of the previous page, null/blank = first page
+            int size,
+            String sortBy,
+            String direction
+    ) {
+        if (size < 1) size = 10;
+        if (cursor == null || cursor.isBlank()) {
+            return getByParamsSearch(name, category, availability, 1, size, sortBy, direction);
+        }
+
+        ProductCursor after = ProductCursor.decode(cursor);
+        String dir = "desc".equalsIgnoreCase(direction) ? "desc" : "asc";
+        ProductQuery query = ProductQuery.of(name, category, availability, sortBy);
+        if (after.getStrategy() != query.strategy || !after.getDirection().equals(dir)) {
+            throw new BadRequestException("cursor does not match sortBy/direction");
+        }
+        SearchPlan plan = plan(query);
+        if (plan.total == 0) {
+            return new PageResponse<>(List.of(), 0, size, 0);
+        }
 
-        List<Product> filtered = stream.sorted(cmp).toList();
+        Product probe = after.getProbe();
+        List<Product> rows;
+        if (plan.prefersIndexWalk(size + 1L)) {
+            rows = walk(indexes.sorted(query.strategy, dir).tailSet(probe, false), query, 0, size + 1);
+        } else {
+            Comparator<Product> cmp = query.strategy.buildComparator(dir);
+            Iterator<Product> rest = plan.candidates.stream()
+                    .filter(p -> cmp.compare(p, probe) > 0 && query.matches(p))
+                    .iterator();
+            rows = TopKSelection.sortedWindow(rest, cmp, 0, size + 1);
+        }
+        return ProductPages.keysetPage(rows, query.strategy, dir, size, plan.total);
+    }
 
+    private SearchPlan plan(ProductQuery query) {
+        //Candidates: smallest index set for category/availability, or the whole map
+        Collection<Product> candidates = indexes.candidates(query.categoryKey, query.availability);
+        if (candidates == null) candidates = productsMap.values();
+        if (query.nameKey != null) {
+            // the trigram postings usually beat the category set; the query verifies each candidate
+            long[] ids = indexes.nameCandidates(query.nameKey);
+            if (ids != null && ids.length < candidates.size()) {
+                List<Product> byName = new ArrayList<>(ids.length);
+                for (long id : ids) {
+                    Product p = productsMap.get(id);
+                    if (p != null) byName.add(p);
+                }
+                candidates = byName;
+            }
+        }
 
-        //PAginate
-        long total = filtered.size();
-        int from = (page - 1) * size;
-        int to = Math.min(from + size, filtered.size());
+        long catalogSize = productsMap.size();
+        long total = (query.nameKey == null)
+                ? indexes.count(query.categoryKey, query.availability, catalogSize)
+                : candidates.stream().filter(query::matches).count();
+        return new SearchPlan(query, candidates, total, catalogSize);
+    }
 
-        List<Product> content = paginate(filtered, page, size);
+    private static final class SearchPlan {
+        final ProductQuery query;
+        final Collection<Product> candidates;
+        final long total;
+        final long catalogSize;
+
+        SearchPlan(ProductQuery query, Collection<Product> candidates, long total, long catalogSize) {
+            this.query = query;
+            this.candidates = candidates;
+            this.total = total;
+            this.catalogSize = catalogSize;
+        }
+
+        boolean prefersIndexWalk(long window) {
+            return prefersIndexWalk(window, 1);
+        }
 
-        return new PageResponse<>(content, page, size, total);
+        // Walking the ordered index visits about window * catalogSize / total rows; sorting the matches costs
+        // total * log(total), split across the workers of a parallel search
+        boolean prefersIndexWalk(long window, int workers) {
+            double walkCost = Math.min((double) window * catalogSize / total, catalogSize);
+            double sortCost = total * (Math.log(total + 1) / Math.log(2)) / workers;
+            return walkCost <= sortCost;
+        }
     }
 
+    // Top-K for the first pages; deep pages sort every match, on packed keys for the numeric fields
+    private List<Product> sortedPage(SearchPlan plan, String direction, int page, int size, int workers) {
+        if ((long) page * size > plan.total / ProductPages.TOP_K_FRACTION) {
+            long[] ids = primitiveSortedIds(plan, direction, workers);
+            if (ids != null) return slice(ids, (long) (page - 1) * size, size);
+        }
+        Comparator<Product> cmp = plan.query.strategy.buildComparator(direction);
+        if (workers > 1) {
+            return parallelSearch.sortedPage(plan.candidates, plan.query::matches, cmp, page, size);
+        }
+        return ProductPages.sortedPage(plan.candidates.stream().filter(plan.query::matches).iterator(), plan.total, cmp, page, size);
+    }
 
+    // null for the string fields, or when a row does not fit the packed keys
+    private long[] primitiveSortedIds(SearchPlan plan, String direction, int workers) {
+        DefaultProductSortStrategy strategy = plan.query.strategy;
+        if (!PrimitiveKeySort.supports(strategy)) return null;
+        if (workers > 1) return parallelSearch.sortedIds(plan.candidates, plan.query::matches, strategy, direction);
+        return PrimitiveKeySort.sortedIds(plan.candidates, plan.query::matches, strategy, direction, plan.total);
+    }
 
-    public List<Product> getFilteredAndPaginatedProducts(String filter, String filterTwo, int page, String direction) {
-        ProductSortStrategy strategy = new MultiFieldProductSortStrategy(filter, filterTwo);
-        Comparator<Product> cmp = strategy.buildComparator(direction);
+    private long[] sortedIds(SearchPlan plan, String direction) {
+        int workers = parallelSearch.workersFor(plan.total);
+        long[] primitive = primitiveSortedIds(plan, direction, workers);
+        if (primitive != null) return primitive;
+
+        Comparator<Product> cmp = plan.query.strategy.buildComparator(direction);
+        if (workers > 1) {
+            Product[] sorted = parallelSearch.sortedMatches(plan.candidates, plan.query::matches, cmp);
+            long[] ids = new long[sorted.length];
+            for (int i = 0; i < sorted.length; i++) ids[i] = sorted[i].getId();
+            return ids;
+        }
+        return plan.candidates.stream().filter(plan.query::matches).sorted(cmp).mapToLong(Product::getId).toArray();
+    }
 
-        List<Product> list = productsMap.values().stream()
-                .sorted(cmp)
-                .toList();
+    // Rows that went away after the ids were taken are skipped (the next lookup misses anyway)
+    private List<Product> slice(long[] ids, long from, int size) {
+        if (from >= ids.length) return List.of();
+        int end = (int) Math.min(ids.length, from + size);
+        List<Product> out = new ArrayList<>(end - (int) from);
+        for (int i = (int) from; i < end; i++) {
+            Product p = productsMap.get(ids[i]);
+            if (p != null) out.add(p);
+        }
+        return out;
+    }
 
-        return paginate(list, page, 10);
+    private static List<Product> walk(Iterable<Product> ordered, ProductQuery query, long skip, int size) {
+        List<Product> out = new ArrayList<>(size);
+        for (Product p : ordered) {
+            if (!query.matches(p)) continue;
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            out.add(p);
+            if (out.size() == size) break;
+        }
+        return out;
     }
 
 
 
+    public List<Product> getFilteredAndPaginatedProducts(String filter, String filterTwo, int page, String direction) {
+        ProductSortStrategy strategy = new MultiFieldProductSortStrategy(filter, filterTwo);
+        Comparator<Product> cmp = strategy.buildComparator(direction);
 
-    private <T> List<T> paginate(List<T> list, int page, int size) {
         if (page < 1) throw new IllegalArgumentException("page must be >= 1");
-        if (size < 1) size = 10;
-        int from = (page - 1) * size;
-        int to = Math.min(from + size, list.size());
-        return (from >= list.size()) ? List.of() : list.subList(from, to);
+        if (parallelSearch.workersFor(productsMap.size()) > 1) {
+            return parallelSearch.sortedPage(productsMap.values(), p -> true, cmp, page, 10);
+        }
+        return ProductPages.sortedPage(productsMap.values().iterator(), productsMap.size(), cmp, page, 10);
     }
 
 
+    @Override
+    public long getVersion() {
+        return this.version.get();
+    }
+
     public int getSize() {
         return productsMap.size();
     }
@@ -212,35 +870,44 @@ public class InMemoryProductRepository implements ProductRepository {
     //METRICS
 
     public List<CategoryInventorySummary> getInventorySummaryByCategory(){
-        //Category name with corresponding metrics
-        Map<String, CategoryAccumulator> accumulatorMap = new HashMap<>();
-
-        for (Product p: new ArrayList<>(productsMap.values())){
-            String category = (p.getCategory() == null || p.getCategory().isBlank()) ? "NO-CATEGORY" : p.getCategory();
-            //IF exists returns the maped pair, if not create it, insert it and return it
-            CategoryAccumulator a = accumulatorMap.computeIfAbsent(category, k-> new CategoryAccumulator());
-            int stock = p.getStock();
-            double price = p.getUnitPrice();
-
-            a.totalStock += stock;
-            a.totalValue += price * stock;
+        List<CategoryInventorySummary> incremental = metrics.snapshot();
+        if (metricsConsistencyCheck) {
+            List<CategoryInventorySummary> full = CategoryMetrics.recompute(productsMap.values());
+            if (!CategoryMetrics.sameTotals(incremental, full)) {
+                log.warn("Incremental category metrics drifted from full recompute: {} vs {}",
+                        describe(incremental), describe(full));
+                return full;
+            }
         }
+        return incremental;
+    }
 
-        List<CategoryInventorySummary> out = new ArrayList<>();
-        accumulatorMap.forEach((category, acc) -> {
-            double avgUnitPricer = acc.totalStock > 0 ? (acc.totalValue/acc.totalStock) : 0.0;
-            avgUnitPricer = Math.round(avgUnitPricer * 100.0) / 100.0;
-            out.add(new CategoryInventorySummary(category, acc.totalStock, acc.totalValue, avgUnitPricer));
-        });
-
-        out.sort(Comparator.comparing(CategoryInventorySummary::getCategory, String.CASE_INSENSITIVE_ORDER));
-        return out;
+    // Compares the incremental accumulators with a full pass over the catalog
+    public boolean isInventorySummaryConsistent() {
+        return CategoryMetrics.sameTotals(metrics.snapshot(), CategoryMetrics.recompute(productsMap.values()));
     }
 
-    private static class CategoryAccumulator {
-        int totalStock;
-        double totalValue;
+    @Value("${inventory.metrics.consistency-check:false}")
+    public void setMetricsConsistencyCheck(boolean metricsConsistencyCheck) {
+        this.metricsConsistencyCheck = metricsConsistencyCheck;
     }
 
+    // Searches with at least `threshold` matches filter and sort on `threads` workers of their own pool
+    // (0 = one per core, 1 = always on the request thread)
+    @Autowired
+    public void setParallelSearch(@Value("${inventory.search.parallel-threshold:200000}") long threshold,
+                                  @Value("${inventory.search.parallel-threads:0}") int threads) {
+        ParallelSearch previous = this.parallelSearch;
+        this.parallelSearch = new ParallelSearch(threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), threshold);
+        previous.close();
+    }
 
+    private static String describe(List<CategoryInventorySummary> summaries) {
+        StringBuilder sb = new StringBuilder("[");
+        for (CategoryInventorySummary s : summaries) {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(s.getCategory()).append('=').append(s.getTotalUnitsInStock()).append('/').append(s.getTotalStockValue());
+        }
+        return sb.append(']').toString();
+    }
 }
@@ -0,0 +1,107 @@
+package mike.sparkd.back_end_inventory_manager.product.Repository;
+
+import java.util.Arrays;
+
+// Open-addressing set of positive longs (product ids) without boxing.
+// 0 marks an empty slot; removals use backward-shift deletion, so there are no tombstones.
+class LongHashSet {
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] slots;
+    private int size;
+
+    LongHashSet() {
+        this.slots = new long[8];
+    }
+
+    synchronized boolean add(long id) {
+        if (id <= 0) throw new IllegalArgumentException("id must be > 0");
+        if (size + 1 > slots.length * LOAD_FACTOR) resize(slots.length * 2);
+        int mask = slots.length - 1;
+        int i = mix(id) & mask;
+        while (slots[i] != 0) {
+            if (slots[i] == id) return false;
+            i = (i + 1) & mask;
+        }
+        slots[i] = id;
+        size++;
+        return true;
+    }
+
+    synchronized boolean remove(long id) {
+        int mask = slots.length - 1;
+        int i = mix(id) & mask;
+        while (slots[i] != 0) {
+            if (slots[i] == id) {
+                slots[i] = 0;
+                size--;
+                shiftBack(i, mask);
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    synchronized boolean contains(long id) {
+        int mask = slots.length - 1;
+        int i = mix(id) & mask;
+        while (slots[i] != 0) {
+            if (slots[i] == id) return true;
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized long[] toArray() {
+        long[] out = new long[size];
+        int n = 0;
+        for (long id : slots) {
+            if (id != 0) out[n++] = id;
+        }
+        return out;
+    }
+
+    // Moves the following entries of the cluster back so lookups never stop at the freed slot
+    private void shiftBack(int freed, int mask) {
+        int i = (freed + 1) & mask;
+        while (slots[i] != 0) {
+            long id = slots[i];
+            int home = mix(id) & mask;
+            // entry can move into 'freed' if its home slot is not in (freed, i]
+            boolean movable = (i > freed) ? (home <= freed || home > i) : (home <= freed && home > i);
+            if (movable) {
+                slots[freed] = id;
+                slots[i] = 0;
+                freed = i;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] old = slots;
+        slots = new long[capacity];
+        int mask = capacity - 1;
+        for (long id : old) {
+            if (id == 0) continue;
+            int i = mix(id) & mask;
+            while (slots[i] != 0) i = (i + 1) & mask;
+            slots[i] = id;
+        }
+    }
+
+    private static int mix(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @Override
+    public synchronized String toString() {
+        return Arrays.toString(toArray());
+    }
+}
@@ -0,0 +1,112 @@
+package mike.sparkd.back_end_inventory_manager.product.Repository;
+
+import java.util.Arrays;
+
+// Open-addressing map from positive long keys (product ids) to long values, without boxing.
+// 0 marks an empty slot; removals use backward-shift deletion. Not thread-safe: callers lock around it.
+class LongLongHashMap {
+    static final long MISSING = -1L;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+
+    LongLongHashMap() {
+        this(16);
+    }
+
+    LongLongHashMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expected / LOAD_FACTOR)) - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+    }
+
+    long get(long key) {
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (keys[i] != 0) {
+            if (keys[i] == key) return values[i];
+            i = (i + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    void put(long key, long value) {
+        if (key <= 0) throw new IllegalArgumentException("key must be > 0");
+        if (size + 1 > keys.length * LOAD_FACTOR) resize(keys.length * 2);
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    long remove(long key) {
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                long old = values[i];
+                keys[i] = 0;
+                size--;
+                shiftBack(i, mask);
+                return old;
+            }
+            i = (i + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0L);
+        size = 0;
+    }
+
+    private void shiftBack(int freed, int mask) {
+        int i = (freed + 1) & mask;
+        while (keys[i] != 0) {
+            int home = mix(keys[i]) & mask;
+            // entry can move into 'freed' if its home slot is not in (freed, i]
+            boolean movable = (i > freed) ? (home <= freed || home > i) : (home <= freed && home > i);
+            if (movable) {
+                keys[freed] = keys[i];
+                values[freed] = values[i];
+                keys[i] = 0;
+                freed = i;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[capacity];
+        values = new long[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == 0) continue;
+            int i = mix(oldKeys[j]) & mask;
+            while (keys[i] != 0) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
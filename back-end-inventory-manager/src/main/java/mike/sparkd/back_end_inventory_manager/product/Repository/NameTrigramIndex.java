@@ -0,0 +1,58 @@
+package mike.sparkd.back_end_inventory_manager.product.Repository;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Inverted index from name trigrams to product ids, for case-insensitive "contains" search.
+// A query is answered by intersecting the posting lists of its trigrams; the caller still
+// verifies each candidate, since sharing all trigrams does not guarantee a substring match.
+class NameTrigramIndex {
+
+    private final ConcurrentHashMap<Long, LongHashSet> postings = new ConcurrentHashMap<>();
+
+    // nameKey is Product#getNameKey(), already trimmed and lower-cased
+    void add(long id, String nameKey) {
+        String n = nameKey == null ? "" : nameKey;
+        for (int i = 0; i + 3 <= n.length(); i++) {
+            postings.computeIfAbsent(trigram(n, i), k -> new LongHashSet()).add(id);
+        }
+    }
+
+    void remove(long id, String nameKey) {
+        String n = nameKey == null ? "" : nameKey;
+        for (int i = 0; i + 3 <= n.length(); i++) {
+            LongHashSet ids = postings.get(trigram(n, i));
+            if (ids != null) ids.remove(id);
+        }
+    }
+
+    // Ids whose name contains every trigram of q (already normalized), or null when q is shorter than a trigram
+    long[] candidateIds(String q) {
+        if (q.length() < 3) return null;
+
+        LongHashSet[] lists = new LongHashSet[q.length() - 2];
+        for (int i = 0; i < lists.length; i++) {
+            LongHashSet ids = postings.get(trigram(q, i));
+            if (ids == null) return new long[0];
+            lists[i] = ids;
+        }
+        // start from the shortest posting list
+        Arrays.sort(lists, Comparator.comparingInt(LongHashSet::size));
+
+        long[] base = lists[0].toArray();
+        int n = 0;
+        outer:
+        for (long id : base) {
+            for (int i = 1; i < lists.length; i++) {
+                if (!lists[i].contains(id)) continue outer;
+            }
+            base[n++] = id;
+        }
+        return Arrays.copyOf(base, n);
+    }
+
+    private static long trigram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+}
@@ -0,0 +1,930 @@
+package mike.sparkd.back_end_inventory_manager.product.Repository;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import jakarta.annotation.PreDestroy;
+import mike.sparkd.back_end_inventory_manager.common.exception.BadRequestException;
+import mike.sparkd.back_end_inventory_manager.common.exception.NotFoundException;
+import mike.sparkd.back_end_inventory_manager.product.Model.CategoryExpirySummary;
+import mike.sparkd.back_end_inventory_manager.product.Model.CategoryInventorySummary;
+import mike.sparkd.back_end_inventory_manager.product.Model.ExpiryHorizon;
+import mike.sparkd.back_end_inventory_manager.product.Model.PageResponse;
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.Model.ProductPatch;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.DefaultProductSortStrategy;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.MultiFieldProductSortStrategy;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.ProductCursor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+// Products stored outside the Java heap, in direct ByteBuffer segments, so large catalogs
+// do not grow the heap or the GC pauses. Each product is one record:
+//
+//   int   length     (whole record, header included; may carry slack after an in-place update)
+//   byte  live       (1 live, 0 deleted)
+//   long  id
+//   float unitPrice
+//   int   stock
+//   int   expirationDate, creationDate, updateDate  (epoch day, NO_DATE when null)
+//   int   category   (dictionary code)
+//   short name length, short name key length (-1 when the name is null)
+//   the UTF-8 name bytes, then the name key (Product.normalizeKey) as UTF-16 chars
+//
+// The stored key lets name filters and name sorts compare in place, char by char like String.contains
+// and String.compareTo, so scanning a row never builds a String; only the rows returned are decoded.
+//
+// id -> address (segment << 32 | offset) lives in a primitive map. Updates that fit are
+// written in place, otherwise the old record is marked dead and a new one is appended.
+// Dead bytes are reclaimed in the background once they pass half of the store: a compactor thread takes
+// the segment with the most dead bytes, moves its live records to the tail and frees it on the spot
+// (DirectBuffers.release), then the next one. Each segment is its own write-lock hold, so no write waits
+// for the whole store to be rewritten, and at most one segment more than the data needs is allocated.
+@Repository
+@Primary
+@Profile("offheap")
+public class OffHeapProductRepository implements ProductRepository {
+    static final int DEFAULT_SEGMENT_BYTES = 64 * 1024 * 1024;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int HEADER_BYTES = 4 + 1 + 8 + 4 + 4 + 4 + 4 + 4 + 4 + 2 + 2;
+    private static final long MIN_COMPACTION_BYTES = 1024 * 1024;
+
+    private static final int LENGTH = 0;
+    private static final int LIVE = 4;
+    private static final int ID = 5;
+    private static final int PRICE = 13;
+    private static final int STOCK = 17;
+    private static final int EXPIRATION = 21;
+    private static final int CREATION = 25;
+    private static final int UPDATE = 29;
+    private static final int CATEGORY = 33;
+    private static final int NAME_LENGTH = 37;
+    private static final int KEY_LENGTH = 39;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int segmentBytes;
+    private final LongLongHashMap addressById = new LongLongHashMap();
+    private final CategoryDictionary categories = new CategoryDictionary();
+    private final Map<Long, StockHold> holds = new HashMap<>();
+    private final List<ByteBuffer> segments = new ArrayList<>(); // null: released, the slot is reused
+    private int[] ends = new int[4];  // bytes used by each closed segment
+    private int[] dead = new int[4];  // dead bytes in each segment
+    private int current;              // segment taking appends
+    private int tail;                 // write position in the current segment
+    private long usedBytes;
+    private long deadBytes;
+    private long seq = 1L;
+    private final AtomicLong version = new AtomicLong();
+    private boolean compactionQueued;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "offheap-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public OffHeapProductRepository() {
+        this(DEFAULT_SEGMENT_BYTES);
+    }
+
+    public OffHeapProductRepository(int segmentBytes) {
+        if (segmentBytes < HEADER_BYTES + Short.MAX_VALUE) {
+            throw new IllegalArgumentException("segmentBytes too small for the largest record");
+        }
+        this.segmentBytes = segmentBytes;
+        this.segments.add(ByteBuffer.allocateDirect(segmentBytes));
+        ProductSeedData.vouchers().forEach(this::save);
+    }
+
+    @Override
+    public Product save(Product product) {
+        lock.writeLock().lock();
+        try {
+            long id = seq++;
+            LocalDate now = LocalDate.now();
+            product.setId(id);
+            product.setCreationDate(now);
+            product.setUpdateDate(now);
+            addressById.put(id, append(encode(product)));
+            return product;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public List<Product> saveAll(List<Product> products) {
+        lock.writeLock().lock();
+        try {
+            LocalDate now = LocalDate.now();
+            for (Product product : products) {
+                long id = seq++;
+                product.setId(id);
+                product.setCreationDate(now);
+                product.setUpdateDate(now);
+                addressById.put(id, append(encode(product)));
+            }
+            return products;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public Product update(Product product) {
+        long id = product.getId();
+        lock.writeLock().lock();
+        try {
+            if (!rewrite(product, LocalDate.now())) throw new NotFoundException("Product " + id + "not found");
+            compactIfWorthIt();
+            return product;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public boolean deleteById(long id) {
+        lock.writeLock().lock();
+        try {
+            if (!kill(id)) return false;
+            compactIfWorthIt();
+            return true;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    // Fixed-width fields are patched in place, the record never moves
+    @Override
+    public Product adjustStock(long id, int delta) {
+        lock.writeLock().lock();
+        try {
+            long address = addressById.get(id);
+            if (address == LongLongHashMap.MISSING) throw new NotFoundException("Product " + id + " not found");
+            ByteBuffer segment = segment(address);
+            int offset = offset(address);
+            segment.putInt(offset + STOCK, StockChange.apply(id, segment.getInt(offset + STOCK), delta));
+            segment.putInt(offset + UPDATE, epochDay(LocalDate.now()));
+            return decode(segment, offset);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    // The write lock is reentrant: adjustStock runs inside the same hold as the hold map change
+    @Override
+    public Product takeHold(long id, long holdId, int quantity) {
+        lock.writeLock().lock();
+        try {
+            Product p = adjustStock(id, -quantity);
+            holds.put(holdId, new StockHold(id, quantity));
+            return p;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public boolean endHold(long holdId, boolean giveBack) {
+        lock.writeLock().lock();
+        try {
+            StockHold hold = holds.get(holdId);
+            if (hold == null) return false;
+            if (giveBack && addressById.get(hold.productId) != LongLongHashMap.MISSING) adjustStock(hold.productId, hold.quantity);
+            holds.remove(holdId);
+            return true;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public Set<Long> getHoldIds() {
+        lock.readLock().lock();
+        try {
+            return Set.copyOf(holds.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Batches run under a single write-lock hold (atomic only needs the ids checked first) and
+    // check for compaction once at the end
+    @Override
+    public List<Long> updateAll(List<Product> products, boolean atomic) {
+        lock.writeLock().lock();
+        try {
+            List<Long> missing = new ArrayList<>();
+            for (Product p : products) {
+                if (p.getId() == null || addressById.get(p.getId()) == LongLongHashMap.MISSING) missing.add(p.getId());
+            }
+            if (atomic && !missing.isEmpty()) return missing;
+
+            LocalDate now = LocalDate.now();
+            for (Product p : products) {
+                if (p.getId() != null) rewrite(p, now);
+            }
+            compactIfWorthIt();
+            return missing;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    // Merged against the stored record under the same write-lock hold
+    @Override
+    public List<Long> patchAll(List<ProductPatch> patches, boolean atomic) {
+        lock.writeLock().lock();
+        try {
+            List<Long> missing = new ArrayList<>();
+            for (ProductPatch p : patches) {
+                if (p.getId() == null || addressById.get(p.getId()) == LongLongHashMap.MISSING) missing.add(p.getId());
+            }
+            if (atomic && !missing.isEmpty()) return missing;
+
+            LocalDate now = LocalDate.now();
+            for (ProductPatch patch : patches) {
+                long address = patch.getId() == null ? LongLongHashMap.MISSING : addressById.get(patch.getId());
+                if (address == LongLongHashMap.MISSING) continue;
+                rewrite(patch.applyTo(decode(segment(address), offset(address))), now);
+            }
+            compactIfWorthIt();
+            return missing;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public List<Long> deleteAllById(List<Long> ids, boolean atomic) {
+        lock.writeLock().lock();
+        try {
+            List<Long> missing = new ArrayList<>();
+            for (Long id : new LinkedHashSet<>(ids)) {
+                if (id == null || addressById.get(id) == LongLongHashMap.MISSING) missing.add(id);
+            }
+            if (atomic && !missing.isEmpty()) return missing;
+
+            for (Long id : ids) {
+                if (id != null) kill(id);
+            }
+            compactIfWorthIt();
+            return missing;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    // Caller holds the write lock. In place when the new record fits, otherwise appended
+    private boolean rewrite(Product product, LocalDate now) {
+        long id = product.getId();
+        long address = addressById.get(id);
+        if (address == LongLongHashMap.MISSING) return false;
+        ByteBuffer segment = segment(address);
+        int offset = offset(address);
+
+        product.setCreationDate(day(segment.getInt(offset + CREATION)));
+        product.setUpdateDate(now);
+        byte[] record = encode(product);
+
+        int oldLength = segment.getInt(offset + LENGTH);
+        if (record.length <= oldLength) {
+            // keeping the old length so the scan still lands on the next record
+            segment.put(offset, record);
+            segment.putInt(offset + LENGTH, oldLength);
+        } else {
+            segment.put(offset + LIVE, (byte) 0);
+            markDead(address, oldLength);
+            addressById.put(id, append(record));
+        }
+        return true;
+    }
+
+    // Caller holds the write lock
+    private boolean kill(long id) {
+        long address = addressById.remove(id);
+        if (address == LongLongHashMap.MISSING) return false;
+        ByteBuffer segment = segment(address);
+        int offset = offset(address);
+        segment.put(offset + LIVE, (byte) 0);
+        markDead(address, segment.getInt(offset + LENGTH));
+        return true;
+    }
+
+    @Override
+    public List<Product> getAllProducts() {
+        List<Product> out = new ArrayList<>();
+        scan(out);
+        return out;
+    }
+
+    @Override
+    public Iterator<Product> iterateProducts(String name, String category, String availability) {
+        ProductQuery query = ProductQuery.of(name, category, availability, null);
+        return new IdChunkIterator((fromId, out) -> readChunk(query, fromId, out));
+    }
+
+    private long readChunk(ProductQuery query, long fromId, List<Product> out) {
+        lock.readLock().lock();
+        try {
+            boolean[] categoryMatches = categories.matching(query);
+            long end = Math.min(seq, fromId + IdChunkIterator.IDS_PER_CHUNK);
+            for (long id = fromId; id < end; id++) {
+                long address = addressById.get(id);
+                if (address == LongLongHashMap.MISSING) continue;
+                ByteBuffer segment = segment(address);
+                int offset = offset(address);
+                if (matches(segment, offset, query, categoryMatches)) out.add(decode(segment, offset));
+            }
+            return end >= seq ? -1 : end;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Product> getProductById(long id) {
+        lock.readLock().lock();
+        try {
+            long address = addressById.get(id);
+            if (address == LongLongHashMap.MISSING) return Optional.empty();
+            return Optional.of(decode(segment(address), offset(address)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Product> getFilteredAndPaginatedProducts(String filter, String filterTwo, int page, String direction) {
+        if (page < 1) throw new IllegalArgumentException("page must be >= 1");
+        DefaultProductSortStrategy[] fields = new MultiFieldProductSortStrategy(filter, filterTwo).sortFields();
+        long from = (long) (page - 1) * 10;
+        lock.readLock().lock();
+        try {
+            HandleTopK top = new HandleTopK(recordOrder(fields, direction), from + 10);
+            for (int s = 0; s < segments.size(); s++) {
+                ByteBuffer segment = segments.get(s);
+                int end = end(s);
+                for (int offset = 0; offset < end; offset += segment.getInt(offset + LENGTH)) {
+                    if (segment.get(offset + LIVE) == 0) continue;
+                    top.offer(address(s, offset), null);
+                }
+            }
+            return decode(top.window((int) Math.min(from, Integer.MAX_VALUE)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Only the address is kept per candidate; the page rows are decoded at the end
+    @Override
+    public PageResponse<Product> getByParamsSearch(String name, String category, String availability,
+                                                   int page, int size, String sortBy, String direction) {
+        if (page < 1) throw new BadRequestException("page must be >= 1");
+        if (size < 1) size = 10;
+
+        ProductQuery query = ProductQuery.of(name, category, availability, sortBy);
+        long from = (long) (page - 1) * size;
+        DefaultProductSortStrategy[] fields = {query.strategy};
+        lock.readLock().lock();
+        try {
+            boolean[] categoryMatches = categories.matching(query);
+            HandleTopK top = new HandleTopK(recordOrder(fields, direction), from + size);
+            long total = 0;
+            for (int s = 0; s < segments.size(); s++) {
+                ByteBuffer segment = segments.get(s);
+                int end = end(s);
+                for (int offset = 0; offset < end; offset += segment.getInt(offset + LENGTH)) {
+                    if (segment.get(offset + LIVE) == 0) continue;
+                    if (!matches(segment, offset, query, categoryMatches)) continue;
+                    total++;
+                    top.offer(address(s, offset), null);
+                }
+            }
+            List<Product> content = decode(top.window((int) Math.min(from, Integer.MAX_VALUE)));
+            return ProductPages.offsetPage(content, query.strategy, direction, page, size, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public PageResponse<Product> getByCursorSearch(String name, String category, String availability,
+                                                   String cursor, int size, String sortBy, String direction) {
+        if (size < 1) size = 10;
+        if (cursor == null || cursor.isBlank()) {
+            return getByParamsSearch(name, category, availability, 1, size, sortBy, direction);
+        }
+
+        ProductCursor after = ProductCursor.decode(cursor);
+        String dir = "desc".equalsIgnoreCase(direction) ? "desc" : "asc";
+        ProductQuery query = ProductQuery.of(name, category, availability, sortBy);
+        if (after.getStrategy() != query.strategy || !after.getDirection().equals(dir)) {
+            throw new BadRequestException("cursor does not match sortBy/direction");
+        }
+
+        Product probe = after.getProbe();
+        boolean desc = "desc".equals(dir);
+        DefaultProductSortStrategy[] fields = {query.strategy};
+        lock.readLock().lock();
+        try {
+            boolean[] categoryMatches = categories.matching(query);
+            HandleTopK top = new HandleTopK(recordOrder(fields, dir), size + 1);
+            long total = 0;
+            for (int s = 0; s < segments.size(); s++) {
+                ByteBuffer segment = segments.get(s);
+                int end = end(s);
+                for (int offset = 0; offset < end; offset += segment.getInt(offset + LENGTH)) {
+                    if (segment.get(offset + LIVE) == 0) continue;
+                    if (!matches(segment, offset, query, categoryMatches)) continue;
+                    total++;
+                    int c = compareToProbe(query.strategy, segment, offset, probe);
+                    if (desc ? c < 0 : c > 0) top.offer(address(s, offset), null);
+                }
+            }
+            return ProductPages.keysetPage(decode(top.window(0)), query.strategy, dir, size, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<CategoryInventorySummary> getInventorySummaryByCategory() {
+        lock.readLock().lock();
+        try {
+            int codes = categories.size();
+            long[] products = new long[codes];
+            long[] stock = new long[codes];
+            double[] value = new double[codes];
+            for (int s = 0; s < segments.size(); s++) {
+                ByteBuffer segment = segments.get(s);
+                int end = end(s);
+                for (int offset = 0; offset < end; offset += segment.getInt(offset + LENGTH)) {
+                    if (segment.get(offset + LIVE) == 0) continue;
+                    int c = segment.getInt(offset + CATEGORY);
+                    int units = segment.getInt(offset + STOCK);
+                    products[c]++;
+                    stock[c] += units;
+                    value[c] += (double) segment.getFloat(offset + PRICE) * units;
+                }
+            }
+
+            // several codes ("", "  ", null) can fall into the same NO-CATEGORY group
+            Map<String, double[]> groups = new LinkedHashMap<>();
+            for (int c = 0; c < codes; c++) {
+                if (products[c] == 0) continue;
+                double[] g = groups.computeIfAbsent(categories.group(c), k -> new double[2]);
+                g[0] += stock[c];
+                g[1] += value[c];
+            }
+            List<CategoryInventorySummary> out = new ArrayList<>();
+            groups.forEach((group, g) -> out.add(CategoryMetrics.summary(group, (int) g[0], g[1])));
+            out.sort(Comparator.comparing(CategoryInventorySummary::getCategory, String.CASE_INSENSITIVE_ORDER));
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Compacts every segment holding dead bytes, one write-lock hold per segment. Addresses move but no
+    // product changes, so the version stays
+    public void compact() {
+        while (true) {
+            lock.writeLock().lock();
+            try {
+                int s = mostDead();
+                if (s < 0) return;
+                compactSegment(s);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Compactor thread: goes on until dead bytes are down to a quarter of the store, so it does not
+    // stop right at the threshold and get queued again by the next delete
+    private void compactInBackground() {
+        boolean more;
+        do {
+            more = false;
+            lock.writeLock().lock();
+            try {
+                int s = deadBytes * 4 > usedBytes ? mostDead() : -1;
+                if (s >= 0) {
+                    compactSegment(s);
+                    more = true;
+                }
+            } finally {
+                if (!more) compactionQueued = false;
+                lock.writeLock().unlock();
+            }
+        } while (more);
+    }
+
+    // Moves the live records of segment s to the tail and frees it. Caller holds the write lock
+    private void compactSegment(int s) {
+        ByteBuffer segment = segments.get(s);
+        if (s == current) openSegment(); // the moved records need somewhere else to go
+        int end = ends[s];
+        for (int offset = 0; offset < end; ) {
+            int length = segment.getInt(offset + LENGTH);
+            if (segment.get(offset + LIVE) != 0) {
+                long address = reserve(length);
+                segment(address).put(offset(address), segment, offset, length);
+                addressById.put(segment.getLong(offset + ID), address);
+            }
+            offset += length;
+        }
+        usedBytes -= end;
+        deadBytes -= dead[s];
+        ends[s] = 0;
+        dead[s] = 0;
+        segments.set(s, null);
+        // only ever read under the lock, and no address points into it any more
+        DirectBuffers.release(segment);
+    }
+
+    // Segment with the most dead bytes, -1 when there are none
+    private int mostDead() {
+        int best = -1;
+        for (int s = 0; s < segments.size(); s++) {
+            if (dead[s] > 0 && (best < 0 || dead[s] > dead[best])) best = s;
+        }
+        return best;
+    }
+
+    // Direct memory held by the segments, live or not
+    public long getAllocatedBytes() {
+        lock.readLock().lock();
+        try {
+            return segments.stream().filter(Objects::nonNull).count() * segmentBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        compactor.shutdownNow();
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    // Bumped while still holding the write lock: a reader that sees the new version scans after this write
+    private void unlockWrite() {
+        version.incrementAndGet();
+        lock.writeLock().unlock();
+    }
+
+    public int getSize() {
+        lock.readLock().lock();
+        try {
+            return addressById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Product> getExpiringBetween(LocalDate from, LocalDate to, int limit) {
+        lock.readLock().lock();
+        try {
+            return ExpiryIndex.select(expiringRecords(from, to), from, to, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<CategoryInventorySummary> getExpiringSummaryByCategory(LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            return CategoryMetrics.recompute(expiringRecords(from, to));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<CategoryExpirySummary> getExpirySummaryByCategory(LocalDate today) {
+        lock.readLock().lock();
+        try {
+            ExpiryBreakdown out = new ExpiryBreakdown();
+            long t = today.toEpochDay();
+            for (int s = 0; s < segments.size(); s++) {
+                ByteBuffer segment = segments.get(s);
+                int end = end(s);
+                for (int offset = 0; offset < end; offset += segment.getInt(offset + LENGTH)) {
+                    if (segment.get(offset + LIVE) == 0) continue;
+                    int day = segment.getInt(offset + EXPIRATION);
+                    ExpiryHorizon h = day == NO_DATE ? ExpiryHorizon.NO_EXPIRATION : ExpiryHorizon.ofDays(day - t);
+                    out.horizon(h).add(categories.group(segment.getInt(offset + CATEGORY)),
+                            segment.getInt(offset + STOCK), segment.getFloat(offset + PRICE));
+                }
+            }
+            return out.build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Product> removeExpired(LocalDate today, int limit) {
+        lock.writeLock().lock();
+        try {
+            List<Product> expired = ExpiryIndex.select(expiringRecords(null, today.minusDays(1)), null, today.minusDays(1), limit);
+            for (Product p : expired) kill(p.getId());
+            if (!expired.isEmpty()) compactIfWorthIt();
+            return expired;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    // Only records whose expiration field is in range are decoded; caller holds the lock
+    private List<Product> expiringRecords(LocalDate from, LocalDate to) {
+        long lo = from == null ? Long.MIN_VALUE : from.toEpochDay();
+        long hi = to.toEpochDay();
+        List<Product> out = new ArrayList<>();
+        for (int s = 0; s < segments.size(); s++) {
+            ByteBuffer segment = segments.get(s);
+            int end = end(s);
+            for (int offset = 0; offset < end; offset += segment.getInt(offset + LENGTH)) {
+                if (segment.get(offset + LIVE) == 0) continue;
+                int day = segment.getInt(offset + EXPIRATION);
+                if (day != NO_DATE && day >= lo && day <= hi) out.add(decode(segment, offset));
+            }
+        }
+        return out;
+    }
+
+    public long getUsedBytes() {
+        lock.readLock().lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getDeadBytes() {
+        lock.readLock().lock();
+        try {
+            return deadBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Every live record, decoded
+    private void scan(List<Product> out) {
+        lock.readLock().lock();
+        try {
+            for (int s = 0; s < segments.size(); s++) {
+                ByteBuffer segment = segments.get(s);
+                int end = end(s);
+                for (int offset = 0; offset < end; offset += segment.getInt(offset + LENGTH)) {
+                    if (segment.get(offset + LIVE) != 0) out.add(decode(segment, offset));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Same order as ProductComparators (fields, then id), read from the buffer. Caller holds the lock
+    private HandleTopK.Order recordOrder(DefaultProductSortStrategy[] fields, String direction) {
+        if ("desc".equalsIgnoreCase(direction)) return (a, ka, b, kb) -> compareRecords(fields, b, a);
+        return (a, ka, b, kb) -> compareRecords(fields, a, b);
+    }
+
+    private int compareRecords(DefaultProductSortStrategy[] fields, long a, long b) {
+        ByteBuffer sa = segment(a);
+        ByteBuffer sb = segment(b);
+        int oa = offset(a);
+        int ob = offset(b);
+        for (DefaultProductSortStrategy field : fields) {
+            int c = switch (field) {
+                case BY_ID -> 0;
+                case BY_NAME -> compareNameKeys(sa, oa, sb, ob);
+                case BY_CATEGORY -> HandleTopK.compareKeys(categories.key(sa.getInt(oa + CATEGORY)),
+                        categories.key(sb.getInt(ob + CATEGORY)));
+                case BY_UNIT_PRICE -> Float.compare(sa.getFloat(oa + PRICE), sb.getFloat(ob + PRICE));
+                case BY_STOCK -> Integer.compare(sa.getInt(oa + STOCK), sb.getInt(ob + STOCK));
+                case BY_EXPIRATION_DATE -> HandleTopK.compareDays(sa.getInt(oa + EXPIRATION), sb.getInt(ob + EXPIRATION), NO_DATE);
+            };
+            if (c != 0) return c;
+        }
+        return Long.compare(sa.getLong(oa + ID), sb.getLong(ob + ID));
+    }
+
+    // Ascending compare of a record against the cursor probe (sort key + id)
+    private int compareToProbe(DefaultProductSortStrategy field, ByteBuffer segment, int offset, Product probe) {
+        int c = switch (field) {
+            case BY_ID -> 0;
+            case BY_NAME -> compareNameKey(segment, offset, probe.getNameKey());
+            case BY_CATEGORY -> HandleTopK.compareKeys(categories.key(segment.getInt(offset + CATEGORY)), probe.getCategoryKey());
+            case BY_UNIT_PRICE -> Float.compare(segment.getFloat(offset + PRICE), probe.getUnitPrice());
+            case BY_STOCK -> Integer.compare(segment.getInt(offset + STOCK), probe.getStock());
+            case BY_EXPIRATION_DATE -> HandleTopK.compareDays(segment.getInt(offset + EXPIRATION),
+                    epochDay(probe.getExpirationDate()), NO_DATE);
+        };
+        return c != 0 ? c : Long.compare(segment.getLong(offset + ID), probe.getId());
+    }
+
+    private List<Product> decode(long[] addresses) {
+        List<Product> out = new ArrayList<>(addresses.length);
+        for (long address : addresses) out.add(decode(segment(address), offset(address)));
+        return out;
+    }
+
+    private boolean matches(ByteBuffer segment, int offset, ProductQuery query, boolean[] categoryMatches) {
+        if (!categoryMatches[segment.getInt(offset + CATEGORY)]) return false;
+        if (!query.matchesStock(segment.getInt(offset + STOCK))) return false;
+        return query.nameKey == null || nameKeyContains(segment, offset, query.nameKey);
+    }
+
+    private static int keyStart(ByteBuffer segment, int offset) {
+        return offset + HEADER_BYTES + Math.max(segment.getShort(offset + NAME_LENGTH), 0);
+    }
+
+    // HandleTopK.compareKeys on two stored name keys: String.compareTo order, null last
+    private static int compareNameKeys(ByteBuffer sa, int oa, ByteBuffer sb, int ob) {
+        int la = sa.getShort(oa + KEY_LENGTH);
+        int lb = sb.getShort(ob + KEY_LENGTH);
+        if (la < 0) return lb < 0 ? 0 : 1;
+        if (lb < 0) return -1;
+        int pa = keyStart(sa, oa);
+        int pb = keyStart(sb, ob);
+        for (int i = 0, n = Math.min(la, lb); i < n; i++) {
+            char ca = sa.getChar(pa + 2 * i);
+            char cb = sb.getChar(pb + 2 * i);
+            if (ca != cb) return ca - cb;
+        }
+        return la - lb;
+    }
+
+    // Same against a key on the heap (the cursor probe's)
+    private static int compareNameKey(ByteBuffer segment, int offset, String key) {
+        int length = segment.getShort(offset + KEY_LENGTH);
+        if (length < 0) return key == null ? 0 : 1;
+        if (key == null) return -1;
+        int start = keyStart(segment, offset);
+        for (int i = 0, n = Math.min(length, key.length()); i < n; i++) {
+            char c = segment.getChar(start + 2 * i);
+            if (c != key.charAt(i)) return c - key.charAt(i);
+        }
+        return length - key.length();
+    }
+
+    // ProductQuery.matchesName on the stored key
+    private static boolean nameKeyContains(ByteBuffer segment, int offset, String needle) {
+        int length = segment.getShort(offset + KEY_LENGTH);
+        if (length < 0) return false;
+        int start = keyStart(segment, offset);
+        int n = needle.length();
+        next:
+        for (int i = 0; i + n <= length; i++) {
+            for (int j = 0; j < n; j++) {
+                if (segment.getChar(start + 2 * (i + j)) != needle.charAt(j)) continue next;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private byte[] encode(Product p) {
+        byte[] name = p.getName() == null ? new byte[0] : p.getName().getBytes(StandardCharsets.UTF_8);
+        String key = Product.normalizeKey(p.getName());
+        int keyChars = key == null ? 0 : key.length();
+        // name and key together stay under Short.MAX_VALUE, which the segment size is checked against
+        if (name.length + 2 * keyChars > Short.MAX_VALUE) throw new BadRequestException("name too long");
+        byte[] record = new byte[HEADER_BYTES + name.length + 2 * keyChars];
+        ByteBuffer b = ByteBuffer.wrap(record);
+        b.putInt(LENGTH, record.length);
+        b.put(LIVE, (byte) 1);
+        b.putLong(ID, p.getId());
+        b.putFloat(PRICE, p.getUnitPrice());
+        b.putInt(STOCK, p.getStock());
+        b.putInt(EXPIRATION, epochDay(p.getExpirationDate()));
+        b.putInt(CREATION, epochDay(p.getCreationDate()));
+        b.putInt(UPDATE, epochDay(p.getUpdateDate()));
+        b.putInt(CATEGORY, categories.encode(p.getCategory()));
+        // a null name is stored as length -1
+        b.putShort(NAME_LENGTH, p.getName() == null ? (short) -1 : (short) name.length);
+        b.putShort(KEY_LENGTH, key == null ? (short) -1 : (short) keyChars);
+        b.put(HEADER_BYTES, name);
+        for (int i = 0; i < keyChars; i++) b.putChar(HEADER_BYTES + name.length + 2 * i, key.charAt(i));
+        return record;
+    }
+
+    private Product decode(ByteBuffer segment, int offset) {
+        Product p = new Product(name(segment, offset), categories.decode(segment.getInt(offset + CATEGORY)),
+                segment.getFloat(offset + PRICE), day(segment.getInt(offset + EXPIRATION)), segment.getInt(offset + STOCK));
+        p.setId(segment.getLong(offset + ID));
+        p.setCreationDate(day(segment.getInt(offset + CREATION)));
+        p.setUpdateDate(day(segment.getInt(offset + UPDATE)));
+        return p;
+    }
+
+    private static String name(ByteBuffer segment, int offset) {
+        short length = segment.getShort(offset + NAME_LENGTH);
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        segment.get(offset + HEADER_BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long append(byte[] record) {
+        long address = reserve(record.length);
+        segment(address).put(offset(address), record);
+        return address;
+    }
+
+    // Space for one record; records never span two segments
+    private long reserve(int length) {
+        if (tail + length > segmentBytes) openSegment();
+        long address = address(current, tail);
+        tail += length;
+        usedBytes += length;
+        return address;
+    }
+
+    // Closes the current segment and appends to a fresh one, in a released slot when there is one
+    private void openSegment() {
+        ends[current] = tail;
+        ByteBuffer fresh = ByteBuffer.allocateDirect(segmentBytes);
+        int slot = segments.indexOf(null);
+        if (slot < 0) {
+            slot = segments.size();
+            segments.add(fresh);
+            if (slot == ends.length) {
+                ends = Arrays.copyOf(ends, slot * 2);
+                dead = Arrays.copyOf(dead, slot * 2);
+            }
+        } else {
+            segments.set(slot, fresh);
+        }
+        current = slot;
+        tail = 0;
+    }
+
+    private void markDead(long address, int length) {
+        dead[(int) (address >>> 32)] += length;
+        deadBytes += length;
+    }
+
+    // Called at the end of a write, write lock held; the compaction itself runs on the compactor thread
+    private void compactIfWorthIt() {
+        if (!compactionQueued && deadBytes >= MIN_COMPACTION_BYTES && deadBytes * 2 > usedBytes) {
+            compactionQueued = true;
+            compactor.execute(this::compactInBackground);
+        }
+    }
+
+    // A released segment reads as empty
+    private int end(int s) {
+        return s == current ? tail : ends[s];
+    }
+
+    private static long address(int segment, int offset) {
+        return ((long) segment << 32) | offset;
+    }
+
+    private ByteBuffer segment(long address) {
+        return segments.get((int) (address >>> 32));
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+
+    private static int epochDay(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    private static LocalDate day(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+}
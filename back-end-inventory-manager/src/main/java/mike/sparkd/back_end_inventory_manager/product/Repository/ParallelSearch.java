@@ -0,0 +1,136 @@
+package mike.sparkd.back_end_inventory_manager.product.Repository;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.DefaultProductSortStrategy;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.PrimitiveKeySort;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.TopKSelection;
+
+// Filter + merge sort of large searches on a dedicated, bounded ForkJoinPool, so one big search uses the
+// idle cores instead of a single request thread. Never the common pool: other parallel streams share it,
+// and a burst of big searches must not be able to take more than `parallelism` threads.
+// Searches with fewer than `threshold` matches stay on the request thread (splitting costs more there).
+final class ParallelSearch implements Closeable {
+    static final ParallelSearch DISABLED = new ParallelSearch(1, Long.MAX_VALUE);
+
+    // ranges up to this size are sorted sequentially (TimSort) before merging
+    private static final int SEQUENTIAL_RUN = 8192;
+
+    private final ForkJoinPool pool; // null: disabled
+    private final int parallelism;
+    private final long threshold;
+
+    ParallelSearch(int parallelism, long threshold) {
+        this.parallelism = Math.max(1, parallelism);
+        this.threshold = Math.max(0, threshold);
+        this.pool = this.parallelism == 1 ? null : new ForkJoinPool(this.parallelism, ParallelSearch::worker, null,
+                false, 0, this.parallelism, 1, p -> true, 60, TimeUnit.SECONDS);
+    }
+
+    // How many workers a search with `total` matches gets; 1 = run it on the calling thread
+    int workersFor(long total) {
+        return pool != null && total >= threshold ? parallelism : 1;
+    }
+
+    // Same result as ProductPages.sortedPage: top-K for the first pages, full sort for deep ones
+    List<Product> sortedPage(Collection<Product> candidates, Predicate<Product> filter, Comparator<Product> cmp,
+                             int page, int size) {
+        return pool.submit(() -> {
+            Product[] matches = filter(candidates, filter);
+            long window = (long) page * size;
+            if (window <= matches.length / ProductPages.TOP_K_FRACTION) {
+                return TopKSelection.sortedWindow(Arrays.asList(matches).iterator(), cmp, (page - 1) * size, size);
+            }
+            sort(matches, cmp);
+            return ProductPages.paginate(Arrays.asList(matches), page, size);
+        }).join();
+    }
+
+    Product[] sortedMatches(Collection<Product> candidates, Predicate<Product> filter, Comparator<Product> cmp) {
+        return pool.submit(() -> {
+            Product[] matches = filter(candidates, filter);
+            sort(matches, cmp);
+            return matches;
+        }).join();
+    }
+
+    // PrimitiveKeySort.sortedIds with the filter and the long sort spread over the pool; null when a row does not fit
+    long[] sortedIds(Collection<Product> candidates, Predicate<Product> filter, DefaultProductSortStrategy strategy,
+                     String direction) {
+        return pool.submit(() -> {
+            Product[] matches = filter(candidates, filter);
+            long[] keys = PrimitiveKeySort.keys(Arrays.asList(matches), p -> true, strategy, matches.length);
+            if (keys == null) return null;
+            Arrays.parallelSort(keys); // forks into this pool: it runs inside one of its tasks
+            return PrimitiveKeySort.ids(keys, strategy, direction);
+        }).join();
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) pool.shutdown();
+    }
+
+    // Runs inside a pool task, so the parallel stream forks into this pool and not into the common one
+    private static Product[] filter(Collection<Product> candidates, Predicate<Product> filter) {
+        return candidates.parallelStream().filter(filter).toArray(Product[]::new);
+    }
+
+    private static void sort(Product[] a, Comparator<Product> cmp) {
+        new MergeSort(a, new Product[a.length], 0, a.length, cmp).invoke();
+    }
+
+    private static ForkJoinWorkerThread worker(ForkJoinPool pool) {
+        ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        t.setName("product-search-" + t.getPoolIndex());
+        t.setDaemon(true);
+        return t;
+    }
+
+    // Stable: halves sorted in parallel, then merged through buf (only the left half is copied)
+    private static final class MergeSort extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Product[] a;
+        private final Product[] buf;
+        private final int lo;
+        private final int hi;
+        private final Comparator<Product> cmp;
+
+        MergeSort(Product[] a, Product[] buf, int lo, int hi, Comparator<Product> cmp) {
+            this.a = a;
+            this.buf = buf;
+            this.lo = lo;
+            this.hi = hi;
+            this.cmp = cmp;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= SEQUENTIAL_RUN) {
+                Arrays.sort(a, lo, hi, cmp);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new MergeSort(a, buf, lo, mid, cmp), new MergeSort(a, buf, mid, hi, cmp));
+            if (cmp.compare(a[mid - 1], a[mid]) <= 0) return; // halves already in order
+
+            System.arraycopy(a, lo, buf, lo, mid - lo);
+            int i = lo, j = mid, k = lo;
+            while (i < mid && j < hi) {
+                a[k++] = cmp.compare(a[j], buf[i]) < 0 ? a[j++] : buf[i++];
+            }
+            while (i < mid) a[k++] = buf[i++];
+        }
+    }
+}
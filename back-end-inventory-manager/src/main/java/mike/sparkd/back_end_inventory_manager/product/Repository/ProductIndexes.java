@@ -0,0 +1,120 @@
+package mike.sparkd.back_end_inventory_manager.product.Repository;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.DefaultProductSortStrategy;
+
+// Secondary indexes over the stored products.
+// Stored instances are never mutated in place: every write swaps the old object for a new one,
+// so the ordered sets can safely use the sort comparators as their key.
+class ProductIndexes {
+
+    private final Map<DefaultProductSortStrategy, ConcurrentSkipListSet<Product>> sorted =
+            new EnumMap<>(DefaultProductSortStrategy.class);
+    private final ConcurrentHashMap<String, Set<Product>> byCategory = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<Product>> inStockByCategory = new ConcurrentHashMap<>();
+    private final Set<Product> inStock = ConcurrentHashMap.newKeySet();
+    private final NameTrigramIndex names = new NameTrigramIndex();
+    private final ExpiryIndex expiry = new ExpiryIndex();
+    private final SearchCache searches;
+
+    ProductIndexes(SearchCache searches) {
+        this.searches = searches;
+        for (DefaultProductSortStrategy strategy : DefaultProductSortStrategy.values()) {
+            sorted.put(strategy, new ConcurrentSkipListSet<>(strategy.buildComparator("asc")));
+        }
+    }
+
+    private static String categoryKey(Product p) {
+        return p.getCategoryKey() == null ? "" : p.getCategoryKey();
+    }
+
+    void add(Product p) {
+        names.add(p.getId(), p.getNameKey());
+        addOrdered(p);
+    }
+
+    void remove(Product p) {
+        names.remove(p.getId(), p.getNameKey());
+        removeOrdered(p);
+    }
+
+    void replace(Product existing, Product updated) {
+        if (!Objects.equals(existing.getNameKey(), updated.getNameKey())) {
+            names.remove(existing.getId(), existing.getNameKey());
+            names.add(updated.getId(), updated.getNameKey());
+        }
+        removeOrdered(existing);
+        addOrdered(updated);
+    }
+
+    private void addOrdered(Product p) {
+        searches.touch(p.getCategoryKey());
+        expiry.add(p);
+        for (ConcurrentSkipListSet<Product> set : sorted.values()) {
+            set.add(p);
+        }
+        String k = categoryKey(p);
+        byCategory.computeIfAbsent(k, x -> ConcurrentHashMap.newKeySet()).add(p);
+        if (p.getStock() > 0) {
+            inStock.add(p);
+            inStockByCategory.computeIfAbsent(k, x -> ConcurrentHashMap.newKeySet()).add(p);
+        }
+    }
+
+    private void removeOrdered(Product p) {
+        searches.touch(p.getCategoryKey());
+        expiry.remove(p);
+        for (ConcurrentSkipListSet<Product> set : sorted.values()) {
+            set.remove(p);
+        }
+        String k = categoryKey(p);
+        Set<Product> cat = byCategory.get(k);
+        if (cat != null) cat.remove(p);
+        if (inStock.remove(p)) {
+            Set<Product> catIn = inStockByCategory.get(k);
+            if (catIn != null) catIn.remove(p);
+        }
+    }
+
+    ExpiryIndex expiry() {
+        return expiry;
+    }
+
+    NavigableSet<Product> sorted(DefaultProductSortStrategy strategy, String direction) {
+        NavigableSet<Product> set = sorted.get(strategy);
+        return "desc".equalsIgnoreCase(direction) ? set.descendingSet() : set;
+    }
+
+    // Narrowest index set for the filters, or null when the whole catalog has to be considered.
+    // "out" has no set of its own, callers still apply the stock predicate on top.
+    Collection<Product> candidates(String categoryKey, String availability) {
+        if (categoryKey != null) {
+            Map<String, Set<Product>> source = "in".equals(availability) ? inStockByCategory : byCategory;
+            return source.getOrDefault(categoryKey, Set.of());
+        }
+        return "in".equals(availability) ? inStock : null;
+    }
+
+    // Ids of products whose name may contain q (already normalized), null when q is too short for the trigram index
+    long[] nameCandidates(String q) {
+        return names.candidateIds(q);
+    }
+
+    // Exact number of products matching category/availability, without touching the rows.
+    long count(String categoryKey, String availability, long totalProducts) {
+        long all = categoryKey == null ? totalProducts : byCategory.getOrDefault(categoryKey, Set.of()).size();
+        long in = categoryKey == null ? inStock.size() : inStockByCategory.getOrDefault(categoryKey, Set.of()).size();
+        if ("in".equals(availability)) return in;
+        if ("out".equals(availability)) return Math.max(0, all - in);
+        return all;
+    }
+}
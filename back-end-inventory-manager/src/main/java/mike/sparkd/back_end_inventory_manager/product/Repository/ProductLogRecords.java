@@ -0,0 +1,121 @@
+package mike.sparkd.back_end_inventory_manager.product.Repository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+
+// Binary encoding of product mutations for the write-ahead log.
+// SAVE/UPDATE carry the full product as stored (id and dates included) so replay needs no clock.
+final class ProductLogRecords {
+
+    static final byte SAVE = 1;
+    static final byte UPDATE = 2;
+    static final byte DELETE = 3;
+    // hold id, quantity, then the product with the units already taken out
+    static final byte HOLD = 4;
+    // hold id, then (true, product) when the units went back, false when they stay out (confirm, product gone)
+    static final byte HOLD_END = 5;
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private ProductLogRecords() {
+    }
+
+    static byte[] upsert(byte op, Product p) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(op);
+            writeProduct(out, p);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] hold(long holdId, int quantity, Product p) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(80);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(HOLD);
+            out.writeLong(holdId);
+            out.writeInt(quantity);
+            writeProduct(out, p);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] holdEnd(long holdId, Product p) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(80);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(HOLD_END);
+            out.writeLong(holdId);
+            out.writeBoolean(p != null);
+            if (p != null) writeProduct(out, p);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] delete(long id) {
+        return ByteBuffer.allocate(9).put(DELETE).putLong(id).array();
+    }
+
+    static void writeProduct(DataOutputStream out, Product p) throws IOException {
+        out.writeLong(p.getId());
+        writeString(out, p.getName());
+        writeString(out, p.getCategory());
+        out.writeFloat(p.getUnitPrice());
+        out.writeInt(p.getStock());
+        writeDate(out, p.getExpirationDate());
+        writeDate(out, p.getCreationDate());
+        writeDate(out, p.getUpdateDate());
+    }
+
+    static Product readProduct(ByteBuffer in) {
+        long id = in.getLong();
+        String name = readString(in);
+        String category = readString(in);
+        float unitPrice = in.getFloat();
+        int stock = in.getInt();
+        Product p = new Product(name, category, unitPrice, readDate(in), stock);
+        p.setId(id);
+        p.setCreationDate(readDate(in));
+        p.setUpdateDate(readDate(in));
+        return p;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        byte[] b = new byte[length];
+        in.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDate(DataOutputStream out, LocalDate date) throws IOException {
+        out.writeLong(date == null ? NO_DATE : date.toEpochDay());
+    }
+
+    private static LocalDate readDate(ByteBuffer in) {
+        long day = in.getLong();
+        return day == NO_DATE ? null : LocalDate.ofEpochDay(day);
+    }
+}
@@ -0,0 +1,64 @@
+package mike.sparkd.back_end_inventory_manager.product.Repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.PageResponse;
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.DefaultProductSortStrategy;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.ProductCursor;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.TopKSelection;
+
+// Sorting/pagination helpers shared by the ProductRepository implementations
+final class ProductPages {
+    // bounded top-K is used while the requested window is at most 1/TOP_K_FRACTION of the matches
+    static final int TOP_K_FRACTION = 8;
+
+    private ProductPages() {
+    }
+
+    // Top-K for the first pages, full sort for deep ones
+    static List<Product> sortedPage(Iterator<Product> matches, long total, Comparator<Product> cmp, int page, int size) {
+        long window = (long) page * size;
+        if (window <= total / TOP_K_FRACTION) {
+            return TopKSelection.sortedWindow(matches, cmp, (page - 1) * size, size);
+        }
+        List<Product> list = new ArrayList<>();
+        matches.forEachRemaining(list::add);
+        list.sort(cmp);
+        return paginate(list, page, size);
+    }
+
+    static <T> List<T> paginate(List<T> list, int page, int size) {
+        if (page < 1) throw new IllegalArgumentException("page must be >= 1");
+        if (size < 1) size = 10;
+        int from = (page - 1) * size;
+        int to = Math.min(from + size, list.size());
+        return (from >= list.size()) ? List.of() : list.subList(from, to);
+    }
+
+    // Offset page; carries a cursor from the last row so clients can switch to keyset pagination
+    static PageResponse<Product> offsetPage(List<Product> content, DefaultProductSortStrategy strategy, String direction,
+                                            int page, int size, long total) {
+        long from = (long) (page - 1) * size;
+        String nextCursor = (!content.isEmpty() && from + content.size() < total)
+                ? ProductCursor.encode(strategy, direction, content.get(content.size() - 1))
+                : null;
+        return new PageResponse<>(content, page, size, total, nextCursor);
+    }
+
+    // Keyset page from up to size + 1 rows after the cursor; the extra row tells whether there is a next page.
+    // page is 0 for keyset pages: the position is given by the cursor
+    static PageResponse<Product> keysetPage(List<Product> rows, DefaultProductSortStrategy strategy, String direction,
+                                            int size, long total) {
+        String nextCursor = null;
+        List<Product> content = rows;
+        if (rows.size() > size) {
+            content = rows.subList(0, size);
+            nextCursor = ProductCursor.encode(strategy, direction, content.get(size - 1));
+        }
+        return new PageResponse<>(content, 0, size, total, nextCursor);
+    }
+}
@@ -0,0 +1,45 @@
+package mike.sparkd.back_end_inventory_manager.product.Repository;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.DefaultProductSortStrategy;
+
+// Normalized search filters shared by the ProductRepository implementations
+final class ProductQuery {
+    final String nameKey;        // contains, already normalized; null = no filter
+    final String categoryKey;    // equals, already normalized; null = no filter
+    final String availability;   // "in" | "out" | null (all)
+    final DefaultProductSortStrategy strategy;
+
+    private ProductQuery(String nameKey, String categoryKey, String availability, DefaultProductSortStrategy strategy) {
+        this.nameKey = nameKey;
+        this.categoryKey = categoryKey;
+        this.availability = availability;
+        this.strategy = strategy;
+    }
+
+    static ProductQuery of(String name, String category, String availability, String sortBy) {
+        String q = (name != null && !name.isBlank()) ? Product.normalizeKey(name) : null;
+        String catKey = (category != null && !category.isBlank()) ? Product.normalizeKey(category) : null;
+        String a = (availability != null) ? availability.trim().toLowerCase() : null;
+        if (!"in".equals(a) && !"out".equals(a)) a = null; // "all", desconocido o null -> sin filtro
+        return new ProductQuery(q, catKey, a, DefaultProductSortStrategy.fromSortBy(sortBy));
+    }
+
+    boolean matches(Product p) {
+        return matchesName(p.getNameKey()) && matchesCategory(p.getCategoryKey()) && matchesStock(p.getStock());
+    }
+
+    boolean matchesName(String productNameKey) {
+        return nameKey == null || (productNameKey != null && productNameKey.contains(nameKey));
+    }
+
+    boolean matchesCategory(String productCategoryKey) {
+        return categoryKey == null || categoryKey.equals(productCategoryKey);
+    }
+
+    boolean matchesStock(int stock) {
+        if ("in".equals(availability)) return stock > 0;
+        if ("out".equals(availability)) return stock <= 0;
+        return true;
+    }
+}
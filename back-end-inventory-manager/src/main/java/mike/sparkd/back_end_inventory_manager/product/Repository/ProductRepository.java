@@ -1,28 +1,82 @@
 package mike.sparkd.back_end_inventory_manager.product.Repository;
 
 
+import mike.sparkd.back_end_inventory_manager.product.Model.CategoryExpirySummary;
 import mike.sparkd.back_end_inventory_manager.product.Model.CategoryInventorySummary;
 import mike.sparkd.back_end_inventory_manager.product.Model.PageResponse;
 import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.Model.ProductPatch;
 
+import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface ProductRepository {
     List<Product> getFilteredAndPaginatedProducts(String filters, String filterTwo, int page, String direction);
 
     List<Product> getAllProducts();
 
+    // Lazily walks the products matching the filters, in id order and without materializing the result
+    Iterator<Product> iterateProducts(String name, String category, String availability);
+
     Optional<Product> getProductById(long id);
 
     Product save(Product product);
 
+    // Inserts every product in one go (ids in list order); used by the bulk import
+    List<Product> saveAll(List<Product> products);
+
     Product update(Product product);
 
     boolean deleteById(long id);
 
+    // Adds delta (negative to take units out) to the stock in one atomic step and returns the product
+    // as stored. NotFoundException for an unknown id, ConflictException if stock would go below zero.
+    Product adjustStock(long id, int delta);
+
+    // Reservation holds. takeHold is adjustStock(id, -quantity) that also opens hold holdId; endHold closes
+    // it, putting the units back when giveBack (release, expiry) or leaving them out (confirm, or the
+    // product is gone). Each call is a single logged record with its stock change, so after a crash
+    // getHoldIds() tells exactly which reservations still own units. endHold returns false when the hold
+    // was already closed: the first caller to close it owns the outcome.
+    Product takeHold(long id, long holdId, int quantity);
+
+    boolean endHold(long holdId, boolean giveBack);
+
+    Set<Long> getHoldIds();
+
+    // Batch counterparts of update/deleteById. Return the ids that were not found; with atomic=true a
+    // non-empty result means nothing was changed, otherwise every other row was applied. If an atomic
+    // batch cannot be fully undone because another request wrote one of its rows meanwhile, that write
+    // is kept and a ConflictException names the rows.
+    List<Long> updateAll(List<Product> products, boolean atomic);
+
+    // updateAll for partial updates: each patch is merged onto the stored product inside the same
+    // per-id write, so a concurrent adjustStock or reservation in between is never overwritten
+    List<Long> patchAll(List<ProductPatch> patches, boolean atomic);
+
+    List<Long> deleteAllById(List<Long> ids, boolean atomic);
+
     List<CategoryInventorySummary> getInventorySummaryByCategory();
 
+    // Grows on every write (never goes back), so an unchanged value means unchanged data
+    long getVersion();
+
+    // Products whose expirationDate falls in [from, to] (from null: no lower bound), earliest first then by id
+    List<Product> getExpiringBetween(LocalDate from, LocalDate to, int limit);
+
+    // Units and value of those same products, per category
+    List<CategoryInventorySummary> getExpiringSummaryByCategory(LocalDate from, LocalDate to);
+
+    // Units and value per category and expiry horizon, relative to today
+    List<CategoryExpirySummary> getExpirySummaryByCategory(LocalDate today);
+
+    // Takes out of the catalog up to limit products that expired before today, earliest first,
+    // and returns them as they were stored
+    List<Product> removeExpired(LocalDate today, int limit);
+
     PageResponse<Product> getByParamsSearch(String name,
                                             String category,
                                             String availability,
@@ -31,4 +85,12 @@ public interface ProductRepository {
                                             String sortBy,
                                             String direction );
 
+    PageResponse<Product> getByCursorSearch(String name,
+                                            String category,
+                                            String availability,
+                                            String cursor,
+                                            int size,
+                                            String sortBy,
+                                            String direction );
+
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package mike.sparkd.back_end_inventory_manager.product.Repository;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+
+// Vouchers every ProductRepository implementation starts with
+final class ProductSeedData {
+
+    private ProductSeedData() {
+    }
+
+    static List<Product> vouchers() {
+        List<Product> seed = new ArrayList<>();
+
+        // Loading relative dates
+        final ZoneId MX = ZoneId.of("America/Monterrey");
+        final LocalDate EXP_GT_1M   = LocalDate.now(MX).plusMonths(3);           // > 1 mes
+        final LocalDate EXP_1_TO_2M = LocalDate.now(MX).plusDays(5); // entre 1 y 2 meses
+        final LocalDate EXP_LT_1M   = LocalDate.now(MX).plusDays(12);            // < 1 mes
+
+// =================== Categoría: Certificación Cloud ===================
+        seed.add(new Product("AWS Cloud Practitioner (CLF-C02) - Exam Voucher", "Certificación Cloud", 100.0F, null, 0));                 // sin expiración
+        seed.add(new Product("Google Cloud Associate Cloud Engineer (ACE) - Exam Voucher", "Certificación Cloud", 125.0F, EXP_GT_1M, 15)); // >1 mes
+        seed.add(new Product("Microsoft Azure Fundamentals (AZ-900) - Exam Voucher", "Certificación Cloud", 99.0F, EXP_1_TO_2M, 25));      // 1-2 meses
+        seed.add(new Product("AWS Solutions Architect Associate (SAA-C03) - Exam Voucher", "Certificación Cloud", 150.0F, EXP_LT_1M, 0));  // <1 mes
+        seed.add(new Product("Google Cloud Professional Cloud Architect (PCA) - Exam Voucher", "Certificación Cloud", 200.0F, EXP_GT_1M, 10));
+        seed.add(new Product("Microsoft Azure Administrator (AZ-104) - Exam Voucher", "Certificación Cloud", 165.0F, EXP_1_TO_2M, 12));
+        seed.add(new Product("AWS Developer Associate (DVA-C02) - Exam Voucher", "Certificación Cloud", 140.0F, null, 0));               // sin expiración
+        seed.add(new Product("AWS SysOps Administrator Associate (SOA-C02) - Exam Voucher", "Certificación Cloud", 150.0F, EXP_LT_1M, 5));
+
+// =================== Categoría: Certificación DevOps ===================
+        seed.add(new Product("Kubernetes CKA (Certified Kubernetes Administrator) - Exam Voucher", "Certificación DevOps", 395.0F, EXP_GT_1M, 0));
+        seed.add(new Product("Kubernetes CKAD (Certified Kubernetes Application Developer) - Exam Voucher", "Certificación DevOps", 395.0F, EXP_1_TO_2M, 8));
+        seed.add(new Product("Kubernetes CKS (Certified Kubernetes Security Specialist) - Exam Voucher", "Certificación DevOps", 395.0F, EXP_LT_1M, 5));
+        seed.add(new Product("HashiCorp Terraform Associate - Exam Voucher", "Certificación DevOps", 150.0F, null, 0));                  // sin expiración
+        seed.add(new Product("HashiCorp Vault Associate - Exam Voucher", "Certificación DevOps", 150.0F, EXP_1_TO_2M, 7));
+        seed.add(new Product("Google Cloud Professional DevOps Engineer - Exam Voucher", "Certificación DevOps", 200.0F, EXP_GT_1M, 4));
+        seed.add(new Product("Microsoft Azure DevOps Engineer Expert (AZ-400) - Exam Voucher", "Certificación DevOps", 195.0F, null, 0)); // sin expiración
+
+// =================== Categoría: Certificación Networking ===================
+        seed.add(new Product("Cisco CCNA 200-301 - Exam Voucher", "Certificación Networking", 300.0F, EXP_GT_1M, 6));
+        seed.add(new Product("Cisco CCNP Enterprise (ENCOR 350-401) - Exam Voucher", "Certificación Networking", 400.0F, EXP_LT_1M, 0));
+        seed.add(new Product("Cisco DevNet Associate (DEVASC 200-901) - Exam Voucher", "Certificación Networking", 300.0F, EXP_1_TO_2M, 10));
+        seed.add(new Product("CompTIA Network+ (N10-009) - Exam Voucher", "Certificación Networking", 180.0F, null, 0));                 // sin expiración
+        seed.add(new Product("CompTIA Security+ (SY0-701) - Exam Voucher", "Certificación Networking", 250.0F, EXP_GT_1M, 12));
+        seed.add(new Product("Juniper JNCIA-Junos (JN0-104) - Exam Voucher", "Certificación Networking", 200.0F, EXP_1_TO_2M, 7));
+        seed.add(new Product("Aruba Certified Switching Associate (HPE6-A72) - Exam Voucher", "Certificación Networking", 210.0F, null, 0)); // sin expiración
+
+// =================== Categoría: Certificación Agile/IT ===================
+        seed.add(new Product("Scrum.org PSM I (Professional Scrum Master I) - Exam Attempt", "Certificación Agile/IT", 150.0F, EXP_LT_1M, 0));
+        seed.add(new Product("Scrum.org PSM II (Professional Scrum Master II) - Exam Attempt", "Certificación Agile/IT", 200.0F, EXP_1_TO_2M, 6));
+        seed.add(new Product("Scrum.org PSPO I (Professional Scrum Product Owner I) - Exam Attempt", "Certificación Agile/IT", 150.0F, null, 10)); // sin expiración
+        seed.add(new Product("ITIL 4 Foundation - Exam Voucher", "Certificación Agile/IT", 200.0F, EXP_GT_1M, 0));
+        seed.add(new Product("COBIT 2019 Foundation - Exam Voucher", "Certificación Agile/IT", 220.0F, EXP_1_TO_2M, 5));
+        seed.add(new Product("SAFe Agilist (Leading SAFe) - Exam Voucher", "Certificación Agile/IT", 250.0F, null, 0));                 // sin expiración
+        seed.add(new Product("PMI Agile Certified Practitioner (PMI-ACP) - Exam Voucher", "Certificación Agile/IT", 300.0F, EXP_GT_1M, 4));
+        return seed;
+    }
+}
@@ -0,0 +1,187 @@
+package mike.sparkd.back_end_inventory_manager.product.Repository;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.DefaultProductSortStrategy;
+
+// Sorted id lists of recent searches (filters + sortBy + direction), so a repeated search only builds
+// the page it asks for. LRU, bounded by entries and by the ids held in total.
+//
+// Invalidation: categories hash into GENERATIONS stripes, each with its own counter; stripe 0 counts
+// every write. An entry keeps the counter its query depends on (its category stripe, or stripe 0 when
+// it has no category filter) as read before it was computed, and is stale once that counter moved.
+// Writers note the categories they touch inside the map compute (touch) and only bump the counters
+// once the write is visible (publish), so a search that reads the new counter also sees the new data.
+//
+// Admission: the first miss of a query only leaves a ghost entry; the full sort is paid from the second
+// miss on, so one-off searches keep using the cheaper top-k / index walk paths.
+final class SearchCache implements MeterBinder {
+    private static final int GENERATIONS = 64;
+    private static final int MAX_ENTRIES = 1024;
+
+    private final long maxIds;
+    private final long maxEntryIds;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATIONS);
+    private final ThreadLocal<long[]> touched = ThreadLocal.withInitial(() -> new long[1]);
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private volatile long heldIds;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // maxIds = 0 disables the cache
+    SearchCache(long maxIds) {
+        this.maxIds = Math.max(0, maxIds);
+        this.maxEntryIds = this.maxIds / 4;
+    }
+
+    static Key key(ProductQuery query, String direction) {
+        return new Key(query.nameKey, query.categoryKey, query.availability, query.strategy,
+                "desc".equalsIgnoreCase(direction));
+    }
+
+    // Read before computing a result that will be put()
+    long generation(Key key) {
+        return generations.get(key.categoryKey == null ? 0 : stripe(key.categoryKey));
+    }
+
+    // Called inside the write, for the category of every row added or removed
+    void touch(String categoryKey) {
+        touched.get()[0] |= 1L << stripe(categoryKey);
+    }
+
+    // Called once the write is visible to readers
+    void publish() {
+        long[] mask = touched.get();
+        long bits = mask[0];
+        if (bits == 0) return;
+        mask[0] = 0;
+        for (int i = 1; i < GENERATIONS; i++) {
+            if ((bits & (1L << i)) != 0) generations.incrementAndGet(i);
+        }
+        generations.incrementAndGet(0);
+    }
+
+    // null on a miss (absent, ghost or stale)
+    synchronized long[] get(Key key, long generation) {
+        if (maxIds == 0) return null;
+        Entry e = entries.get(key);
+        if (e != null && e.ids != null && e.generation == generation) {
+            hits.increment();
+            return e.ids;
+        }
+        misses.increment();
+        if (e == null) {
+            entries.put(key, new Entry());
+            evict();
+        } else {
+            e.misses++;
+            drop(e);
+        }
+        return null;
+    }
+
+    // Whether a miss on this key is worth sorting every match and put()-ing the result
+    synchronized boolean admits(Key key, long total) {
+        Entry e = entries.get(key);
+        return e != null && e.misses > 1 && total <= maxEntryIds;
+    }
+
+    synchronized void put(Key key, long generation, long[] ids) {
+        if (ids.length > maxEntryIds) return;
+        Entry e = entries.computeIfAbsent(key, k -> new Entry());
+        drop(e);
+        e.ids = ids;
+        e.generation = generation;
+        e.misses = 1; // the next stale miss sorts again straight away
+        heldIds += ids.length;
+        evict();
+    }
+
+    double hitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("inventory.search.cache.requests", hits, LongAdder::sum)
+                .description("Searches answered from the search cache")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("inventory.search.cache.requests", misses, LongAdder::sum)
+                .description("Searches that missed the search cache")
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("inventory.search.cache.hit.ratio", this, SearchCache::hitRatio)
+                .description("Hits over all search cache lookups since startup")
+                .register(registry);
+        Gauge.builder("inventory.search.cache.ids", this, c -> c.heldIds)
+                .description("Product ids held by the search cache")
+                .register(registry);
+    }
+
+    private void drop(Entry e) {
+        if (e.ids == null) return;
+        heldIds -= e.ids.length;
+        e.ids = null;
+    }
+
+    // Least recently used first; caller holds the monitor
+    private void evict() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext() && (entries.size() > MAX_ENTRIES || heldIds > maxIds)) {
+            drop(it.next());
+            it.remove();
+        }
+    }
+
+    private static int stripe(String categoryKey) {
+        int h = categoryKey == null ? 0 : categoryKey.hashCode();
+        return 1 + ((h ^ (h >>> 16)) & Integer.MAX_VALUE) % (GENERATIONS - 1);
+    }
+
+    private static final class Entry {
+        long[] ids;        // null: ghost (seen, not cached)
+        long generation;
+        int misses = 1;
+    }
+
+    static final class Key {
+        private final String nameKey;
+        private final String categoryKey;
+        private final String availability;
+        private final DefaultProductSortStrategy strategy;
+        private final boolean descending;
+
+        private Key(String nameKey, String categoryKey, String availability,
+                    DefaultProductSortStrategy strategy, boolean descending) {
+            this.nameKey = nameKey;
+            this.categoryKey = categoryKey;
+            this.availability = availability;
+            this.strategy = strategy;
+            this.descending = descending;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return descending == k.descending && strategy == k.strategy && Objects.equals(nameKey, k.nameKey)
+                    && Objects.equals(categoryKey, k.categoryKey) && Objects.equals(availability, k.availability);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(nameKey, categoryKey, availability, strategy, descending);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package mike.sparkd.back_end_inventory_manager.product.Repository;
+
+import mike.sparkd.back_end_inventory_manager.common.exception.BadRequestException;
+import mike.sparkd.back_end_inventory_manager.common.exception.ConflictException;
+
+// Shared rule for ProductRepository.adjustStock: a change that would leave negative stock is refused whole
+final class StockChange {
+
+    private StockChange() {
+    }
+
+    static int apply(long id, int stock, int delta) {
+        long next = (long) stock + delta;
+        if (next < 0) {
+            throw new ConflictException("Product " + id + " has " + stock + " units in stock, cannot apply " + delta);
+        }
+        if (next > Integer.MAX_VALUE) throw new BadRequestException("stock would overflow");
+        return (int) next;
+    }
+}
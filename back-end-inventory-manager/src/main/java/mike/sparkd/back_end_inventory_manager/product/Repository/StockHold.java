@@ -0,0 +1,12 @@
+package mike.sparkd.back_end_inventory_manager.product.Repository;
+
+// Units of a product taken out by an open reservation hold (ProductRepository.takeHold)
+final class StockHold {
+    final long productId;
+    final int quantity;
+
+    StockHold(long productId, int quantity) {
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,28 @@
+package mike.sparkd.back_end_inventory_manager.product.Service;
+
+import org.springframework.http.MediaType;
+
+// Wire formats for the bulk endpoints: one JSON product per line, or CSV with a header row
+public enum BulkFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON),
+    CSV(new MediaType("text", "csv"));
+
+    private final MediaType mediaType;
+
+    BulkFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    // null when the media type is neither
+    public static BulkFormat from(MediaType type) {
+        if (type == null) return null;
+        for (BulkFormat f : values()) {
+            if (f.mediaType.isCompatibleWith(type)) return f;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,87 @@
+package mike.sparkd.back_end_inventory_manager.product.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.Repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Takes expired vouchers out of the active catalog in batches (found through the repository's expiry
+// index, not by scanning it). With inventory.persistence.dir set they are appended as NDJSON to
+// <dir>/expired-products.ndjson; memory-only, they are just dropped like the rest of the catalog would be.
+// Metric: inventory.expiry.archived
+@Component
+public class ExpirySweeper {
+    private static final Logger log = LoggerFactory.getLogger(ExpirySweeper.class);
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final Path archiveFile; // null: memory only
+    private final int batchSize;
+    private final Counter archived;
+
+    public ExpirySweeper(ProductRepository productRepository,
+                         ObjectMapper objectMapper,
+                         MeterRegistry registry,
+                         @Value("${inventory.persistence.dir:}") String dataDir,
+                         @Value("${inventory.expiry.batch-size:1000}") int batchSize) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.archiveFile = dataDir.isBlank() ? null : Path.of(dataDir).resolve("expired-products.ndjson");
+        this.batchSize = batchSize;
+        this.archived = Counter.builder("inventory.expiry.archived")
+                .description("Expired products taken out of the catalog")
+                .register(registry);
+    }
+
+    @Scheduled(initialDelayString = "${inventory.expiry.sweep-interval:PT1H}",
+            fixedDelayString = "${inventory.expiry.sweep-interval:PT1H}")
+    public void sweep() {
+        long count = sweep(LocalDate.now());
+        if (count > 0) log.info("Archived {} expired products", count);
+    }
+
+    // Returns how many products were archived
+    public long sweep(LocalDate today) {
+        long total = 0;
+        List<Product> batch;
+        while (!(batch = productRepository.removeExpired(today, batchSize)).isEmpty()) {
+            archive(batch);
+            archived.increment(batch.size());
+            total += batch.size();
+        }
+        return total;
+    }
+
+    // Written after the removal, which is already in the products log
+    private void archive(List<Product> products) {
+        if (archiveFile == null) return;
+        try (FileChannel ch = FileChannel.open(archiveFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(ch), 64 * 1024);
+            for (Product p : products) {
+                out.write(objectMapper.writeValueAsBytes(p));
+                out.write('\n');
+            }
+            out.flush();
+            ch.force(false);
+        } catch (IOException e) {
+            log.error("Cannot archive {} expired products to {}", products.size(), archiveFile, e);
+        }
+    }
+}
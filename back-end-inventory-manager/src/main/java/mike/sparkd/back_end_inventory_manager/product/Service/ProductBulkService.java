@@ -0,0 +1,224 @@
+package mike.sparkd.back_end_inventory_manager.product.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.BulkItemError;
+import mike.sparkd.back_end_inventory_manager.product.Model.BulkOperationResult;
+import mike.sparkd.back_end_inventory_manager.common.exception.BadRequestException;
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.Model.ProductPatch;
+import mike.sparkd.back_end_inventory_manager.product.Repository.ProductRepository;
+import org.springframework.stereotype.Service;
+
+// Bulk operations over many products in one request
+@Service
+public class ProductBulkService {
+    static final int BATCH_SIZE = 1000;
+    static final int MAX_REPORTED_ERRORS = 1000;
+    static final int MAX_BATCH_ITEMS = 100_000;
+
+    private final ProductRepository productRepository;
+    private final Validator validator;
+    private final ObjectReader productReader;
+    private final ObjectWriter productWriter;
+
+    public ProductBulkService(ProductRepository productRepository, Validator validator, ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.validator = validator;
+        this.productReader = objectMapper.readerFor(Product.class);
+        this.productWriter = objectMapper.writerFor(Product.class);
+    }
+
+    // Reads the body line by line (never whole), validates each row like POST /products does and
+    // inserts valid rows in batches of BATCH_SIZE. Invalid rows are reported and skipped.
+    public BulkOperationResult importProducts(InputStream body, BulkFormat format) throws IOException {
+        Errors errors = new Errors();
+        long imported = 0;
+        List<Product> batch = new ArrayList<>(BATCH_SIZE);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024);
+        long line = 0;
+        ProductCsv csv = null;
+        if (format == BulkFormat.CSV) {
+            csv = ProductCsv.fromHeader(reader.readLine());
+            line++;
+        }
+
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) continue;
+
+            Product product;
+            try {
+                product = csv != null ? csv.read(text) : productReader.readValue(text);
+            } catch (JsonProcessingException e) {
+                errors.add(line, null, "invalid JSON: " + e.getOriginalMessage());
+                continue;
+            } catch (IllegalArgumentException e) {
+                errors.add(line, null, "invalid row: " + e.getMessage());
+                continue;
+            }
+
+            String violations = violations(product);
+            if (violations != null) {
+                errors.add(line, null, violations);
+                continue;
+            }
+
+            batch.add(product);
+            if (batch.size() == BATCH_SIZE) {
+                imported += productRepository.saveAll(batch).size();
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) imported += productRepository.saveAll(batch).size();
+        return errors.result(imported);
+    }
+
+    // Writes each matching product as soon as the repository iterator yields it; returns the row count
+    public long exportProducts(String name, String category, String availability, BulkFormat format,
+                               OutputStream target) throws IOException {
+        OutputStream out = new BufferedOutputStream(target, 64 * 1024);
+        if (format == BulkFormat.CSV) out.write((ProductCsv.HEADER + "\n").getBytes(StandardCharsets.UTF_8));
+
+        long rows = 0;
+        Iterator<Product> products = productRepository.iterateProducts(name, category, availability);
+        while (products.hasNext()) {
+            Product p = products.next();
+            if (format == BulkFormat.CSV) {
+                out.write(ProductCsv.write(p).getBytes(StandardCharsets.UTF_8));
+            } else {
+                out.write(productWriter.writeValueAsBytes(p));
+            }
+            out.write('\n');
+            rows++;
+        }
+        out.flush();
+        return rows;
+    }
+
+    // Only the fields sent are validated (a stored voucher may already be past its expiration date).
+    // The patches then go to the repository in one patchAll call, which merges each one onto the
+    // product as stored at write time: the read here only reports unknown ids and feeds the validator.
+    // atomic: any unknown or invalid item rejects the whole batch and nothing changes.
+    public BulkOperationResult updateProducts(List<ProductPatch> items, boolean atomic) {
+        checkBatchSize(items.size());
+        Errors errors = new Errors();
+        List<ProductPatch> valid = new ArrayList<>(items.size());
+        Map<Long, Integer> indexById = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            ProductPatch patch = items.get(i);
+            if (patch == null || patch.getId() == null) {
+                errors.add(i, null, "id is required");
+                continue;
+            }
+            long id = patch.getId();
+            Optional<Product> existing = productRepository.getProductById(id);
+            if (existing.isEmpty()) {
+                errors.add(i, id, "Product " + id + " not found");
+                continue;
+            }
+            String violations = violations(patch.applyTo(existing.get()), patch);
+            if (violations != null) {
+                errors.add(i, id, violations);
+                continue;
+            }
+            valid.add(patch);
+            indexById.put(id, i);
+        }
+        if (atomic && errors.any()) return errors.result(0);
+
+        // ids deleted after the checks above
+        List<Long> missing = valid.isEmpty() ? List.of() : productRepository.patchAll(valid, atomic);
+        for (Long id : missing) errors.add(indexById.getOrDefault(id, -1), id, "Product " + id + " not found");
+        if (atomic && !missing.isEmpty()) return errors.result(0);
+        return errors.result(valid.size() - missing.size());
+    }
+
+    // Repeated ids count once
+    public BulkOperationResult deleteProducts(List<Long> ids, boolean atomic) {
+        checkBatchSize(ids.size());
+        Errors errors = new Errors();
+        Map<Long, Integer> indexById = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (id == null) errors.add(i, null, "id is required");
+            else indexById.putIfAbsent(id, i);
+        }
+        if (atomic && errors.any()) return errors.result(0);
+
+        List<Long> unique = new ArrayList<>(indexById.keySet());
+        unique.sort(null);
+        List<Long> missing = unique.isEmpty() ? List.of() : productRepository.deleteAllById(unique, atomic);
+        for (Long id : missing) errors.add(indexById.getOrDefault(id, -1), id, "Product " + id + " not found");
+        if (atomic && !missing.isEmpty()) return errors.result(0);
+        return errors.result(unique.size() - missing.size());
+    }
+
+    private static void checkBatchSize(int size) {
+        if (size > MAX_BATCH_ITEMS) throw new BadRequestException("A batch can hold at most " + MAX_BATCH_ITEMS + " items");
+    }
+
+    private String violations(Product product, ProductPatch patch) {
+        Set<ConstraintViolation<Product>> found = new HashSet<>();
+        if (patch.getName() != null) found.addAll(validator.validateProperty(product, "name"));
+        if (patch.getCategory() != null) found.addAll(validator.validateProperty(product, "category"));
+        if (patch.getUnitPrice() != null) found.addAll(validator.validateProperty(product, "unitPrice"));
+        if (patch.getStock() != null) found.addAll(validator.validateProperty(product, "stock"));
+        if (patch.getExpirationDate() != null) found.addAll(validator.validateProperty(product, "expirationDate"));
+        return describe(found);
+    }
+
+    private String violations(Product product) {
+        return describe(validator.validate(product));
+    }
+
+    private static String describe(Set<ConstraintViolation<Product>> found) {
+        if (found.isEmpty()) return null;
+        return found.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    // Counts every failure, keeps only the first MAX_REPORTED_ERRORS so the response stays bounded
+    private static final class Errors {
+        private final List<BulkItemError> reported = new ArrayList<>();
+        private long failed;
+
+        boolean any() {
+            return failed > 0;
+        }
+
+        void add(long index, Long id, String message) {
+            failed++;
+            if (reported.size() < MAX_REPORTED_ERRORS) reported.add(new BulkItemError(index, id, message));
+        }
+
+        BulkOperationResult result(long succeeded) {
+            return new BulkOperationResult(succeeded, failed, reported, failed > reported.size());
+        }
+    }
+}
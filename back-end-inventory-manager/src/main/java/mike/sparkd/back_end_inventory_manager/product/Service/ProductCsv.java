@@ -0,0 +1,128 @@
+package mike.sparkd.back_end_inventory_manager.product.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import mike.sparkd.back_end_inventory_manager.common.exception.BadRequestException;
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+
+// Minimal RFC 4180 CSV for products: quoted fields and "" escapes, one record per line.
+// Columns are matched by header name (case-insensitive), expirationDate is optional.
+final class ProductCsv {
+
+    static final String HEADER = "id,name,category,unitPrice,stock,expirationDate,creationDate,updateDate";
+
+    private final int name;
+    private final int category;
+    private final int unitPrice;
+    private final int stock;
+    private final int expirationDate;
+
+    private ProductCsv(Map<String, Integer> columns) {
+        this.name = required(columns, "name");
+        this.category = required(columns, "category");
+        this.unitPrice = required(columns, "unitprice");
+        this.stock = required(columns, "stock");
+        this.expirationDate = columns.getOrDefault("expirationdate", -1);
+    }
+
+    static ProductCsv fromHeader(String headerLine) {
+        if (headerLine == null) throw new BadRequestException("CSV body is empty");
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names;
+        try {
+            names = split(headerLine);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid CSV header: " + e.getMessage());
+        }
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        return new ProductCsv(columns);
+    }
+
+    private static int required(Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null) throw new BadRequestException("CSV header must include name, category, unitPrice and stock");
+        return index;
+    }
+
+    // Throws IllegalArgumentException (NumberFormat/DateTimeParse included) for a bad row
+    Product read(String line) {
+        List<String> fields = split(line);
+        Product p = new Product();
+        p.setName(field(fields, name));
+        p.setCategory(field(fields, category));
+        p.setUnitPrice(Float.parseFloat(required(fields, unitPrice, "unitPrice")));
+        p.setStock(Integer.parseInt(required(fields, stock, "stock")));
+        String exp = expirationDate < 0 ? null : field(fields, expirationDate);
+        p.setExpirationDate(exp == null || exp.isBlank() ? null : LocalDate.parse(exp.trim()));
+        return p;
+    }
+
+    static String write(Product p) {
+        StringBuilder sb = new StringBuilder(96);
+        sb.append(p.getId()).append(',');
+        quote(sb, p.getName()).append(',');
+        quote(sb, p.getCategory()).append(',');
+        sb.append(p.getUnitPrice()).append(',');
+        sb.append(p.getStock()).append(',');
+        sb.append(p.getExpirationDate() == null ? "" : p.getExpirationDate()).append(',');
+        sb.append(p.getCreationDate() == null ? "" : p.getCreationDate()).append(',');
+        sb.append(p.getUpdateDate() == null ? "" : p.getUpdateDate());
+        return sb.toString();
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index) : null;
+    }
+
+    private static String required(List<String> fields, int index, String column) {
+        String value = field(fields, index);
+        if (value == null || value.isBlank()) throw new IllegalArgumentException(column + " is required");
+        return value.trim();
+    }
+
+    static List<String> split(String line) {
+        List<String> out = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                out.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("unterminated quoted field");
+        out.add(current.toString());
+        return out;
+    }
+
+    // Line breaks are replaced too: the reader handles one record per line
+    private static StringBuilder quote(StringBuilder sb, String value) {
+        if (value == null) return sb;
+        String v = value.replace('\r', ' ').replace('\n', ' ');
+        if (v.indexOf(',') < 0 && v.indexOf('"') < 0) return sb.append(v);
+        return sb.append('"').append(v.replace("\"", "\"\"")).append('"');
+    }
+}
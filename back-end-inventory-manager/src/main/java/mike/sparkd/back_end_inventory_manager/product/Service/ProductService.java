@@ -2,8 +2,10 @@
 package mike.sparkd.back_end_inventory_manager.product.Service;
 
 import jakarta.validation.Valid;
+import java.time.LocalDate;
 import java.util.List;
 
+import mike.sparkd.back_end_inventory_manager.product.Model.CategoryExpirySummary;
 import mike.sparkd.back_end_inventory_manager.product.Model.CategoryInventorySummary;
 import mike.sparkd.back_end_inventory_manager.product.Model.PageResponse;
 import mike.sparkd.back_end_inventory_manager.product.Model.Product;
@@ -12,6 +14,7 @@ import org.springframework.stereotype.Service;
 
 @Service
 public class ProductService {
+    private static final int MAX_EXPIRING_LIMIT = 1000;
     private final ProductRepository productRepository;
 
     public ProductService(ProductRepository productRepository) {
@@ -35,6 +38,18 @@ public class ProductService {
         return productRepository.getByParamsSearch(name, category, a, p, s, sb, dir);
     }
 
+    public PageResponse<Product> searchByCursor(
+            String cursor, Integer size,
+            String name, String category, String availability,
+            String sortBy, String direction
+    ) {
+        int s = (size == null || size < 1) ? 10 : size;
+        String a = (availability == null || availability.isBlank()) ? "all" : availability;
+        String sb = (sortBy == null || sortBy.isBlank()) ? "id" : sortBy;
+        String dir = "desc".equalsIgnoreCase(direction) ? "desc" : "asc";
+        return productRepository.getByCursorSearch(name, category, a, cursor, s, sb, dir);
+    }
+
     public Product saveProduct(@Valid Product product) {
         return this.productRepository.save(product);
     }
@@ -43,11 +58,36 @@ public class ProductService {
         return this.productRepository.update(product);
     }
 
+    public Product adjustStock(long id, int delta) {
+        return this.productRepository.adjustStock(id, delta);
+    }
+
     public boolean deleteProductById(long id) {
         return this.productRepository.deleteById(id);
     }
 
+    // Products expiring between today and today + days, earliest first
+    public List<Product> getExpiringProducts(int days, int limit) {
+        int d = Math.max(0, days);
+        int l = limit < 1 ? 100 : Math.min(limit, MAX_EXPIRING_LIMIT);
+        LocalDate today = LocalDate.now();
+        return productRepository.getExpiringBetween(today, today.plusDays(d), l);
+    }
+
+    public List<CategoryInventorySummary> getExpiringSummary(int days) {
+        LocalDate today = LocalDate.now();
+        return productRepository.getExpiringSummaryByCategory(today, today.plusDays(Math.max(0, days)));
+    }
+
+    public List<CategoryExpirySummary> getExpiryMetrics() {
+        return productRepository.getExpirySummaryByCategory(LocalDate.now());
+    }
+
     public List<CategoryInventorySummary> getAllCategoryMetrics(){
         return this.productRepository.getInventorySummaryByCategory();
     }
+
+    public long getVersion() {
+        return this.productRepository.getVersion();
+    }
 }
\ No newline at end of file
@@ -4,34 +4,30 @@ import mike.sparkd.back_end_inventory_manager.product.Model.Product;
 
 import java.util.Comparator;
 
+// Orden por primary, luego secondary, y el id como desempate final.
+// Antes de ProductComparators el comparador del primario ya terminaba en id, asi que el secundario
+// nunca llegaba a desempatar; ahora si se aplica (es lo que pide filterTwo).
 public class MultiFieldProductSortStrategy implements ProductSortStrategy {
 
-    private final String primary;
-    private final String secondary;
+    private final DefaultProductSortStrategy primary;
+    private final DefaultProductSortStrategy secondary; // null: solo el id desempata
 
     public MultiFieldProductSortStrategy(String primary, String secondary) {
-        this.primary = primary;
-        this.secondary = secondary;
+        this.primary = DefaultProductSortStrategy.fromSortBy(primary);
+        this.secondary = secondary == null || secondary.isBlank() || secondary.equalsIgnoreCase(primary)
+                ? null
+                : ProductComparators.effectiveSecondary(this.primary, DefaultProductSortStrategy.fromSortBy(secondary));
     }
 
     @Override
     public Comparator<Product> buildComparator(String direction) {
-        DefaultProductSortStrategy primaryStrategy =
-                DefaultProductSortStrategy.fromSortBy(primary);
-        DefaultProductSortStrategy secondaryStrategy =
-                DefaultProductSortStrategy.fromSortBy(secondary);
-
-        Comparator<Product> cmp = primaryStrategy.buildComparator("asc"); // dirección se aplica al final
-        if (secondary != null && !secondary.isBlank() && !secondary.equalsIgnoreCase(primary)) {
-            cmp = cmp.thenComparing(secondaryStrategy.buildComparator("asc"));
-        }
-
-        // siempre terminamos con id para estabilidad
-        cmp = cmp.thenComparing(DefaultProductSortStrategy.BY_ID.buildComparator("asc"));
+        return ProductComparators.of(primary, secondary, direction);
+    }
 
-        if ("desc".equalsIgnoreCase(direction)) {
-            cmp = cmp.reversed();
-        }
-        return cmp;
+    // Campos que ordenan antes del id, para los repositorios que comparan sin construir Products
+    public DefaultProductSortStrategy[] sortFields() {
+        return secondary == null
+                ? new DefaultProductSortStrategy[]{primary}
+                : new DefaultProductSortStrategy[]{primary, secondary};
     }
 }
@@ -0,0 +1,91 @@
+package mike.sparkd.back_end_inventory_manager.product.SortingHelpers;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+
+// Full sort for the numeric sort fields (id, unitPrice, stock, expirationDate) on packed long keys instead of
+// Products: the field as an order-preserving int in the high half and the id in the low half, so a plain
+// long sort gives the comparator order (field, then id) and the ids come straight out of the keys.
+// BY_ID keys are the id itself. desc is the ascending order read backwards (nulls first, like reversed()).
+public final class PrimitiveKeySort {
+
+    private static final long LOW_HALF = 0xFFFFFFFFL;
+
+    private PrimitiveKeySort() {
+    }
+
+    public static boolean supports(DefaultProductSortStrategy strategy) {
+        return strategy == DefaultProductSortStrategy.BY_ID
+                || strategy == DefaultProductSortStrategy.BY_UNIT_PRICE
+                || strategy == DefaultProductSortStrategy.BY_STOCK
+                || strategy == DefaultProductSortStrategy.BY_EXPIRATION_DATE;
+    }
+
+    // Ids of the rows that pass the filter, in sort order; null when a row does not fit the packing
+    // (id beyond 32 bits, date beyond int epoch days): sort those with the comparator instead
+    public static long[] sortedIds(Iterable<Product> rows, Predicate<? super Product> filter,
+                                   DefaultProductSortStrategy strategy, String direction, long expected) {
+        long[] keys = keys(rows, filter, strategy, expected);
+        if (keys == null) return null;
+        Arrays.sort(keys);
+        return ids(keys, strategy, direction);
+    }
+
+    public static long[] keys(Iterable<Product> rows, Predicate<? super Product> filter,
+                              DefaultProductSortStrategy strategy, long expected) {
+        long[] keys = new long[(int) Math.min(Math.max(expected, 16), Integer.MAX_VALUE - 8)];
+        int n = 0;
+        for (Product p : rows) {
+            if (!filter.test(p)) continue;
+            long id = p.getId();
+            long key;
+            if (strategy == DefaultProductSortStrategy.BY_ID) {
+                key = id;
+            } else {
+                if (id < 0 || id > LOW_HALF) return null;
+                long field = field(strategy, p);
+                if (field == Long.MIN_VALUE) return null;
+                key = (field << 32) | id;
+            }
+            if (n == keys.length) keys = Arrays.copyOf(keys, n + (n >> 1)); // rows added since counting
+            keys[n++] = key;
+        }
+        return n == keys.length ? keys : Arrays.copyOf(keys, n);
+    }
+
+    // sortedKeys in ascending order
+    public static long[] ids(long[] sortedKeys, DefaultProductSortStrategy strategy, String direction) {
+        int n = sortedKeys.length;
+        boolean desc = "desc".equalsIgnoreCase(direction);
+        long mask = strategy == DefaultProductSortStrategy.BY_ID ? -1L : LOW_HALF;
+        long[] ids = new long[n];
+        for (int i = 0; i < n; i++) {
+            ids[desc ? n - 1 - i : i] = sortedKeys[i] & mask;
+        }
+        return ids;
+    }
+
+    // Signed int with the same order as the comparator; Long.MIN_VALUE when it does not fit
+    private static long field(DefaultProductSortStrategy strategy, Product p) {
+        switch (strategy) {
+            case BY_UNIT_PRICE: {
+                // IEEE bits order positives correctly; flipping the magnitude of negatives fixes the rest
+                int bits = Float.floatToIntBits(p.getUnitPrice());
+                return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+            }
+            case BY_STOCK:
+                return p.getStock();
+            case BY_EXPIRATION_DATE: {
+                LocalDate date = p.getExpirationDate();
+                if (date == null) return Integer.MAX_VALUE; // nulls last
+                long day = date.toEpochDay();
+                return day >= Integer.MIN_VALUE && day < Integer.MAX_VALUE ? day : Long.MIN_VALUE;
+            }
+            default:
+                throw new IllegalArgumentException("No primitive key for " + strategy);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package mike.sparkd.back_end_inventory_manager.product.SortingHelpers;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+
+import java.util.Comparator;
+
+// Pre-built comparators for every (primary, secondary, direction) sort, created once at class load.
+// All of them are the same final class, so sort, heap and skip-list call sites stay monomorphic
+// instead of walking comparing/thenComparing/reversed lambda chains, and the field compares read
+// primitives (price, stock, id) directly. Order: primary, secondary, id as tie-break, nulls last; desc
+// reverses all of it (nulls first). Single-field sorts order exactly as the old chains did. Multi-field
+// sorts do not: the old primary comparator already ended in id, so the secondary field never broke a tie;
+// here it does (see MultiFieldProductSortStrategy).
+public final class ProductComparators {
+
+    private static final DefaultProductSortStrategy[] FIELDS = DefaultProductSortStrategy.values();
+    // index: (primary * (FIELDS.length + 1) + secondary slot) * 2 + desc; secondary slot 0 = none
+    private static final ProductComparator[] CACHE = new ProductComparator[FIELDS.length * (FIELDS.length + 1) * 2];
+
+    static {
+        for (DefaultProductSortStrategy primary : FIELDS) {
+            for (int slot = 0; slot <= FIELDS.length; slot++) {
+                DefaultProductSortStrategy secondary = slot == 0 ? null : FIELDS[slot - 1];
+                ProductComparator asc = new ProductComparator(primary, secondary, false);
+                ProductComparator desc = new ProductComparator(primary, secondary, true);
+                asc.opposite = desc;
+                desc.opposite = asc;
+                int i = index(primary, secondary);
+                CACHE[i] = asc;
+                CACHE[i + 1] = desc;
+            }
+        }
+    }
+
+    private ProductComparators() {
+    }
+
+    public static Comparator<Product> of(DefaultProductSortStrategy primary, String direction) {
+        return of(primary, null, direction);
+    }
+
+    public static Comparator<Product> of(DefaultProductSortStrategy primary, DefaultProductSortStrategy secondary,
+                                         String direction) {
+        secondary = effectiveSecondary(primary, secondary);
+        return CACHE[index(primary, secondary) + ("desc".equalsIgnoreCase(direction) ? 1 : 0)];
+    }
+
+    // null when the secondary adds nothing (null, same as primary, or id: ids are unique)
+    static DefaultProductSortStrategy effectiveSecondary(DefaultProductSortStrategy primary,
+                                                         DefaultProductSortStrategy secondary) {
+        if (secondary == primary || secondary == DefaultProductSortStrategy.BY_ID
+                || primary == DefaultProductSortStrategy.BY_ID) {
+            return null;
+        }
+        return secondary;
+    }
+
+    private static int index(DefaultProductSortStrategy primary, DefaultProductSortStrategy secondary) {
+        int slot = secondary == null ? 0 : secondary.ordinal() + 1;
+        return (primary.ordinal() * (FIELDS.length + 1) + slot) * 2;
+    }
+
+    static int compareBy(DefaultProductSortStrategy field, Product a, Product b) {
+        return switch (field) {
+            case BY_ID -> Long.compare(a.getId(), b.getId());
+            case BY_NAME -> compareNullsLast(a.getNameKey(), b.getNameKey());
+            case BY_CATEGORY -> compareNullsLast(a.getCategoryKey(), b.getCategoryKey());
+            case BY_UNIT_PRICE -> Float.compare(a.getUnitPrice(), b.getUnitPrice());
+            case BY_STOCK -> Integer.compare(a.getStock(), b.getStock());
+            case BY_EXPIRATION_DATE -> compareNullsLast(a.getExpirationDate(), b.getExpirationDate());
+        };
+    }
+
+    private static <T extends Comparable<? super T>> int compareNullsLast(T a, T b) {
+        if (a == null) return b == null ? 0 : 1;
+        if (b == null) return -1;
+        return a.compareTo(b);
+    }
+
+    private static final class ProductComparator implements Comparator<Product> {
+        private final DefaultProductSortStrategy primary;
+        private final DefaultProductSortStrategy secondary;
+        private final boolean descending;
+        private ProductComparator opposite;
+
+        private ProductComparator(DefaultProductSortStrategy primary, DefaultProductSortStrategy secondary,
+                                  boolean descending) {
+            this.primary = primary;
+            this.secondary = secondary;
+            this.descending = descending;
+        }
+
+        @Override
+        public int compare(Product a, Product b) {
+            if (descending) {
+                Product t = a;
+                a = b;
+                b = t;
+            }
+            int c = compareBy(primary, a, b);
+            if (c == 0 && secondary != null) c = compareBy(secondary, a, b);
+            return c != 0 ? c : Long.compare(a.getId(), b.getId());
+        }
+
+        // keeps TopKSelection's max-heap on this class too
+        @Override
+        public Comparator<Product> reversed() {
+            return opposite;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package mike.sparkd.back_end_inventory_manager.product.SortingHelpers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import mike.sparkd.back_end_inventory_manager.common.exception.BadRequestException;
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+
+// Opaque keyset cursor: sort field, direction, and the sort key + id of the last row returned.
+// Decoded back into a probe Product so the same comparators can seek to the next row.
+public final class ProductCursor {
+
+    private static final String VERSION = "v1";
+    private static final String NULL_KEY = "n";
+    private static final String VALUE_KEY = "v";
+
+    private final DefaultProductSortStrategy strategy;
+    private final String direction;
+    private final Product probe;
+
+    private ProductCursor(DefaultProductSortStrategy strategy, String direction, Product probe) {
+        this.strategy = strategy;
+        this.direction = direction;
+        this.probe = probe;
+    }
+
+    public DefaultProductSortStrategy getStrategy() { return strategy; }
+    public String getDirection() { return direction; }
+    public Product getProbe() { return probe; }
+
+    public static String encode(DefaultProductSortStrategy strategy, String direction, Product last) {
+        String dir = "desc".equalsIgnoreCase(direction) ? "desc" : "asc";
+        String key = keyOf(strategy, last);
+        String raw = VERSION + "|" + strategy.name() + "|" + dir + "|" + last.getId() + "|"
+                + (key == null ? NULL_KEY : VALUE_KEY + key);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 5);
+            if (parts.length != 5 || !VERSION.equals(parts[0])) throw new BadRequestException("Invalid cursor");
+
+            DefaultProductSortStrategy strategy = DefaultProductSortStrategy.valueOf(parts[1]);
+            String dir = parts[2];
+            if (!"asc".equals(dir) && !"desc".equals(dir)) throw new BadRequestException("Invalid cursor");
+
+            Product probe = new Product();
+            probe.setId(Long.parseLong(parts[3]));
+            String key = parts[4].startsWith(VALUE_KEY) ? parts[4].substring(1) : null;
+            if (key == null && !NULL_KEY.equals(parts[4])) throw new BadRequestException("Invalid cursor");
+            applyKey(strategy, probe, key);
+
+            return new ProductCursor(strategy, dir, probe);
+        } catch (IllegalArgumentException e) {
+            // Base64, enum and number parsing errors
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private static String keyOf(DefaultProductSortStrategy strategy, Product p) {
+        return switch (strategy) {
+            case BY_ID -> "";
+            case BY_NAME -> p.getName();
+            case BY_CATEGORY -> p.getCategory();
+            case BY_UNIT_PRICE -> Integer.toString(Float.floatToIntBits(p.getUnitPrice()));
+            case BY_STOCK -> Integer.toString(p.getStock());
+            case BY_EXPIRATION_DATE -> p.getExpirationDate() == null ? null : Long.toString(p.getExpirationDate().toEpochDay());
+        };
+    }
+
+    private static void applyKey(DefaultProductSortStrategy strategy, Product probe, String key) {
+        switch (strategy) {
+            case BY_ID -> { }
+            case BY_NAME -> probe.setName(key);
+            case BY_CATEGORY -> probe.setCategory(key);
+            case BY_UNIT_PRICE -> probe.setUnitPrice(Float.intBitsToFloat(Integer.parseInt(key)));
+            case BY_STOCK -> probe.setStock(Integer.parseInt(key));
+            case BY_EXPIRATION_DATE -> probe.setExpirationDate(key == null ? null : LocalDate.ofEpochDay(Long.parseLong(key)));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package mike.sparkd.back_end_inventory_manager.product.SortingHelpers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Partial sort for paginated results: keeps only the first (from + size) elements
+// in a bounded max-heap, O(n log k) instead of sorting every match.
+public final class TopKSelection {
+
+    private TopKSelection() {
+    }
+
+    public static <T> List<T> sortedWindow(Iterator<T> source, Comparator<? super T> cmp, int from, int size) {
+        if (from < 0) throw new IllegalArgumentException("from must be >= 0");
+        if (size < 1) throw new IllegalArgumentException("size must be >= 1");
+        int k = from + size;
+
+        // the head is the worst element kept so far
+        PriorityQueue<T> heap = new PriorityQueue<>(k, cmp.reversed());
+        while (source.hasNext()) {
+            T next = source.next();
+            if (heap.size() < k) {
+                heap.add(next);
+            } else if (cmp.compare(next, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(next);
+            }
+        }
+
+        if (heap.size() <= from) return List.of();
+        List<T> window = new ArrayList<>(heap);
+        window.sort(cmp);
+        return window.subList(from, window.size());
+    }
+}
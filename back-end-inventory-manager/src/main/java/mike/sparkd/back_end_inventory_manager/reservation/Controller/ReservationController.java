@@ -0,0 +1,51 @@
+package mike.sparkd.back_end_inventory_manager.reservation.Controller;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import java.time.Duration;
+
+import mike.sparkd.back_end_inventory_manager.reservation.Model.Reservation;
+import mike.sparkd.back_end_inventory_manager.reservation.Model.ReservationRequest;
+import mike.sparkd.back_end_inventory_manager.reservation.Service.ReservationService;
+import org.springframework.http.HttpStatus;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/reservations")
+@Validated
+public class ReservationController {
+
+    private final ReservationService reservationService;
+
+    public ReservationController(ReservationService reservationService) {
+        this.reservationService = reservationService;
+    }
+
+    // POST /api/v1/reservations
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Reservation create(@RequestBody @Valid ReservationRequest request) {
+        Duration ttl = request.getTtlSeconds() == null ? null : Duration.ofSeconds(request.getTtlSeconds());
+        return reservationService.reserve(request.getProductId(), request.getQuantity(), ttl);
+    }
+
+    // GET /api/v1/reservations/{id}
+    @GetMapping("/{id}")
+    public Reservation getById(@PathVariable @Positive long id) {
+        return reservationService.getReservation(id);
+    }
+
+    // POST /api/v1/reservations/{id}/confirm (pago confirmado: las unidades quedan vendidas)
+    @PostMapping("/{id}/confirm")
+    public Reservation confirm(@PathVariable @Positive long id) {
+        return reservationService.confirm(id);
+    }
+
+    // DELETE /api/v1/reservations/{id} (las unidades vuelven al stock)
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void release(@PathVariable @Positive long id) {
+        reservationService.release(id);
+    }
+}
@@ -0,0 +1,34 @@
+package mike.sparkd.back_end_inventory_manager.reservation.Model;
+
+import java.time.Instant;
+
+// Units of a product held for a checkout until expiresAt. Immutable: confirm/release/expiry remove it.
+public class Reservation {
+    private final long id;
+    private final long productId;
+    private final int quantity;
+    private final Instant expiresAt;
+
+    public Reservation(long id, long productId, int quantity, Instant expiresAt) {
+        this.id = id;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.expiresAt = expiresAt;
+    }
+
+    public long getId() {
+        return this.id;
+    }
+
+    public long getProductId() {
+        return this.productId;
+    }
+
+    public int getQuantity() {
+        return this.quantity;
+    }
+
+    public Instant getExpiresAt() {
+        return this.expiresAt;
+    }
+}
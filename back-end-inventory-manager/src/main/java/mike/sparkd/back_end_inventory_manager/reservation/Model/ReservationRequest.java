@@ -0,0 +1,17 @@
+package mike.sparkd.back_end_inventory_manager.reservation.Model;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public class ReservationRequest {
+    private @NotNull @Positive Long productId;
+    private @NotNull @Positive(message = "quantity must be > 0") Integer quantity;
+    private @Positive Long ttlSeconds; // opcional: por defecto inventory.reservations.default-ttl
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    public Long getTtlSeconds() { return ttlSeconds; }
+    public void setTtlSeconds(Long ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+}
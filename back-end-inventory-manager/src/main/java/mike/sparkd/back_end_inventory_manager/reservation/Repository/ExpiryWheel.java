@@ -0,0 +1,77 @@
+package mike.sparkd.back_end_inventory_manager.reservation.Repository;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import mike.sparkd.back_end_inventory_manager.reservation.Model.Reservation;
+
+// Hashed timing wheel: SLOTS buckets of TICK_MILLIS each, a reservation sits in the bucket of its expiry tick.
+// add/remove are O(1) hash-set operations (a DelayQueue would make every confirm a linear remove() over
+// millions of holds), and a sweep only drains the buckets whose tick has come. Reservations more than one
+// turn away stay in their bucket, skipped, until the turn they are due.
+final class ExpiryWheel {
+
+    static final long TICK_MILLIS = 1000;
+    private static final int SLOTS = 4096; // ~68 min per turn
+    private static final int MASK = SLOTS - 1;
+
+    private final List<Set<Reservation>> slots = new ArrayList<>(SLOTS);
+    // added with a tick the sweep has already passed (recovered holds, clock jumps)
+    private final Set<Reservation> overdue = ConcurrentHashMap.newKeySet();
+    private volatile long sweptTick = Long.MIN_VALUE;
+
+    ExpiryWheel() {
+        for (int i = 0; i < SLOTS; i++) slots.add(ConcurrentHashMap.newKeySet());
+    }
+
+    // Lock-free against pollExpired, which publishes sweptTick before draining: if the re-check still sees
+    // the old value, the sweep has not drained this slot yet and will find r there
+    void add(Reservation r) {
+        long tick = tick(r);
+        if (tick <= sweptTick) {
+            overdue.add(r);
+            return;
+        }
+        Set<Reservation> slot = slots.get((int) (tick & MASK));
+        slot.add(r);
+        // a sweep went past this tick meanwhile and may have drained the slot before r got in
+        if (tick <= sweptTick && slot.remove(r)) overdue.add(r);
+    }
+
+    void remove(Reservation r) {
+        if (!slots.get((int) (tick(r) & MASK)).remove(r)) overdue.remove(r);
+    }
+
+    // Removes and returns every reservation expired at nowMillis; one sweeper at a time
+    synchronized List<Reservation> pollExpired(long nowMillis) {
+        List<Reservation> due = new ArrayList<>();
+        drain(overdue, nowMillis, due);
+        long nowTick = Math.floorDiv(nowMillis, TICK_MILLIS);
+        // more than a turn behind (first sweep, long pause): every bucket once is enough
+        long from = sweptTick == Long.MIN_VALUE ? nowTick - MASK : Math.max(sweptTick + 1, nowTick - MASK);
+        // published before draining (see add); the current bucket may still hold later expiries of this
+        // same tick, so it is swept again next time
+        sweptTick = Math.max(sweptTick, nowTick - 1);
+        for (long t = from; t <= nowTick; t++) {
+            drain(slots.get((int) (t & MASK)), nowMillis, due);
+        }
+        return due;
+    }
+
+    private static void drain(Set<Reservation> bucket, long nowMillis, List<Reservation> due) {
+        for (Iterator<Reservation> it = bucket.iterator(); it.hasNext(); ) {
+            Reservation r = it.next();
+            if (r.getExpiresAt().toEpochMilli() <= nowMillis) {
+                it.remove();
+                due.add(r);
+            }
+        }
+    }
+
+    private static long tick(Reservation r) {
+        return Math.floorDiv(r.getExpiresAt().toEpochMilli(), TICK_MILLIS);
+    }
+}
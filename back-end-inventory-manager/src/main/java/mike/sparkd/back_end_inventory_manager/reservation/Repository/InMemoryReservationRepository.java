@@ -0,0 +1,214 @@
+package mike.sparkd.back_end_inventory_manager.reservation.Repository;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import jakarta.annotation.PreDestroy;
+import mike.sparkd.back_end_inventory_manager.common.persistence.Checkpointable;
+import mike.sparkd.back_end_inventory_manager.common.persistence.DurableStore;
+import mike.sparkd.back_end_inventory_manager.reservation.Model.Reservation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+// Outstanding reservations by id plus an expiry wheel. With a store they survive a restart; the stock they
+// took out is recorded as holds in the products log (same record as the stock change), and
+// ReservationService reconciles both logs on start. Holds that expired while down are released on the first sweep.
+@Repository
+public class InMemoryReservationRepository implements ReservationRepository, Checkpointable {
+    private static final Logger log = LoggerFactory.getLogger(InMemoryReservationRepository.class);
+    private final ConcurrentHashMap<Long, Reservation> byId = new ConcurrentHashMap<>();
+    private final AtomicLong seq = new AtomicLong(1L);
+    private final ExpiryWheel wheel = new ExpiryWheel();
+    private final DurableStore store; // null: memory only
+    // writers share it; a checkpoint takes it exclusively only while it rotates the log
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+
+    public InMemoryReservationRepository() {
+        this((DurableStore) null);
+    }
+
+    @Autowired
+    public InMemoryReservationRepository(@Value("${inventory.persistence.dir:}") String dataDir) {
+        this(dataDir.isBlank() ? null : DurableStore.open(Path.of(dataDir), "reservations"));
+    }
+
+    public InMemoryReservationRepository(DurableStore store) {
+        this.store = store;
+        if (store != null && store.recover(this::loadSnapshot, this::applyLogged)) {
+            byId.values().forEach(wheel::add);
+            log.info("Recovered {} reservations from {} in {} ms", byId.size(), store.getName(),
+                    store.getRecoveryTime().toMillis());
+        }
+    }
+
+    @Override
+    public long nextId() {
+        return seq.getAndIncrement();
+    }
+
+    @Override
+    public Reservation save(Reservation r) {
+        long ticket;
+        beginWrite();
+        try {
+            ticket = append(ReservationLogRecords.create(r));
+            byId.put(r.getId(), r);
+            wheel.add(r);
+        } finally {
+            endWrite();
+        }
+        sync(ticket);
+        return r;
+    }
+
+    @Override
+    public Optional<Reservation> findById(long id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    @Override
+    public List<Reservation> findAll() {
+        return new ArrayList<>(byId.values());
+    }
+
+    // Outcome races (confirm vs release vs the sweep) are settled on the stock hold before this is called
+    @Override
+    public Optional<Reservation> remove(long id) {
+        Reservation r;
+        long ticket;
+        beginWrite();
+        try {
+            r = byId.remove(id);
+            if (r == null) return Optional.empty();
+            ticket = appendOrPutBack(r);
+        } finally {
+            endWrite();
+        }
+        wheel.remove(r);
+        sync(ticket);
+        return Optional.of(r);
+    }
+
+    @Override
+    public void removeAll(List<Reservation> reservations) {
+        long ticket = 0;
+        beginWrite();
+        try {
+            for (Reservation r : reservations) {
+                if (byId.remove(r.getId(), r)) ticket = appendOrPutBack(r);
+            }
+        } finally {
+            endWrite();
+        }
+        for (Reservation r : reservations) wheel.remove(r);
+        sync(ticket);
+    }
+
+    @Override
+    public List<Reservation> pollExpired(Instant now) {
+        List<Reservation> due = wheel.pollExpired(now.toEpochMilli());
+        due.removeIf(r -> byId.get(r.getId()) != r);
+        return due;
+    }
+
+    @Override
+    public int getSize() {
+        return byId.size();
+    }
+
+    // A log that refuses the end record (it failed earlier) leaves the reservation in place
+    private long appendOrPutBack(Reservation removed) {
+        try {
+            return append(ReservationLogRecords.end(removed.getId()));
+        } catch (RuntimeException e) {
+            byId.putIfAbsent(removed.getId(), removed);
+            throw e;
+        }
+    }
+
+    private long append(byte[] record) {
+        return store == null ? 0 : store.append(record);
+    }
+
+    private void sync(long ticket) {
+        if (ticket > 0) store.await(ticket);
+    }
+
+    private void beginWrite() {
+        if (store != null) checkpointLock.readLock().lock();
+    }
+
+    private void endWrite() {
+        if (store != null) checkpointLock.readLock().unlock();
+    }
+
+    private void applyLogged(ByteBuffer record) {
+        byte op = record.get();
+        if (op == ReservationLogRecords.CREATE) {
+            Reservation r = ReservationLogRecords.readReservation(record);
+            byId.put(r.getId(), r);
+            seq.accumulateAndGet(r.getId() + 1, Math::max);
+        } else if (op == ReservationLogRecords.END) {
+            byId.remove(record.getLong());
+        } else {
+            throw new IllegalStateException("Unknown log record " + op);
+        }
+    }
+
+    @Override
+    public boolean checkpoint() {
+        if (store == null) return false;
+        return store.checkpoint(checkpointLock.writeLock(), out -> {
+            for (Reservation r : byId.values()) {
+                out.writeBoolean(true);
+                ReservationLogRecords.writeReservation(out, r);
+            }
+            out.writeBoolean(false);
+            out.writeLong(seq.get());
+        });
+    }
+
+    private void loadSnapshot(ByteBuffer in) {
+        while (in.get() != 0) {
+            Reservation r = ReservationLogRecords.readReservation(in);
+            byId.put(r.getId(), r);
+        }
+        seq.set(Math.max(seq.get(), in.getLong()));
+    }
+
+    @Override
+    public String getStoreName() {
+        return "reservations";
+    }
+
+    @Override
+    public boolean isDurable() {
+        return store != null;
+    }
+
+    @Override
+    public Duration getRecoveryTime() {
+        return store == null ? Duration.ZERO : store.getRecoveryTime();
+    }
+
+    @Override
+    public long getLogBytes() {
+        return store == null ? 0 : store.getLogBytes();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (store != null) store.close();
+    }
+}
@@ -0,0 +1,47 @@
+package mike.sparkd.back_end_inventory_manager.reservation.Repository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+import mike.sparkd.back_end_inventory_manager.reservation.Model.Reservation;
+
+// Binary encoding of reservation changes (log) and outstanding reservations (snapshot).
+// END covers confirm, release and expiry alike: the stock side of each lives in the products log.
+final class ReservationLogRecords {
+
+    static final byte CREATE = 1;
+    static final byte END = 2;
+
+    private ReservationLogRecords() {
+    }
+
+    static byte[] create(Reservation r) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(CREATE);
+            writeReservation(out, r);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] end(long id) {
+        return ByteBuffer.allocate(9).put(END).putLong(id).array();
+    }
+
+    static void writeReservation(DataOutputStream out, Reservation r) throws IOException {
+        out.writeLong(r.getId());
+        out.writeLong(r.getProductId());
+        out.writeInt(r.getQuantity());
+        out.writeLong(r.getExpiresAt().toEpochMilli());
+    }
+
+    static Reservation readReservation(ByteBuffer in) {
+        return new Reservation(in.getLong(), in.getLong(), in.getInt(), Instant.ofEpochMilli(in.getLong()));
+    }
+}
@@ -0,0 +1,30 @@
+package mike.sparkd.back_end_inventory_manager.reservation.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import mike.sparkd.back_end_inventory_manager.reservation.Model.Reservation;
+
+public interface ReservationRepository {
+    // Ids are handed out before save so the stock hold can be taken under the same id first
+    long nextId();
+
+    Reservation save(Reservation reservation);
+
+    Optional<Reservation> findById(long id);
+
+    List<Reservation> findAll();
+
+    // Takes the reservation out (confirm or release); empty when it is unknown or already expired
+    Optional<Reservation> remove(long id);
+
+    // remove() for many at once, with a single log flush
+    void removeAll(List<Reservation> reservations);
+
+    // Every reservation whose expiresAt is not after now, taken off the expiry schedule but still stored:
+    // the caller closes its stock hold and then removes it
+    List<Reservation> pollExpired(Instant now);
+
+    int getSize();
+}
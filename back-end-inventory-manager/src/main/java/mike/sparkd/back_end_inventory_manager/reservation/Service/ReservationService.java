@@ -0,0 +1,120 @@
+package mike.sparkd.back_end_inventory_manager.reservation.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import mike.sparkd.back_end_inventory_manager.common.exception.BadRequestException;
+import mike.sparkd.back_end_inventory_manager.common.exception.NotFoundException;
+import mike.sparkd.back_end_inventory_manager.product.Repository.ProductRepository;
+import mike.sparkd.back_end_inventory_manager.reservation.Model.Reservation;
+import mike.sparkd.back_end_inventory_manager.reservation.Repository.ReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+// Checkout holds. Reserving takes the units out of stock right away as a stock hold (takeHold), so the
+// "in"/"out" filters, the metrics and concurrent reservations all see them as gone; release and
+// expiry put them back, confirm keeps them out (the sale is done). Closing the hold decides the outcome
+// (whoever closes it first wins) and is written before the reservation's own END record; the hold
+// is opened before the reservation is saved. A crash between the two logs therefore leaves either a
+// hold without a reservation (reserve cut short: units go back) or a reservation without a hold
+// (already closed: it is dropped), and reconcile() settles both on start.
+@Service
+public class ReservationService {
+    private static final Logger log = LoggerFactory.getLogger(ReservationService.class);
+    private static final Duration MIN_TTL = Duration.ofSeconds(1);
+
+    private final ProductRepository productRepository;
+    private final ReservationRepository reservationRepository;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+
+    public ReservationService(ProductRepository productRepository,
+                              ReservationRepository reservationRepository,
+                              @Value("${inventory.reservations.default-ttl:PT10M}") Duration defaultTtl,
+                              @Value("${inventory.reservations.max-ttl:PT1H}") Duration maxTtl) {
+        this.productRepository = productRepository;
+        this.reservationRepository = reservationRepository;
+        this.defaultTtl = defaultTtl;
+        this.maxTtl = maxTtl;
+        reconcile();
+    }
+
+    private void reconcile() {
+        Set<Long> holds = productRepository.getHoldIds();
+        List<Reservation> closed = new ArrayList<>();
+        for (Reservation r : reservationRepository.findAll()) {
+            if (!holds.contains(r.getId())) closed.add(r);
+        }
+        reservationRepository.removeAll(closed);
+        int reopened = 0;
+        for (long holdId : holds) {
+            if (reservationRepository.findById(holdId).isEmpty() && productRepository.endHold(holdId, true)) reopened++;
+        }
+        if (!closed.isEmpty() || reopened > 0) {
+            log.info("Reconciled reservations with stock: {} already closed, {} holds without reservation returned",
+                    closed.size(), reopened);
+        }
+    }
+
+    // ttl null: default. 409 (from adjustStock) when there are not enough units left
+    public Reservation reserve(long productId, int quantity, Duration ttl) {
+        if (quantity <= 0) throw new BadRequestException("quantity must be > 0");
+        Duration t = ttl == null ? defaultTtl : ttl;
+        if (t.compareTo(MIN_TTL) < 0 || t.compareTo(maxTtl) > 0) {
+            throw new BadRequestException("ttl must be between " + MIN_TTL.toSeconds() + " and " + maxTtl.toSeconds() + " seconds");
+        }
+        long id = reservationRepository.nextId();
+        productRepository.takeHold(productId, id, quantity);
+        try {
+            return reservationRepository.save(new Reservation(id, productId, quantity, Instant.now().plus(t)));
+        } catch (RuntimeException e) {
+            productRepository.endHold(id, true);
+            throw e;
+        }
+    }
+
+    public Reservation getReservation(long id) {
+        return reservationRepository.findById(id).orElseThrow(() -> notFound(id));
+    }
+
+    public Reservation confirm(long id) {
+        return close(id, false);
+    }
+
+    public Reservation release(long id) {
+        return close(id, true);
+    }
+
+    private Reservation close(long id, boolean giveBack) {
+        Reservation r = reservationRepository.findById(id).orElseThrow(() -> notFound(id));
+        if (!productRepository.endHold(id, giveBack)) throw notFound(id);
+        reservationRepository.remove(id);
+        return r;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservations.sweep-interval:PT1S}")
+    public void releaseExpired() {
+        releaseExpired(Instant.now());
+    }
+
+    // Returns how many reservations expired
+    public int releaseExpired(Instant now) {
+        List<Reservation> expired = new ArrayList<>();
+        for (Reservation r : reservationRepository.pollExpired(now)) {
+            // false: confirmed or released just before the sweep got to it
+            if (productRepository.endHold(r.getId(), true)) expired.add(r);
+        }
+        reservationRepository.removeAll(expired);
+        return expired.size();
+    }
+
+    private static NotFoundException notFound(long id) {
+        return new NotFoundException("Reservation " + id + " not found or already expired");
+    }
+}
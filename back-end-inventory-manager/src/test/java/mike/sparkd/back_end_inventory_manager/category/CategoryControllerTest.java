@@ -64,6 +64,21 @@ class CategoryControllerTest {
     }
 
     // GET /api/v1/categories/{id} OK
+    @Test
+    void list_mismaVersion_debeRetornar304SinConsultarElServicio() throws Exception {
+        when(categoryService.getVersion()).thenReturn(3L);
+        when(categoryService.getAllCategoriesSortedByName()).thenReturn(List.of());
+
+        String etag = mockMvc.perform(get("/api/v1/categories"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/v1/categories").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        verify(categoryService, times(1)).getAllCategoriesSortedByName();
+    }
+
     @Test
     void getById_existente_debeRetornarCategoryReadDto() throws Exception {
         Category c = new Category("Cloud");
@@ -2,11 +2,18 @@ package mike.sparkd.back_end_inventory_manager.category;
 
 import mike.sparkd.back_end_inventory_manager.category.Model.Category;
 import mike.sparkd.back_end_inventory_manager.category.Repository.InMemoryCategoryRepository;
+import mike.sparkd.back_end_inventory_manager.common.events.ChangeEvent;
+import mike.sparkd.back_end_inventory_manager.common.events.ChangeFeed;
+import mike.sparkd.back_end_inventory_manager.common.events.ChangeType;
 import mike.sparkd.back_end_inventory_manager.common.exception.BadRequestException;
 import mike.sparkd.back_end_inventory_manager.common.exception.ConflictException;
+import mike.sparkd.back_end_inventory_manager.common.persistence.DurableStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -230,4 +237,67 @@ class InMemoryCategoryRepositoryTest {
         assertTrue(repository.existsByNameIgnoreCase("  CERTIFICACIÓN DEVOPS  "));
         assertFalse(repository.existsByNameIgnoreCase("devops x"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void conStore_debeRecuperarSnapshotYLogAlReiniciar() throws IOException {
+        Path dir = Files.createTempDirectory("categories");
+        InMemoryCategoryRepository first = new InMemoryCategoryRepository(DurableStore.open(dir, "categories"));
+        Category kept = first.save(new Category("Seguridad"));
+        assertTrue(first.checkpoint());
+
+        Category renamed = new Category("Seguridad Cloud");
+        renamed.setId(kept.getId());
+        first.update(renamed);
+        first.deleteById(1L);
+        first.close();
+
+        InMemoryCategoryRepository second = new InMemoryCategoryRepository(DurableStore.open(dir, "categories"));
+        try {
+            assertEquals(4, second.getAllCategories().size());
+            assertTrue(second.findById(1L).isEmpty());
+            assertTrue(second.existsByNameIgnoreCase("seguridad cloud"));
+            assertFalse(second.existsByNameIgnoreCase("seguridad"));
+            assertEquals(kept.getCreationDate(), second.findById(kept.getId()).orElseThrow().getCreationDate());
+            assertThrows(ConflictException.class, () -> second.save(new Category("SEGURIDAD CLOUD")));
+            assertEquals(kept.getId() + 1, second.save(new Category("Datos")).getId());
+        } finally {
+            second.close();
+        }
+    }
+
+    @Test
+    void getVersion_debeCrecerConCadaEscrituraYNoConLecturas() {
+        long v0 = repository.getVersion();
+        repository.getAllCategories();
+        repository.findById(1L);
+        assertEquals(v0, repository.getVersion());
+
+        Category c = repository.save(new Category("Versionada"));
+        long v1 = repository.getVersion();
+        assertTrue(v1 > v0);
+        c.setName("Versionada 2");
+        repository.update(c);
+        long v2 = repository.getVersion();
+        assertTrue(v2 > v1);
+        repository.deleteById(c.getId());
+        assertTrue(repository.getVersion() > v2);
+        assertThrows(ConflictException.class, () -> repository.save(new Category("Certificación Cloud")));
+    }
+
+    @Test
+    void escrituras_debenLlegarAlFeedDeCambios() {
+        ChangeFeed feed = new ChangeFeed(16);
+        repository.setChangeListener(feed);
+
+        Category c = repository.save(new Category("Con eventos"));
+        c.setName("Con eventos 2");
+        repository.update(c);
+        repository.deleteById(c.getId());
+        assertThrows(ConflictException.class, () -> repository.save(new Category("Certificación Cloud")));
+
+        List<ChangeEvent> events = feed.readAfter(0, 10);
+        assertEquals(List.of(ChangeType.CREATED, ChangeType.UPDATED, ChangeType.DELETED),
+                events.stream().map(ChangeEvent::getType).toList());
+        assertTrue(events.stream().allMatch(e -> e.getId() == c.getId() && e.getEntity().equals("category")));
+    }
+}
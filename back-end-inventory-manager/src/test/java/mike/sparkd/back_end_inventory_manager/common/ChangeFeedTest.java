@@ -0,0 +1,79 @@
+package mike.sparkd.back_end_inventory_manager.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import mike.sparkd.back_end_inventory_manager.common.events.ChangeEvent;
+import mike.sparkd.back_end_inventory_manager.common.events.ChangeFeed;
+import mike.sparkd.back_end_inventory_manager.common.events.ChangeType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ChangeFeedTest {
+
+    @Test
+    void readAfter_returnsEventsInSequenceOrderFromAnyOffset() {
+        ChangeFeed feed = new ChangeFeed(8);
+        for (long id = 1; id <= 5; id++) feed.changed("product", ChangeType.CREATED, id, null);
+
+        List<ChangeEvent> all = feed.readAfter(0, 100);
+        Assertions.assertEquals(List.of(1L, 2L, 3L, 4L, 5L), all.stream().map(ChangeEvent::getSeq).toList());
+        Assertions.assertEquals(List.of(4L, 5L), feed.readAfter(3, 100).stream().map(ChangeEvent::getSeq).toList());
+        Assertions.assertEquals(2, feed.readAfter(0, 2).size());
+        Assertions.assertTrue(feed.readAfter(5, 100).isEmpty());
+    }
+
+    @Test
+    void readAfter_returnsNullOnceTheReaderWasOvertaken() {
+        ChangeFeed feed = new ChangeFeed(4);
+        for (long id = 1; id <= 10; id++) feed.changed("product", ChangeType.UPDATED, id, null);
+
+        Assertions.assertNull(feed.readAfter(2, 100));
+        Assertions.assertEquals(List.of(7L, 8L, 9L, 10L), feed.readAfter(6, 100).stream().map(ChangeEvent::getSeq).toList());
+    }
+
+    @Test
+    void parsePosition_acceptsOnlyPositionsOfThisRun() {
+        ChangeFeed feed = new ChangeFeed(4);
+        feed.changed("category", ChangeType.DELETED, 1L, null);
+        feed.changed("category", ChangeType.DELETED, 2L, null);
+
+        Assertions.assertEquals(1L, feed.parsePosition(feed.position(1)));
+        Assertions.assertEquals(-1L, feed.parsePosition(feed.position(3)));
+        Assertions.assertEquals(-1L, feed.parsePosition(new ChangeFeed(4).position(1)));
+        Assertions.assertEquals(-1L, feed.parsePosition("garbage"));
+    }
+
+    @Test
+    void changed_concurrentWritersGetDistinctSequencesAndAWaitingReaderWakesUp() throws Exception {
+        ChangeFeed feed = new ChangeFeed(10_000);
+        ExecutorService pool = Executors.newFixedThreadPool(5);
+        try {
+            Future<List<ChangeEvent>> reader = pool.submit(() -> {
+                List<ChangeEvent> seen = new ArrayList<>();
+                while (seen.size() < 4000) {
+                    long after = seen.isEmpty() ? 0 : seen.get(seen.size() - 1).getSeq();
+                    List<ChangeEvent> batch = feed.readAfter(after, 256);
+                    if (batch.isEmpty()) feed.awaitAfter(after, 1000);
+                    else seen.addAll(batch);
+                }
+                return seen;
+            });
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < 1000; i++) feed.changed("product", ChangeType.UPDATED, i, null);
+                }));
+            }
+            for (Future<?> w : writers) w.get();
+
+            List<ChangeEvent> seen = reader.get();
+            for (int i = 0; i < seen.size(); i++) Assertions.assertEquals(i + 1L, seen.get(i).getSeq());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package mike.sparkd.back_end_inventory_manager.common;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import mike.sparkd.back_end_inventory_manager.common.persistence.DurableStore;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DurableStoreTest {
+
+    @Test
+    void recover_loadsSnapshotThenOnlyNewerLogs() throws IOException {
+        Path dir = Files.createTempDirectory("store");
+        List<Integer> state = new ArrayList<>();
+        DurableStore store = DurableStore.open(dir, "items");
+        Assertions.assertFalse(store.recover(in -> Assertions.fail("no snapshot yet"), r -> Assertions.fail("no log yet")));
+
+        store.await(store.append(new byte[]{1}));
+        store.await(store.append(new byte[]{2}));
+        Assertions.assertTrue(store.checkpoint(new ReentrantLock(), out -> {
+            out.writeInt(2);
+            out.writeInt(1);
+            out.writeInt(2);
+        }));
+        store.await(store.append(new byte[]{3}));
+        store.close();
+
+        // solo queda el log posterior al snapshot
+        try (Stream<Path> files = Files.list(dir)) {
+            Assertions.assertEquals(List.of("items-1.wal", "items.snapshot"),
+                    files.map(f -> f.getFileName().toString()).sorted().toList());
+        }
+
+        DurableStore reopened = DurableStore.open(dir, "items");
+        Assertions.assertTrue(reopened.recover(in -> {
+            int n = in.getInt();
+            for (int i = 0; i < n; i++) state.add(in.getInt());
+        }, r -> state.add((int) r.get())));
+        reopened.close();
+        Assertions.assertEquals(List.of(1, 2, 3), state);
+    }
+
+    @Test
+    void recover_rejectsCorruptSnapshot() throws IOException {
+        Path dir = Files.createTempDirectory("store");
+        DurableStore store = DurableStore.open(dir, "items");
+        store.recover(in -> { }, r -> { });
+        store.await(store.append(new byte[]{1}));
+        store.checkpoint(new ReentrantLock(), out -> out.writeLong(42L));
+        store.close();
+
+        Path snapshot = dir.resolve("items.snapshot");
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(snapshot, bytes);
+
+        DurableStore reopened = DurableStore.open(dir, "items");
+        Assertions.assertThrows(IllegalStateException.class, () -> reopened.recover(in -> { }, r -> { }));
+    }
+}
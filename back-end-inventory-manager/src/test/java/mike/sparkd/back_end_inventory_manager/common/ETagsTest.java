@@ -0,0 +1,23 @@
+package mike.sparkd.back_end_inventory_manager.common;
+
+import mike.sparkd.back_end_inventory_manager.common.api.ETags;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ETagsTest {
+
+    @Test
+    void of_consultasConElMismoHashCodeTienenTagsDistintos() {
+        // "Aa".hashCode() == "BB".hashCode()
+        assertEquals("/products?name=Aa".hashCode(), "/products?name=BB".hashCode());
+        assertNotEquals(ETags.of("/products?name=Aa", 3), ETags.of("/products?name=BB", 3));
+    }
+
+    @Test
+    void of_mismaConsultaYVersionDaElMismoTag() {
+        assertEquals(ETags.of("/products?page=1", 7), ETags.of("/products?page=1", 7));
+        assertNotEquals(ETags.of("/products?page=1", 7), ETags.of("/products?page=1", 8));
+        assertTrue(ETags.of("/products?page=1", 7).matches("\"[0-9a-f]+-7-[0-9a-f]{32}\""));
+    }
+}
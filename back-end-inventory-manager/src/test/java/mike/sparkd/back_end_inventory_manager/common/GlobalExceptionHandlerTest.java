@@ -17,6 +17,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 
 import java.util.List;
@@ -191,4 +192,17 @@ class GlobalExceptionHandlerTest {
         assertEquals("Unexpected error", body.getMessage());
         assertEquals("/api/v1/test", body.getPath());
     }
+
+    @Test
+    void handleMediaTypeNotSupported_debeRetornar415() {
+        HttpMediaTypeNotSupportedException ex = new HttpMediaTypeNotSupportedException("Content-Type 'application/json' is not supported");
+
+        ResponseEntity<ApiError> response = handler.handleMediaTypeNotSupported(ex, request);
+
+        assertEquals(HttpStatus.UNSUPPORTED_MEDIA_TYPE, response.getStatusCode());
+        ApiError body = response.getBody();
+        assertNotNull(body);
+        assertEquals(415, body.getStatus());
+        assertEquals("/api/v1/test", body.getPath());
+    }
 }
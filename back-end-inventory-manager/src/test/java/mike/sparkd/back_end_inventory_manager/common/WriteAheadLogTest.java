@@ -0,0 +1,131 @@
+package mike.sparkd.back_end_inventory_manager.common;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import mike.sparkd.back_end_inventory_manager.common.persistence.WriteAheadLog;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class WriteAheadLogTest {
+
+    @Test
+    void replay_returnsRecordsInAppendOrder() throws IOException {
+        Path file = Files.createTempDirectory("wal").resolve("test.wal");
+        try (WriteAheadLog wal = WriteAheadLog.open(file)) {
+            Assertions.assertEquals(0L, wal.replay(r -> Assertions.fail("empty log")));
+            long last = 0;
+            for (int i = 0; i < 10; i++) last = wal.append(new byte[]{(byte) i});
+            wal.await(last);
+        }
+
+        List<Integer> seen = new ArrayList<>();
+        try (WriteAheadLog wal = WriteAheadLog.open(file)) {
+            Assertions.assertEquals(10L, wal.replay(r -> seen.add((int) r.get())));
+        }
+        Assertions.assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), seen);
+    }
+
+    @Test
+    void replay_dropsTornTailAndKeepsAppending() throws IOException {
+        Path file = Files.createTempDirectory("wal").resolve("test.wal");
+        try (WriteAheadLog wal = WriteAheadLog.open(file)) {
+            wal.replay(r -> { });
+            wal.await(wal.append(new byte[]{1, 2, 3}));
+        }
+        long good = Files.size(file);
+        // simula un crash a mitad de escritura
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            ch.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 9, 1, 2}));
+        }
+
+        try (WriteAheadLog wal = WriteAheadLog.open(file)) {
+            Assertions.assertEquals(1L, wal.replay(r -> { }));
+            Assertions.assertEquals(good, Files.size(file));
+            wal.await(wal.append(new byte[]{4}));
+        }
+        try (WriteAheadLog wal = WriteAheadLog.open(file)) {
+            Assertions.assertEquals(2L, wal.replay(r -> { }));
+        }
+    }
+
+    @Test
+    void append_concurrentWritersAreAllDurable() throws Exception {
+        Path file = Files.createTempDirectory("wal").resolve("test.wal");
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try (WriteAheadLog wal = WriteAheadLog.open(file)) {
+            wal.replay(r -> { });
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int writer = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        wal.await(wal.append(ByteBuffer.allocate(8).putInt(writer).putInt(i).array()));
+                    }
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        Set<Long> records = new HashSet<>();
+        try (WriteAheadLog wal = WriteAheadLog.open(file)) {
+            wal.replay(r -> records.add(r.getLong()));
+        }
+        Assertions.assertEquals(1600, records.size());
+    }
+
+    @Test
+    void append_ticketsFollowLogOrderWithoutWaiting() throws Exception {
+        Path file = Files.createTempDirectory("wal").resolve("test.wal");
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        Map<Long, Long> byTicket = new ConcurrentHashMap<>();
+        try (WriteAheadLog wal = WriteAheadLog.open(file)) {
+            wal.replay(r -> { });
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int writer = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        long record = ((long) writer << 32) | i;
+                        byTicket.put(wal.append(ByteBuffer.allocate(8).putLong(record).array()), record);
+                    }
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        List<Long> records = new ArrayList<>();
+        try (WriteAheadLog wal = WriteAheadLog.open(file)) {
+            wal.replay(r -> records.add(r.getLong()));
+        }
+        Assertions.assertEquals(4000, records.size());
+        for (int k = 0; k < records.size(); k++) {
+            Assertions.assertEquals(byTicket.get(k + 1L), records.get(k));
+        }
+    }
+
+    @Test
+    void append_beforeReplayIsRejected() throws IOException {
+        Path file = Files.createTempDirectory("wal").resolve("test.wal");
+        try (WriteAheadLog wal = WriteAheadLog.open(file)) {
+            Assertions.assertThrows(IllegalStateException.class, () -> wal.append(new byte[]{1}));
+        }
+    }
+}
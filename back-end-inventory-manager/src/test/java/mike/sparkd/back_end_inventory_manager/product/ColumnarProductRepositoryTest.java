@@ -0,0 +1,12 @@
+package mike.sparkd.back_end_inventory_manager.product;
+
+import mike.sparkd.back_end_inventory_manager.product.Repository.ColumnarProductRepository;
+
+// Paridad con el InMemory: las pruebas están en ProductRepositoryParityTest
+public class ColumnarProductRepositoryTest extends ProductRepositoryParityTest<ColumnarProductRepository> {
+
+    @Override
+    protected ColumnarProductRepository newRepository() {
+        return new ColumnarProductRepository();
+    }
+}
@@ -78,6 +78,23 @@ public class DefaultProductSortStrategyTest {
         Assertions.assertNull(list.get(3).getName());
     }
 
+    @Test
+    void byName_usesNormalizedKeyUpdatedBySetters() {
+        Product p1 = p(1L, "  zeta", "Cat", 10f, null, 1);
+        Product p2 = p(2L, "Alpha ", "Cat", 10f, null, 1);
+
+        List<Product> list = new ArrayList<>(List.of(p1, p2));
+        Comparator<Product> cmp = DefaultProductSortStrategy.BY_NAME.buildComparator("asc");
+        list.sort(cmp);
+        Assertions.assertEquals(2L, list.get(0).getId());
+        Assertions.assertEquals("alpha", list.get(0).getNameKey());
+
+        p2.setName("Zz");
+        list.sort(cmp);
+        Assertions.assertEquals(1L, list.get(0).getId());
+        Assertions.assertEquals("zz", p2.getNameKey());
+    }
+
     // ---------- BY_CATEGORY ----------
 
     @Test
@@ -0,0 +1,52 @@
+package mike.sparkd.back_end_inventory_manager.product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.Repository.InMemoryProductRepository;
+import mike.sparkd.back_end_inventory_manager.product.Service.ExpirySweeper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ExpirySweeperTest {
+
+    @Test
+    void sweep_archivesExpiredProductsInBatchesAndLeavesTheRest() throws IOException {
+        Path dir = Files.createTempDirectory("expiry");
+        InMemoryProductRepository repository = new InMemoryProductRepository();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ExpirySweeper sweeper = new ExpirySweeper(repository, new ObjectMapper().registerModule(new JavaTimeModule()),
+                registry, dir.toString(), 4);
+        LocalDate today = LocalDate.now();
+        int sizeBefore = repository.getSize();
+        for (int i = 1; i <= 10; i++) repository.save(new Product("Vencido " + i, "Cloud", 2.0F, today.minusDays(i), 3));
+
+        Assertions.assertEquals(10L, sweeper.sweep(today));
+        Assertions.assertEquals(0L, sweeper.sweep(today));
+
+        Assertions.assertEquals(sizeBefore, repository.getSize());
+        Assertions.assertTrue(repository.isInventorySummaryConsistent());
+        List<String> lines = Files.readAllLines(dir.resolve("expired-products.ndjson"));
+        Assertions.assertEquals(10, lines.size());
+        Assertions.assertTrue(lines.get(0).contains("\"name\":\"Vencido 10\""));
+        Assertions.assertEquals(10.0, registry.get("inventory.expiry.archived").counter().count());
+    }
+
+    @Test
+    void sweep_withoutPersistenceOnlyDropsThem() {
+        InMemoryProductRepository repository = new InMemoryProductRepository();
+        ExpirySweeper sweeper = new ExpirySweeper(repository, new ObjectMapper().registerModule(new JavaTimeModule()),
+                new SimpleMeterRegistry(), "", 1000);
+        Product expired = repository.save(new Product("Vencido", "Cloud", 2.0F, LocalDate.now().minusDays(1), 3));
+
+        Assertions.assertEquals(1L, sweeper.sweep(LocalDate.now()));
+        Assertions.assertTrue(repository.getProductById(expired.getId()).isEmpty());
+    }
+}
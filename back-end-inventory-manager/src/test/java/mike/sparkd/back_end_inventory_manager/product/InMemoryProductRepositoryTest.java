@@ -1,16 +1,38 @@
 package mike.sparkd.back_end_inventory_manager.product;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Random;
-
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mike.sparkd.back_end_inventory_manager.common.events.ChangeEvent;
+import mike.sparkd.back_end_inventory_manager.common.events.ChangeFeed;
+import mike.sparkd.back_end_inventory_manager.common.events.ChangeType;
 import mike.sparkd.back_end_inventory_manager.common.exception.BadRequestException;
+import mike.sparkd.back_end_inventory_manager.common.exception.ConflictException;
 import mike.sparkd.back_end_inventory_manager.common.exception.NotFoundException;
+import mike.sparkd.back_end_inventory_manager.common.persistence.DurableStore;
+import mike.sparkd.back_end_inventory_manager.product.Model.CategoryExpirySummary;
 import mike.sparkd.back_end_inventory_manager.product.Model.CategoryInventorySummary;
+import mike.sparkd.back_end_inventory_manager.product.Model.ExpiryHorizon;
 import mike.sparkd.back_end_inventory_manager.product.Model.PageResponse;
 import mike.sparkd.back_end_inventory_manager.product.Model.Product;
 import mike.sparkd.back_end_inventory_manager.product.Repository.InMemoryProductRepository;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.DefaultProductSortStrategy;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.MultiFieldProductSortStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -100,6 +122,292 @@ public class InMemoryProductRepositoryTest {
         Assertions.assertEquals(sizeBefore, repository.getSize());
     }
 
+    // ---------- adjustStock ----------
+
+    @Test
+    void adjustStock_concurrentDecrementsNeverLoseUpdatesOrGoNegative() throws Exception {
+        Product hot = repository.save(new Product("Flash sale", "Cloud", 10.0F, null, 1000));
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 150; i++) {
+                        try {
+                            repository.adjustStock(hot.getId(), -1);
+                        } catch (ConflictException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        Assertions.assertEquals(0, repository.getProductById(hot.getId()).orElseThrow().getStock());
+        Assertions.assertEquals(200, rejected.get());
+        Assertions.assertTrue(repository.isInventorySummaryConsistent());
+    }
+
+    @Test
+    void adjustStock_keepsOtherFieldsAndRejectsUnknownId() {
+        Product original = repository.getProductById(1L).orElseThrow();
+
+        Product adjusted = repository.adjustStock(1L, 5);
+        Assertions.assertEquals(original.getStock() + 5, adjusted.getStock());
+        Assertions.assertEquals(original.getName(), adjusted.getName());
+        Assertions.assertEquals(original.getCreationDate(), adjusted.getCreationDate());
+        Assertions.assertThrows(ConflictException.class, () -> repository.adjustStock(1L, -(adjusted.getStock() + 1)));
+        Assertions.assertEquals(adjusted.getStock(), repository.getProductById(1L).orElseThrow().getStock());
+        Assertions.assertThrows(NotFoundException.class, () -> repository.adjustStock(999L, 1));
+    }
+
+    @Test
+    void getVersion_movesOnEveryWriteButNotOnReads() {
+        long v0 = repository.getVersion();
+        repository.getByParamsSearch(null, null, "all", 1, 10, "id", "asc");
+        repository.getInventorySummaryByCategory();
+        Assertions.assertEquals(v0, repository.getVersion());
+
+        Product p = repository.save(new Product("Version", "Cloud", 1.0F, null, 1));
+        long v1 = repository.getVersion();
+        Assertions.assertTrue(v1 > v0);
+        repository.adjustStock(p.getId(), 2);
+        long v2 = repository.getVersion();
+        Assertions.assertTrue(v2 > v1);
+        repository.deleteById(p.getId());
+        Assertions.assertTrue(repository.getVersion() > v2);
+    }
+
+    // ---------- change feed ----------
+
+    @Test
+    void writes_areReportedToTheChangeFeedInOrder() {
+        ChangeFeed feed = new ChangeFeed(64);
+        repository.setChangeListener(feed);
+
+        Product p = repository.save(new Product("Feed", "Cloud", 1.0F, null, 3));
+        repository.adjustStock(p.getId(), -1);
+        Product q = repository.save(new Product("Feed 2", "Cloud", 1.0F, null, 3));
+        repository.deleteAllById(List.of(q.getId(), 999_999L), true); // rechazado: nada que reportar
+        repository.deleteById(p.getId());
+
+        List<ChangeEvent> events = feed.readAfter(0, 100);
+        Assertions.assertEquals(List.of(ChangeType.CREATED, ChangeType.UPDATED, ChangeType.CREATED, ChangeType.DELETED),
+                events.stream().map(ChangeEvent::getType).toList());
+        Assertions.assertEquals(List.of(p.getId(), p.getId(), q.getId(), p.getId()),
+                events.stream().map(ChangeEvent::getId).toList());
+        Assertions.assertEquals(2, ((Product) events.get(1).getData()).getStock());
+        Assertions.assertNull(events.get(3).getData());
+        Assertions.assertEquals("product", events.get(0).getEntity());
+    }
+
+    // ---------- search cache ----------
+
+    @Test
+    void getByParamsSearch_repeatedSearchIsServedFromCacheUntilItsCategoryChanges() {
+        for (int i = 0; i < 2000; i++) {
+            repository.save(new Product("Cache " + i, "Cat " + (i % 100), (i * 37) % 500, null, i % 7));
+        }
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        repository.bindTo(registry);
+
+        PageResponse<Product> first = repository.getByParamsSearch(null, "Cat 7", "in", 1, 5, "unitPrice", "desc");
+        PageResponse<Product> second = repository.getByParamsSearch(null, "Cat 7", "in", 1, 5, "unitPrice", "desc");
+        PageResponse<Product> third = repository.getByParamsSearch(null, "Cat 7", "in", 2, 5, "unitPrice", "desc");
+        // la primera vez solo se anota la consulta, la segunda ordena y guarda, la tercera ya es un hit
+        Assertions.assertEquals(ids(first.getContent()), ids(second.getContent()));
+        Assertions.assertEquals(1.0, hits(registry));
+        Assertions.assertEquals(expectedPage("Cat 7", 2, 5), ids(third.getContent()));
+        Assertions.assertEquals(first.getTotalElements(), third.getTotalElements());
+        Assertions.assertEquals(first.getNextCursor(), second.getNextCursor());
+
+        // otra categoria: la entrada sigue valida
+        Product other = repository.getAllProducts().stream().filter(p -> "Cat 8".equals(p.getCategory())).findFirst().orElseThrow();
+        repository.adjustStock(other.getId(), 1);
+        repository.getByParamsSearch(null, "Cat 7", "in", 1, 5, "unitPrice", "desc");
+        Assertions.assertEquals(2.0, hits(registry));
+
+        // misma categoria: se recalcula con el cambio
+        Product mine = repository.getAllProducts().stream()
+                .filter(p -> "Cat 7".equals(p.getCategory()) && p.getStock() > 0).findFirst().orElseThrow();
+        Product pricier = new Product(mine.getName(), mine.getCategory(), 10_000.0F, null, mine.getStock());
+        pricier.setId(mine.getId());
+        repository.update(pricier);
+        PageResponse<Product> after = repository.getByParamsSearch(null, "Cat 7", "in", 1, 5, "unitPrice", "desc");
+        Assertions.assertEquals(2.0, hits(registry));
+        Assertions.assertEquals(mine.getId(), after.getContent().get(0).getId());
+        Assertions.assertEquals(expectedPage("Cat 7", 1, 5), ids(after.getContent()));
+        repository.getByParamsSearch(null, "Cat 7", "in", 1, 5, "unitPrice", "desc");
+        Assertions.assertEquals(3.0, hits(registry));
+
+        repository.deleteById(mine.getId());
+        Assertions.assertEquals(expectedPage("Cat 7", 1, 5),
+                ids(repository.getByParamsSearch(null, "Cat 7", "in", 1, 5, "unitPrice", "desc").getContent()));
+        Assertions.assertTrue(registry.get("inventory.search.cache.hit.ratio").gauge().value() > 0);
+    }
+
+    private List<Long> expectedPage(String category, int page, int size) {
+        return repository.getAllProducts().stream()
+                .filter(p -> category.equals(p.getCategory()) && p.getStock() > 0)
+                .sorted(DefaultProductSortStrategy.BY_UNIT_PRICE.buildComparator("desc"))
+                .skip((long) (page - 1) * size).limit(size)
+                .map(Product::getId).toList();
+    }
+
+    private static List<Long> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+
+    private static double hits(SimpleMeterRegistry registry) {
+        return registry.get("inventory.search.cache.requests").tag("result", "hit").functionCounter().count();
+    }
+
+    // ---------- expiry index ----------
+
+    @Test
+    void getExpiringBetween_usesExpiryOrderAndMatchesFullPass() {
+        LocalDate today = LocalDate.now();
+        Product past = repository.save(new Product("Vencido", "Cloud", 10.0F, today.minusDays(3), 2));
+        repository.save(new Product("Hoy", "Cloud", 10.0F, today, 1));
+        Product moved = repository.save(new Product("Movido", "DevOps", 5.0F, today.plusDays(2), 4));
+        moved = repository.adjustStock(moved.getId(), 1);
+        Product later = new Product("Movido", "DevOps", 5.0F, today.plusDays(40), 5);
+        later.setId(moved.getId());
+        repository.update(later);
+
+        List<Product> expected = repository.getAllProducts().stream()
+                .filter(p -> p.getExpirationDate() != null && !p.getExpirationDate().isBefore(today)
+                        && !p.getExpirationDate().isAfter(today.plusDays(14)))
+                .sorted(Comparator.comparing(Product::getExpirationDate).thenComparing(Product::getId))
+                .toList();
+        List<Product> actual = repository.getExpiringBetween(today, today.plusDays(14), 1000);
+        Assertions.assertEquals(expected.stream().map(Product::getId).toList(), actual.stream().map(Product::getId).toList());
+        Assertions.assertEquals("Hoy", actual.get(0).getName());
+        Assertions.assertEquals(3, repository.getExpiringBetween(today, today.plusDays(14), 3).size());
+        Assertions.assertEquals(past.getId(), repository.getExpiringBetween(null, today, 1).get(0).getId());
+
+        List<CategoryInventorySummary> summary = repository.getExpiringSummaryByCategory(today, today.plusDays(14));
+        List<CategoryInventorySummary> recomputed = expectedSummary(expected);
+        Assertions.assertEquals(recomputed.size(), summary.size());
+        for (int i = 0; i < summary.size(); i++) {
+            Assertions.assertEquals(recomputed.get(i).getCategory(), summary.get(i).getCategory());
+            Assertions.assertEquals(recomputed.get(i).getTotalUnitsInStock(), summary.get(i).getTotalUnitsInStock());
+            Assertions.assertEquals(recomputed.get(i).getTotalStockValue(), summary.get(i).getTotalStockValue(), 0.01);
+        }
+    }
+
+    @Test
+    void getExpiringBetween_noPierdeProductosCuandoUnDiaSeVaciaYSeLlenaALaVez() throws Exception {
+        // el día queda vacío una y otra vez mientras otros hilos agregan productos con la misma fecha
+        LocalDate day = LocalDate.now().plusDays(500);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 300; i++) {
+                        Product p = repository.save(new Product("Efimero", "Borde", 1.0F, day, 1));
+                        repository.deleteById(p.getId());
+                    }
+                    repository.save(new Product("Queda", "Borde", 1.0F, day, 1));
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        Assertions.assertEquals(8, repository.getExpiringBetween(day, day, 100).size());
+        Assertions.assertEquals(8, repository.getExpiringSummaryByCategory(day, day).get(0).getTotalUnitsInStock());
+        Assertions.assertTrue(repository.getExpiringBetween(day.plusDays(1), day.plusDays(1), 100).isEmpty());
+        Assertions.assertTrue(repository.isInventorySummaryConsistent());
+    }
+
+    @Test
+    void removeExpired_takesOnlyExpiredProductsInBatches() {
+        LocalDate today = LocalDate.now();
+        int sizeBefore = repository.getSize();
+        for (int i = 1; i <= 5; i++) repository.save(new Product("Vencido " + i, "Cloud", 1.0F, today.minusDays(i), 1));
+        repository.save(new Product("Vence hoy", "Cloud", 1.0F, today, 1));
+
+        List<Product> first = repository.removeExpired(today, 3);
+        Assertions.assertEquals(List.of("Vencido 5", "Vencido 4", "Vencido 3"), first.stream().map(Product::getName).toList());
+        Assertions.assertEquals(2, repository.removeExpired(today, 3).size());
+        Assertions.assertTrue(repository.removeExpired(today, 3).isEmpty());
+
+        Assertions.assertEquals(sizeBefore + 1, repository.getSize());
+        Assertions.assertTrue(repository.getExpiringBetween(null, today.minusDays(1), 10).isEmpty());
+        Assertions.assertTrue(repository.isInventorySummaryConsistent());
+    }
+
+    @Test
+    void getExpirySummaryByCategory_followsWritesAndMatchesFullPass() {
+        LocalDate today = LocalDate.now();
+        repository.save(new Product("Hoy", "Cloud", 2.0F, today, 3));
+        repository.save(new Product("Seis dias", "Cloud", 1.0F, today.plusDays(6), 4));
+        Product moved = repository.save(new Product("Siete dias", "DevOps", 5.0F, today.plusDays(7), 2));
+        repository.save(new Product("Sin fecha", "DevOps", 1.0F, null, 8));
+        Product later = new Product("Siete dias", "DevOps", 5.0F, today.plusDays(15), 6);
+        later.setId(moved.getId());
+        repository.update(later);
+        Product gone = repository.save(new Product("Borrado", "Cloud", 9.0F, today.plusDays(1), 9));
+        repository.deleteById(gone.getId());
+
+        Map<String, Map<ExpiryHorizon, double[]>> expected = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Product p : repository.getAllProducts()) {
+            double[] t = expected.computeIfAbsent(p.getCategory(), k -> new EnumMap<>(ExpiryHorizon.class))
+                    .computeIfAbsent(ExpiryHorizon.of(p.getExpirationDate(), today), k -> new double[2]);
+            t[0] += p.getStock();
+            t[1] += (double) p.getUnitPrice() * p.getStock();
+        }
+        List<CategoryExpirySummary> actual = repository.getExpirySummaryByCategory(today);
+        Assertions.assertEquals(expected.keySet().stream().toList(), actual.stream().map(CategoryExpirySummary::getCategory).toList());
+        for (CategoryExpirySummary s : actual) {
+            Assertions.assertEquals(ExpiryHorizon.values().length, s.getHorizons().size());
+            s.getHorizons().forEach((h, totals) -> {
+                double[] t = expected.get(s.getCategory()).getOrDefault(h, new double[2]);
+                Assertions.assertEquals((int) t[0], totals.getUnits(), s.getCategory() + " " + h);
+                Assertions.assertEquals(t[1], totals.getValue(), 0.01);
+            });
+        }
+
+        CategoryExpirySummary cloud = actual.stream().filter(s -> s.getCategory().equalsIgnoreCase("Cloud")).findFirst().orElseThrow();
+        Assertions.assertTrue(cloud.getHorizons().get(ExpiryHorizon.EXPIRED).getUnits() >= 3);
+        CategoryExpirySummary devOps = actual.stream().filter(s -> s.getCategory().equalsIgnoreCase("DevOps")).findFirst().orElseThrow();
+        Assertions.assertTrue(devOps.getHorizons().get(ExpiryHorizon.MORE_THAN_2_WEEKS).getUnits() >= 6);
+        Assertions.assertTrue(devOps.getHorizons().get(ExpiryHorizon.NO_EXPIRATION).getUnits() >= 8);
+    }
+
+    @Test
+    void getExpirySummaryByCategory_elDia14CuentaComoMenosDeDosSemanasIgualQueLaTabla() {
+        LocalDate today = LocalDate.now();
+        repository.save(new Product("Catorce dias", "Borde", 1.0F, today.plusDays(14), 2));
+        repository.save(new Product("Quince dias", "Borde", 1.0F, today.plusDays(15), 5));
+
+        Assertions.assertEquals(ExpiryHorizon.LESS_THAN_2_WEEKS, ExpiryHorizon.ofDays(14));
+        Assertions.assertEquals(ExpiryHorizon.MORE_THAN_2_WEEKS, ExpiryHorizon.ofDays(15));
+        CategoryExpirySummary borde = repository.getExpirySummaryByCategory(today).stream()
+                .filter(s -> s.getCategory().equals("Borde")).findFirst().orElseThrow();
+        Assertions.assertEquals(2, borde.getHorizons().get(ExpiryHorizon.LESS_THAN_2_WEEKS).getUnits());
+        Assertions.assertEquals(5, borde.getHorizons().get(ExpiryHorizon.MORE_THAN_2_WEEKS).getUnits());
+    }
+
+    private static List<CategoryInventorySummary> expectedSummary(List<Product> products) {
+        Map<String, double[]> totals = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Product p : products) {
+            double[] t = totals.computeIfAbsent(p.getCategory(), k -> new double[2]);
+            t[0] += p.getStock();
+            t[1] += (double) p.getUnitPrice() * p.getStock();
+        }
+        List<CategoryInventorySummary> out = new ArrayList<>();
+        totals.forEach((category, t) -> out.add(new CategoryInventorySummary(category, (int) t[0], t[1], 0)));
+        return out;
+    }
+
     // ---------- deleteById ----------
 
     @Test
@@ -304,6 +612,167 @@ public class InMemoryProductRepositoryTest {
         }
     }
 
+    @Test
+    void getByParamsSearch_indexesStayConsistentAfterWrites() {
+        // updates y deletes deben reflejarse en los indices de categoria, stock y orden
+        Product moved = repository.getProductById(2L).orElseThrow();
+        Product toUpdate = new Product(moved.getName(), "Certificación DevOps", 1.0F, null, 0);
+        toUpdate.setId(2L);
+        repository.update(toUpdate);
+        repository.deleteById(3L);
+        repository.save(new Product("Zeta voucher", "certificación devops ", 999.0F, null, 3));
+
+        String[] sorts = {"id", "name", "category", "unitPrice", "stock", "expirationDate"};
+        String[] availabilities = {"all", "in", "out"};
+        for (String sortBy : sorts) {
+            for (String availability : availabilities) {
+                for (String direction : new String[]{"asc", "desc"}) {
+                    for (int page = 1; page <= 3; page++) {
+                        assertSameAsFullScan(null, "Certificación DevOps", availability, page, 3, sortBy, direction);
+                        assertSameAsFullScan("exam", null, availability, page, 4, sortBy, direction);
+                        assertSameAsFullScan(null, null, availability, page, 5, sortBy, direction);
+                    }
+                }
+            }
+        }
+    }
+
+    private void assertSameAsFullScan(String name, String category, String availability,
+                                      int page, int size, String sortBy, String direction) {
+        Comparator<Product> cmp = DefaultProductSortStrategy.fromSortBy(sortBy).buildComparator(direction);
+        List<Product> expected = repository.getAllProducts().stream()
+                .filter(p -> name == null || p.getName().toLowerCase().contains(name))
+                .filter(p -> category == null || category.trim().equalsIgnoreCase(p.getCategory().trim()))
+                .filter(p -> !"in".equals(availability) || p.getStock() > 0)
+                .filter(p -> !"out".equals(availability) || p.getStock() <= 0)
+                .sorted(cmp)
+                .toList();
+
+        PageResponse<Product> result = repository.getByParamsSearch(name, category, availability, page, size, sortBy, direction);
+
+        int from = Math.min((page - 1) * size, expected.size());
+        int to = Math.min(from + size, expected.size());
+        Assertions.assertEquals(expected.size(), result.getTotalElements());
+        Assertions.assertEquals(expected.subList(from, to), result.getContent());
+    }
+
+    @Test
+    void getByParamsSearch_nameSearchFollowsRenamesAndDeletes() {
+        Product renamed = new Product("Renamed Zyxwv voucher", "Certificación Cloud", 100.0F, null, 1);
+        renamed.setId(1L);
+        repository.update(renamed);
+
+        Assertions.assertEquals(0, repository.getByParamsSearch("CLF-C02", null, "all", 1, 10, "id", "asc").getTotalElements());
+        Assertions.assertEquals(1, repository.getByParamsSearch("zyxwv", null, "all", 1, 10, "id", "asc").getTotalElements());
+        // consultas de menos de 3 caracteres no usan el indice de trigramas
+        Assertions.assertEquals(1, repository.getByParamsSearch("zy", null, "all", 1, 10, "id", "asc").getTotalElements());
+
+        repository.deleteById(1L);
+        Assertions.assertEquals(0, repository.getByParamsSearch("zyxwv", null, "all", 1, 10, "id", "asc").getTotalElements());
+    }
+
+    @Test
+    void getByParamsSearch_nameSearchMatchesFullScanOnLargerCatalog() {
+        Random random = new Random(11);
+        String alphabet = "abcde ";
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int c = 0; c < 12; c++) name.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            repository.save(new Product(name.toString(), "Bulk", 1.0F, null, i % 3));
+        }
+        for (long id = 40; id < 1000; id += 3) {
+            repository.deleteById(id);
+        }
+
+        for (String q : new String[]{"abc", "ab", "e a", "dcba", "aaaa", "b"}) {
+            for (int page = 1; page <= 2; page++) {
+                assertSameAsFullScan(q, null, "all", page, 25, "name", "asc");
+                assertSameAsFullScan(q, "bulk", "in", page, 25, "id", "desc");
+            }
+        }
+    }
+
+    @Test
+    void getByParamsSearch_parallelSearchMatchesFullScan() {
+        repository.setParallelSearch(0, 4);
+        Random random = new Random(5);
+        List<Product> bulk = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            bulk.add(new Product("Voucher " + random.nextInt(5000), "Bulk " + random.nextInt(3), random.nextInt(50),
+                    random.nextInt(4) == 0 ? null : LocalDate.now().plusDays(random.nextInt(300)), random.nextInt(3)));
+        }
+        repository.saveAll(bulk);
+
+        for (String sortBy : new String[]{"id", "name", "unitPrice", "stock", "expirationDate"}) {
+            for (String direction : new String[]{"asc", "desc"}) {
+                // primera pagina (top-k) y paginas profundas (orden completo en paralelo)
+                for (int page : new int[]{1, 300, 1500}) {
+                    assertSameAsFullScan(null, "bulk 1", "all", page, 10, sortBy, direction);
+                    assertSameAsFullScan("voucher 1", null, "in", page, 5, sortBy, direction);
+                }
+            }
+        }
+
+        Comparator<Product> cmp = new MultiFieldProductSortStrategy("unitPrice", "name").buildComparator("desc");
+        List<Product> expected = repository.getAllProducts().stream().sorted(cmp).skip(1000 * 10).limit(10).toList();
+        Assertions.assertEquals(expected, repository.getFilteredAndPaginatedProducts("unitPrice", "name", 1001, "desc"));
+        repository.close();
+    }
+
+    // ---------- getByCursorSearch (keyset) ----------
+
+    @Test
+    void getByCursorSearch_walksEveryRowOnceInSortOrder() {
+        repository.save(new Product("Duplicate price", "Certificación Cloud", 150.0F, null, 2));
+
+        for (String sortBy : new String[]{"id", "name", "category", "unitPrice", "stock", "expirationDate"}) {
+            for (String direction : new String[]{"asc", "desc"}) {
+                Comparator<Product> cmp = DefaultProductSortStrategy.fromSortBy(sortBy).buildComparator(direction);
+                List<Product> expected = repository.getAllProducts().stream().sorted(cmp).toList();
+
+                PageResponse<Product> page = repository.getByParamsSearch(null, null, "all", 1, 4, sortBy, direction);
+                List<Product> walked = new ArrayList<>(page.getContent());
+                while (page.getNextCursor() != null) {
+                    page = repository.getByCursorSearch(null, null, "all", page.getNextCursor(), 4, sortBy, direction);
+                    walked.addAll(page.getContent());
+                }
+
+                Assertions.assertEquals(expected, walked, sortBy + " " + direction);
+            }
+        }
+    }
+
+    @Test
+    void getByCursorSearch_appliesFilters() {
+        PageResponse<Product> first = repository.getByParamsSearch(null, "Certificación Cloud", "in", 1, 2, "unitPrice", "asc");
+        List<Product> walked = new ArrayList<>(first.getContent());
+        String cursor = first.getNextCursor();
+        while (cursor != null) {
+            PageResponse<Product> next = repository.getByCursorSearch(null, "Certificación Cloud", "in", cursor, 2, "unitPrice", "asc");
+            walked.addAll(next.getContent());
+            cursor = next.getNextCursor();
+        }
+
+        Assertions.assertEquals(first.getTotalElements(), walked.size());
+        for (Product p : walked) {
+            Assertions.assertEquals("Certificación Cloud", p.getCategory());
+            Assertions.assertTrue(p.getStock() > 0);
+        }
+    }
+
+    @Test
+    void getByCursorSearch_invalidOrMismatchedCursor_throwsBadRequestException() {
+        String cursor = repository.getByParamsSearch(null, null, "all", 1, 5, "name", "asc").getNextCursor();
+        Assertions.assertNotNull(cursor);
+
+        Assertions.assertThrows(BadRequestException.class, () ->
+                repository.getByCursorSearch(null, null, "all", cursor, 5, "stock", "asc"));
+        Assertions.assertThrows(BadRequestException.class, () ->
+                repository.getByCursorSearch(null, null, "all", cursor, 5, "name", "desc"));
+        Assertions.assertThrows(BadRequestException.class, () ->
+                repository.getByCursorSearch(null, null, "all", "not-a-cursor", 5, "name", "asc"));
+    }
+
     // ---------- getInventorySummaryByCategory ----------
 
     @Test
@@ -332,4 +801,111 @@ public class InMemoryProductRepositoryTest {
         // se redondea a 2 decimales
         Assertions.assertEquals(12.5, noCategorySummary.getAverageUnitPriceInStock(), 0.001);
     }
+
+    @Test
+    void getInventorySummaryByCategory_incrementalMatchesFullRecomputeAfterWrites() {
+        Random random = new Random(3);
+        String[] categories = {"Certificación Cloud", "Certificación DevOps", "Nueva", ""};
+        for (int i = 0; i < 300; i++) {
+            int op = random.nextInt(3);
+            long id = 1 + random.nextInt(repository.getSize() + 10);
+            String category = categories[random.nextInt(categories.length)];
+            if (op == 0) {
+                repository.save(new Product("P" + i, category, random.nextInt(500) / 10.0F, null, random.nextInt(20)));
+            } else if (op == 1 && repository.getProductById(id).isPresent()) {
+                Product u = new Product("U" + i, category, random.nextInt(500) / 10.0F, null, random.nextInt(20));
+                u.setId(id);
+                repository.update(u);
+            } else {
+                repository.deleteById(id);
+            }
+        }
+
+        Assertions.assertTrue(repository.isInventorySummaryConsistent());
+
+        repository.setMetricsConsistencyCheck(true);
+        List<CategoryInventorySummary> checked = repository.getInventorySummaryByCategory();
+        repository.setMetricsConsistencyCheck(false);
+        List<CategoryInventorySummary> incremental = repository.getInventorySummaryByCategory();
+
+        Assertions.assertEquals(checked.size(), incremental.size());
+        for (int i = 0; i < checked.size(); i++) {
+            Assertions.assertEquals(checked.get(i).getCategory(), incremental.get(i).getCategory());
+            Assertions.assertEquals(checked.get(i).getTotalUnitsInStock(), incremental.get(i).getTotalUnitsInStock());
+        }
+    }
+
+    @Test
+    void getInventorySummaryByCategory_dropsCategoriesWithoutProducts() {
+        Product only = repository.save(new Product("Solo", "Temporal", 5.0F, null, 2));
+        Assertions.assertTrue(repository.getInventorySummaryByCategory().stream()
+                .anyMatch(s -> "Temporal".equals(s.getCategory())));
+
+        repository.deleteById(only.getId());
+        Assertions.assertTrue(repository.getInventorySummaryByCategory().stream()
+                .noneMatch(s -> "Temporal".equals(s.getCategory())));
+    }
+
+    // ---------- write-ahead log / snapshots ----------
+
+    @Test
+    void withLog_restartReplaysWritesInsteadOfSeeding() throws IOException {
+        Path dir = Files.createTempDirectory("products");
+        InMemoryProductRepository first = new InMemoryProductRepository(DurableStore.open(dir, "products"));
+        int seeded = first.getSize();
+        Product saved = first.save(new Product("Persistido", "Cat", 7.5F, LocalDate.now().plusDays(9), 3));
+        Product changed = new Product("Persistido v2", "Otra", 8.0F, null, 0);
+        changed.setId(saved.getId());
+        first.update(changed);
+        first.deleteById(1L);
+        first.close();
+
+        InMemoryProductRepository second = new InMemoryProductRepository(DurableStore.open(dir, "products"));
+        try {
+            Assertions.assertEquals(seeded, second.getSize());
+            Assertions.assertTrue(second.getProductById(1L).isEmpty());
+            Product reloaded = second.getProductById(saved.getId()).orElseThrow();
+            Assertions.assertEquals("Persistido v2", reloaded.getName());
+            Assertions.assertEquals("Otra", reloaded.getCategory());
+            Assertions.assertNull(reloaded.getExpirationDate());
+            Assertions.assertEquals(saved.getCreationDate(), reloaded.getCreationDate());
+            Assertions.assertTrue(second.isInventorySummaryConsistent());
+            repository = second;
+            assertSameAsFullScan(null, "otra", "out", 1, 10, "name", "asc");
+
+            // los ids no se reutilizan tras reiniciar
+            Assertions.assertEquals(saved.getId() + 1, second.save(new Product("Nuevo", "Cat", 1.0F, null, 1)).getId());
+        } finally {
+            second.close();
+        }
+    }
+
+    @Test
+    void checkpoint_restartLoadsSnapshotPlusLogTail() throws IOException {
+        Path dir = Files.createTempDirectory("products");
+        InMemoryProductRepository first = new InMemoryProductRepository(DurableStore.open(dir, "products"));
+        Product before = first.save(new Product("Antes", "Cat", 3.0F, null, 1));
+        first.deleteById(2L);
+
+        Assertions.assertTrue(first.checkpoint());
+        Assertions.assertEquals(0L, first.getLogBytes());
+        Assertions.assertFalse(first.checkpoint()); // nada nuevo que guardar
+
+        Product after = first.save(new Product("Despues", "Cat", 4.0F, null, 2));
+        first.deleteById(before.getId());
+        List<Product> expected = first.getAllProducts();
+        first.close();
+
+        InMemoryProductRepository second = new InMemoryProductRepository(DurableStore.open(dir, "products"));
+        try {
+            Assertions.assertEquals(expected.size(), second.getSize());
+            Assertions.assertTrue(second.getProductById(2L).isEmpty());
+            Assertions.assertTrue(second.getProductById(before.getId()).isEmpty());
+            Assertions.assertEquals("Despues", second.getProductById(after.getId()).orElseThrow().getName());
+            Assertions.assertTrue(second.isInventorySummaryConsistent());
+            Assertions.assertEquals(after.getId() + 1, second.save(new Product("Nuevo", "Cat", 1.0F, null, 1)).getId());
+        } finally {
+            second.close();
+        }
+    }
 }
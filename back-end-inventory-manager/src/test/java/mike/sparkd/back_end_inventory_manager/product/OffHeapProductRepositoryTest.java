@@ -0,0 +1,78 @@
+package mike.sparkd.back_end_inventory_manager.product;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.Repository.OffHeapProductRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+// Paridad con el InMemory (ProductRepositoryParityTest) más la compactación de los segmentos off-heap.
+// Segmentos chicos para que los datos de prueba ocupen varios
+public class OffHeapProductRepositoryTest extends ProductRepositoryParityTest<OffHeapProductRepository> {
+
+    @Override
+    protected OffHeapProductRepository newRepository() {
+        return new OffHeapProductRepository(64 * 1024);
+    }
+
+    @Test
+    void compact_mantieneBusquedasYMetricasDespuesDeEscriturasAleatorias() {
+        randomWrites(5);
+        repository.compact();
+        Assertions.assertEquals(0L, repository.getDeadBytes());
+        assertSameSearchAndMetrics();
+    }
+
+    @Test
+    void compact_reclaimsDeadRecordsAcrossSegments() {
+        long seeded = repository.getSize();
+        for (int i = 0; i < 3000; i++) {
+            repository.save(new Product("Bulk " + i, "Cat " + (i % 7), i % 100, null, i % 5));
+        }
+        long before = repository.getUsedBytes();
+        for (long id = seeded + 1; id <= seeded + 3000; id += 2) {
+            Assertions.assertTrue(repository.deleteById(id));
+        }
+        // un nombre más largo no cabe en su sitio y se reescribe al final
+        Product grown = new Product("Bulk renamed with a much longer name", "Cat 0", 1.0F, null, 9);
+        grown.setId(seeded + 2);
+        repository.update(grown);
+        Assertions.assertTrue(repository.getDeadBytes() > 0);
+
+        repository.compact();
+
+        Assertions.assertEquals(0L, repository.getDeadBytes());
+        Assertions.assertTrue(repository.getUsedBytes() < before);
+        Assertions.assertEquals(seeded + 1500, repository.getSize());
+        Assertions.assertTrue(repository.getProductById(seeded + 1).isEmpty());
+        Assertions.assertEquals("Bulk renamed with a much longer name",
+                repository.getProductById(seeded + 2).orElseThrow().getName());
+        Assertions.assertEquals("Bulk 2999", repository.getProductById(seeded + 3000).orElseThrow().getName());
+        Assertions.assertEquals(seeded + 1500, repository.getAllProducts().size());
+    }
+
+    @Test
+    void deleteById_compactaEnSegundoPlanoYLiberaLosSegmentos() throws InterruptedException {
+        long seeded = repository.getSize();
+        for (int i = 0; i < 40_000; i++) {
+            repository.save(new Product("Bulk " + i, "Cat " + (i % 7), i % 100, null, i % 5));
+        }
+        long allocated = repository.getAllocatedBytes();
+        // tres de cada cuatro muertos: pasa la mitad del store y el borrado solo encola la compactación
+        for (long id = seeded + 1; id <= seeded + 40_000; id++) {
+            if (id % 4 != 0) repository.deleteById(id);
+        }
+
+        // el compactor corre a la par de los borrados: se detiene en un cuarto y los borrados siguientes
+        // pueden volver a subir hasta la mitad sin encolarlo, así que sólo eso se puede exigir
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (repository.getDeadBytes() * 2 > repository.getUsedBytes() && System.nanoTime() < deadline) Thread.sleep(10);
+
+        Assertions.assertTrue(repository.getDeadBytes() * 2 <= repository.getUsedBytes());
+        Assertions.assertTrue(repository.getAllocatedBytes() < allocated * 3 / 4);
+        Assertions.assertEquals(seeded + 10_000, repository.getSize());
+        Assertions.assertEquals(seeded + 10_000, repository.getAllProducts().size());
+        long last = seeded + 40_000 - (seeded + 40_000) % 4;
+        Assertions.assertEquals("Bulk " + (last - seeded - 1), repository.getProductById(last).orElseThrow().getName());
+        repository.close();
+    }
+}
@@ -0,0 +1,63 @@
+package mike.sparkd.back_end_inventory_manager.product;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.DefaultProductSortStrategy;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.PrimitiveKeySort;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class PrimitiveKeySortTest {
+
+    private static final float[] PRICES = {-3.5f, -0.0f, 0.0f, 0.01f, 10f, 10f, 99.99f, Float.MAX_VALUE};
+
+    private List<Product> catalog() {
+        Random random = new Random(3);
+        List<Product> out = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Product p = new Product("P" + i, "Cat", PRICES[random.nextInt(PRICES.length)],
+                    random.nextInt(4) == 0 ? null : LocalDate.of(2030, 1, 1).plusDays(random.nextInt(40) - 20),
+                    random.nextInt(7) - 2);
+            // ids desordenados y salteados para que el desempate por id importe
+            p.setId((long) random.nextInt(1_000_000) * 1000 + i);
+            out.add(p);
+        }
+        return out;
+    }
+
+    @Test
+    void sortedIds_mismoOrdenQueElComparador() {
+        List<Product> catalog = catalog();
+        for (DefaultProductSortStrategy strategy : DefaultProductSortStrategy.values()) {
+            if (!PrimitiveKeySort.supports(strategy)) continue;
+            for (String direction : List.of("asc", "desc")) {
+                long[] expected = catalog.stream()
+                        .filter(p -> p.getStock() > 0)
+                        .sorted(strategy.buildComparator(direction))
+                        .mapToLong(Product::getId)
+                        .toArray();
+
+                long[] ids = PrimitiveKeySort.sortedIds(catalog, p -> p.getStock() > 0, strategy, direction, 10);
+
+                Assertions.assertArrayEquals(expected, ids, strategy + " " + direction);
+            }
+        }
+    }
+
+    @Test
+    void sortedIds_soloCamposNumericosYNullSiNoEntraEnLaClave() {
+        Assertions.assertFalse(PrimitiveKeySort.supports(DefaultProductSortStrategy.BY_NAME));
+        Assertions.assertFalse(PrimitiveKeySort.supports(DefaultProductSortStrategy.BY_CATEGORY));
+
+        Product big = new Product("Big id", "Cat", 1f, null, 1);
+        big.setId(1L << 40);
+        Assertions.assertNull(PrimitiveKeySort.sortedIds(List.of(big), p -> true, DefaultProductSortStrategy.BY_STOCK, "asc", 1));
+        // por id no hace falta empaquetar
+        Assertions.assertArrayEquals(new long[]{1L << 40},
+                PrimitiveKeySort.sortedIds(List.of(big), p -> true, DefaultProductSortStrategy.BY_ID, "asc", 1));
+    }
+}
@@ -0,0 +1,172 @@
+package mike.sparkd.back_end_inventory_manager.product;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import mike.sparkd.back_end_inventory_manager.common.exception.GlobalExceptionHandler;
+import mike.sparkd.back_end_inventory_manager.product.Controller.ProductBulkController;
+import mike.sparkd.back_end_inventory_manager.product.Model.BulkItemError;
+import mike.sparkd.back_end_inventory_manager.product.Model.BulkOperationResult;
+import mike.sparkd.back_end_inventory_manager.product.Service.BulkFormat;
+import mike.sparkd.back_end_inventory_manager.product.Service.ProductBulkService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+@WebMvcTest(ProductBulkController.class)
+@Import(GlobalExceptionHandler.class)
+public class ProductBulkControllerTest {
+
+    private static final String END_POINT_PATH = "/api/v1/products";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProductBulkService productBulkService;
+
+    // ===================== POST /bulk =====================
+
+    @Test
+    void importProducts_returns200_withCsvBody() throws Exception {
+        BulkOperationResult result = new BulkOperationResult(1, 1,
+                List.of(new BulkItemError(3, null, "name: must not be blank")), false);
+        Mockito.when(productBulkService.importProducts(ArgumentMatchers.any(InputStream.class), ArgumentMatchers.eq(BulkFormat.CSV)))
+                .thenReturn(result);
+
+        mockMvc.perform(post(END_POINT_PATH + "/bulk")
+                        .contentType("text/csv")
+                        .content("name,category,unitPrice,stock\nA,Cloud,1,1\n,Cloud,1,1\n"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.succeeded").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.failed").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.errors[0].index").value(3));
+    }
+
+    @Test
+    void importProducts_routesNdjsonBody() throws Exception {
+        Mockito.when(productBulkService.importProducts(ArgumentMatchers.any(InputStream.class), ArgumentMatchers.eq(BulkFormat.NDJSON)))
+                .thenReturn(new BulkOperationResult(1, 0, List.of(), false));
+
+        mockMvc.perform(post(END_POINT_PATH + "/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":\"A\",\"category\":\"Cloud\",\"unitPrice\":1,\"stock\":1}\n"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.succeeded").value(1));
+    }
+
+    @Test
+    void importProducts_returns415_forJsonArrayBody() throws Exception {
+        mockMvc.perform(post(END_POINT_PATH + "/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(MockMvcResultMatchers.status().isUnsupportedMediaType());
+
+        verifyNoInteractions(productBulkService);
+    }
+
+    // ===================== GET /export =====================
+
+    @Test
+    void exportProducts_streamsCsvWithFilters() throws Exception {
+        Mockito.when(productBulkService.exportProducts(ArgumentMatchers.eq("aws"), ArgumentMatchers.isNull(),
+                        ArgumentMatchers.eq("in"), ArgumentMatchers.eq(BulkFormat.CSV), ArgumentMatchers.any(OutputStream.class)))
+                .thenAnswer(inv -> {
+                    OutputStream out = inv.getArgument(4);
+                    out.write("id,name\n1,AWS\n".getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+
+        MvcResult started = mockMvc.perform(get(END_POINT_PATH + "/export")
+                        .param("name", "aws")
+                        .param("availability", "in")
+                        .param("format", "csv"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(MockMvcResultMatchers.header().string("Content-Disposition", "attachment; filename=\"products.csv\""))
+                .andExpect(MockMvcResultMatchers.content().string("id,name\n1,AWS\n"));
+    }
+
+    @Test
+    void exportProducts_returns400_forUnknownFormat() throws Exception {
+        mockMvc.perform(get(END_POINT_PATH + "/export").param("format", "xml"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        verifyNoInteractions(productBulkService);
+    }
+
+    // ===================== PATCH/DELETE /batch =====================
+
+    @Test
+    void updateProducts_returns200_forBestEffortWithItemErrors() throws Exception {
+        Mockito.when(productBulkService.updateProducts(ArgumentMatchers.anyList(), ArgumentMatchers.eq(false)))
+                .thenReturn(new BulkOperationResult(1, 1, List.of(new BulkItemError(1, 999L, "Product 999 not found")), false));
+
+        mockMvc.perform(patch(END_POINT_PATH + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"mode\":\"best-effort\",\"items\":[{\"id\":1,\"stock\":3},{\"id\":999,\"stock\":1}]}"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.succeeded").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.errors[0].id").value(999));
+    }
+
+    @Test
+    void updateProducts_returns400_whenAtomicBatchIsRejected() throws Exception {
+        Mockito.when(productBulkService.updateProducts(ArgumentMatchers.anyList(), ArgumentMatchers.eq(true)))
+                .thenReturn(new BulkOperationResult(0, 1, List.of(new BulkItemError(0, 999L, "Product 999 not found")), false));
+
+        mockMvc.perform(patch(END_POINT_PATH + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"items\":[{\"id\":999,\"stock\":1}]}"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.succeeded").value(0))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.failed").value(1));
+    }
+
+    @Test
+    void deleteProducts_returns200_forAtomicBatch() throws Exception {
+        Mockito.when(productBulkService.deleteProducts(List.of(1L, 2L), true))
+                .thenReturn(new BulkOperationResult(2, 0, List.of(), false));
+
+        mockMvc.perform(delete(END_POINT_PATH + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"mode\":\"atomic\",\"ids\":[1,2]}"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.succeeded").value(2));
+    }
+
+    @Test
+    void deleteProducts_returns400_forUnknownModeOrEmptyIds() throws Exception {
+        mockMvc.perform(delete(END_POINT_PATH + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"mode\":\"sometimes\",\"ids\":[1]}"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        mockMvc.perform(delete(END_POINT_PATH + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[]}"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        verifyNoInteractions(productBulkService);
+    }
+}
@@ -0,0 +1,286 @@
+package mike.sparkd.back_end_inventory_manager.product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import mike.sparkd.back_end_inventory_manager.common.events.ChangeType;
+import mike.sparkd.back_end_inventory_manager.common.exception.BadRequestException;
+import mike.sparkd.back_end_inventory_manager.common.exception.ConflictException;
+import mike.sparkd.back_end_inventory_manager.product.Model.BulkOperationResult;
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.Model.ProductPatch;
+import mike.sparkd.back_end_inventory_manager.product.Repository.InMemoryProductRepository;
+import mike.sparkd.back_end_inventory_manager.product.Service.BulkFormat;
+import mike.sparkd.back_end_inventory_manager.product.Service.ProductBulkService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ProductBulkServiceTest {
+
+    private InMemoryProductRepository repository;
+    private ProductBulkService service;
+
+    @BeforeEach
+    void setUp() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        repository = new InMemoryProductRepository();
+        service = new ProductBulkService(repository, validator, new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @Test
+    void importProducts_ndjsonInsertsValidRowsAndReportsInvalidOnes() throws IOException {
+        int before = repository.getSize();
+        String future = LocalDate.now().plusDays(30).toString();
+        String body = "{\"name\":\"A\",\"category\":\"Cloud\",\"unitPrice\":10.5,\"stock\":3,\"expirationDate\":\"" + future + "\"}\n"
+                + "\n"
+                + "{\"name\":\"\",\"category\":\"Cloud\",\"unitPrice\":1,\"stock\":1}\n"
+                + "{not json}\n"
+                + "{\"name\":\"B\",\"category\":\"DevOps\",\"unitPrice\":2,\"stock\":-1}\n"
+                + "{\"name\":\"C\",\"category\":\"DevOps\",\"unitPrice\":2,\"stock\":0}\n";
+
+        BulkOperationResult result = service.importProducts(stream(body), BulkFormat.NDJSON);
+
+        Assertions.assertEquals(2L, result.getSucceeded());
+        Assertions.assertEquals(3L, result.getFailed());
+        Assertions.assertEquals(3, result.getErrors().size());
+        Assertions.assertEquals(3L, result.getErrors().get(0).getIndex());
+        Assertions.assertTrue(result.getErrors().get(0).getMessage().startsWith("name: "));
+        Assertions.assertEquals(4L, result.getErrors().get(1).getIndex());
+        Assertions.assertTrue(result.getErrors().get(2).getMessage().contains("stock must be >= 0"));
+        Assertions.assertFalse(result.isErrorsTruncated());
+
+        Assertions.assertEquals(before + 2, repository.getSize());
+        Product a = repository.getProductById(before + 1L).orElseThrow();
+        Assertions.assertEquals("A", a.getName());
+        Assertions.assertEquals(LocalDate.parse(future), a.getExpirationDate());
+    }
+
+    @Test
+    void importProducts_csvMatchesColumnsByHeaderAndHandlesQuotes() throws IOException {
+        int before = repository.getSize();
+        String body = "Stock,Name,Category,UnitPrice\n"
+                + "4,\"Voucher, \"\"Pro\"\"\",Cloud,19.99\n"
+                + "x,Roto,Cloud,1\n"
+                + "2,Sin precio,Cloud,\n";
+
+        BulkOperationResult result = service.importProducts(stream(body), BulkFormat.CSV);
+
+        Assertions.assertEquals(1L, result.getSucceeded());
+        Assertions.assertEquals(2L, result.getFailed());
+        Assertions.assertEquals(3L, result.getErrors().get(0).getIndex());
+        Assertions.assertTrue(result.getErrors().get(1).getMessage().contains("unitPrice is required"));
+
+        Product imported = repository.getProductById(before + 1L).orElseThrow();
+        Assertions.assertEquals("Voucher, \"Pro\"", imported.getName());
+        Assertions.assertEquals(4, imported.getStock());
+        Assertions.assertNull(imported.getExpirationDate());
+    }
+
+    @Test
+    void importProducts_csvWithoutRequiredColumnsIsRejected() {
+        Assertions.assertThrows(BadRequestException.class,
+                () -> service.importProducts(stream("name,category\nA,B\n"), BulkFormat.CSV));
+    }
+
+    @Test
+    void importProducts_insertsAcrossSeveralBatchesAndCapsReportedErrors() throws IOException {
+        int before = repository.getSize();
+        StringBuilder body = new StringBuilder("name,category,unitPrice,stock\n");
+        for (int i = 0; i < 2500; i++) body.append("P").append(i).append(",Cat,1.0,1\n");
+        for (int i = 0; i < 1200; i++) body.append(",Cat,1.0,1\n");
+
+        BulkOperationResult result = service.importProducts(stream(body.toString()), BulkFormat.CSV);
+
+        Assertions.assertEquals(2500L, result.getSucceeded());
+        Assertions.assertEquals(1200L, result.getFailed());
+        Assertions.assertEquals(1000, result.getErrors().size());
+        Assertions.assertTrue(result.isErrorsTruncated());
+        Assertions.assertEquals(before + 2500, repository.getSize());
+        Assertions.assertEquals("P2499", repository.getProductById(before + 2500L).orElseThrow().getName());
+        Assertions.assertTrue(repository.isInventorySummaryConsistent());
+    }
+
+    @Test
+    void exportProducts_ndjsonWritesOneFilteredProductPerLineInIdOrder() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = service.exportProducts(null, "certificación cloud", "in", BulkFormat.NDJSON, out);
+
+        List<Product> expected = repository.getAllProducts().stream()
+                .filter(p -> "certificación cloud".equals(p.getCategoryKey()) && p.getStock() > 0)
+                .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+                .toList();
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        Assertions.assertEquals(expected.size(), rows);
+        Assertions.assertEquals(expected.size(), lines.length);
+        Assertions.assertTrue(lines[0].startsWith("{\"id\":" + expected.get(0).getId() + ","));
+    }
+
+    @Test
+    void exportProducts_csvCanBeImportedBack() throws IOException {
+        Product tricky = repository.save(new Product("Voucher, \"Pro\"", "Cloud", 9.5F, LocalDate.now().plusDays(5), 2));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = service.exportProducts(null, null, "all", BulkFormat.CSV, out);
+        Assertions.assertEquals(repository.getSize(), rows);
+
+        InMemoryProductRepository target = new InMemoryProductRepository();
+        int seeded = target.getSize();
+        ProductBulkService importer = new ProductBulkService(target,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper().registerModule(new JavaTimeModule()));
+        BulkOperationResult result = importer.importProducts(new ByteArrayInputStream(out.toByteArray()), BulkFormat.CSV);
+
+        // las fechas de vencimiento pasadas de los vouchers de ejemplo no pasan la validación
+        Assertions.assertEquals(rows, result.getSucceeded() + result.getFailed());
+        Product copy = target.getProductById(seeded + result.getSucceeded()).orElseThrow();
+        Assertions.assertEquals(tricky.getName(), copy.getName());
+        Assertions.assertEquals(tricky.getExpirationDate(), copy.getExpirationDate());
+    }
+
+    @Test
+    void updateProducts_atomicRejectsWholeBatchWhenOneItemFails() {
+        Product first = repository.getProductById(1L).orElseThrow();
+        List<ProductPatch> items = List.of(
+                patch(1L, "Renombrado", null),
+                patch(999L, "Fantasma", null),
+                patch(2L, null, -5));
+
+        BulkOperationResult result = service.updateProducts(items, true);
+
+        Assertions.assertEquals(0L, result.getSucceeded());
+        Assertions.assertEquals(2L, result.getFailed());
+        Assertions.assertEquals(1L, result.getErrors().get(0).getIndex());
+        Assertions.assertEquals(2L, result.getErrors().get(1).getIndex());
+        Assertions.assertTrue(result.getErrors().get(1).getMessage().contains("stock must be >= 0"));
+        Assertions.assertEquals(first.getName(), repository.getProductById(1L).orElseThrow().getName());
+    }
+
+    @Test
+    void updateProducts_bestEffortAppliesValidItemsAndKeepsMetricsConsistent() {
+        Product second = repository.getProductById(2L).orElseThrow();
+        List<ProductPatch> items = List.of(patch(1L, "Renombrado", 7), patch(999L, "Fantasma", null), patch(2L, null, 0));
+
+        BulkOperationResult result = service.updateProducts(items, false);
+
+        Assertions.assertEquals(2L, result.getSucceeded());
+        Assertions.assertEquals(1L, result.getFailed());
+        Assertions.assertEquals(999L, result.getErrors().get(0).getId());
+        Product renamed = repository.getProductById(1L).orElseThrow();
+        Assertions.assertEquals("Renombrado", renamed.getName());
+        Assertions.assertEquals(7, renamed.getStock());
+        // los campos que no vienen en el patch se mantienen
+        Product restocked = repository.getProductById(2L).orElseThrow();
+        Assertions.assertEquals(second.getName(), restocked.getName());
+        Assertions.assertEquals(second.getExpirationDate(), restocked.getExpirationDate());
+        Assertions.assertEquals(0, restocked.getStock());
+        Assertions.assertTrue(repository.isInventorySummaryConsistent());
+    }
+
+    @Test
+    void updateProducts_noPisaUnCambioDeStockHechoEntreLaLecturaYLaEscritura() {
+        // otra petición descuenta una unidad justo después de que el servicio lee el producto
+        boolean[] race = {false};
+        InMemoryProductRepository racing = new InMemoryProductRepository() {
+            @Override
+            public Optional<Product> getProductById(long id) {
+                Optional<Product> read = super.getProductById(id);
+                if (race[0]) adjustStock(id, -1);
+                return read;
+            }
+        };
+        ProductBulkService racingService = new ProductBulkService(racing,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper());
+        long id = racing.save(new Product("Original", "Cloud", 10.0F, null, 5)).getId();
+
+        race[0] = true;
+        BulkOperationResult result = racingService.updateProducts(List.of(patch(id, "Renombrado", null)), true);
+        race[0] = false;
+
+        Assertions.assertEquals(1L, result.getSucceeded());
+        Product stored = racing.getProductById(id).orElseThrow();
+        Assertions.assertEquals("Renombrado", stored.getName());
+        Assertions.assertEquals(4, stored.getStock());
+    }
+
+    @Test
+    void updateProducts_atomicNoDeshaceUnaFilaQueOtraPeticionCambioEntretanto() throws Exception {
+        long a = repository.save(new Product("A", "Cloud", 1.0F, null, 5)).getId();
+        long c = repository.save(new Product("C", "Cloud", 1.0F, null, 5)).getId();
+        long b = repository.save(new Product("B", "Cloud", 1.0F, null, 5)).getId();
+        // al escribir a, otra petición le suma stock; al escribir c, otra borra b y el lote se deshace
+        Thread adjust = new Thread(() -> repository.adjustStock(a, 3));
+        Thread delete = new Thread(() -> repository.deleteById(b));
+        repository.setChangeListener((entity, type, id, data) -> {
+            if (type != ChangeType.UPDATED) return;
+            try {
+                if (id == a && adjust.getState() == Thread.State.NEW) {
+                    adjust.start();
+                } else if (id == c && delete.getState() == Thread.State.NEW) {
+                    adjust.join();
+                    delete.start();
+                    delete.join();
+                }
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        ConflictException conflict = Assertions.assertThrows(ConflictException.class, () -> service.updateProducts(
+                List.of(patch(a, "A2", null), patch(c, "C2", null), patch(b, "B2", null)), true));
+        repository.setChangeListener(null);
+
+        Assertions.assertTrue(conflict.getMessage().contains("[" + a + "]"));
+        Product kept = repository.getProductById(a).orElseThrow();
+        Assertions.assertEquals(8, kept.getStock());
+        Assertions.assertEquals("A2", kept.getName());
+        Assertions.assertEquals("C", repository.getProductById(c).orElseThrow().getName());
+        Assertions.assertTrue(repository.getProductById(b).isEmpty());
+        Assertions.assertTrue(repository.isInventorySummaryConsistent());
+    }
+
+    @Test
+    void deleteProducts_atomicKeepsEverythingWhenAnIdIsMissing() {
+        int before = repository.getSize();
+
+        BulkOperationResult rejected = service.deleteProducts(List.of(1L, 2L, 999L), true);
+        Assertions.assertEquals(0L, rejected.getSucceeded());
+        Assertions.assertEquals(2L, rejected.getErrors().get(0).getIndex());
+        Assertions.assertEquals(before, repository.getSize());
+
+        BulkOperationResult applied = service.deleteProducts(List.of(1L, 2L, 2L, 999L), false);
+        Assertions.assertEquals(2L, applied.getSucceeded());
+        Assertions.assertEquals(1L, applied.getFailed());
+        Assertions.assertEquals(before - 2, repository.getSize());
+        Assertions.assertTrue(repository.getProductById(1L).isEmpty());
+        Assertions.assertTrue(repository.isInventorySummaryConsistent());
+    }
+
+    @Test
+    void deleteProducts_rejectsOversizedBatch() {
+        List<Long> ids = new ArrayList<>();
+        for (long i = 0; i <= 100_000; i++) ids.add(i);
+        Assertions.assertThrows(BadRequestException.class, () -> service.deleteProducts(ids, false));
+    }
+
+    private static ProductPatch patch(Long id, String name, Integer stock) {
+        ProductPatch patch = new ProductPatch();
+        patch.setId(id);
+        patch.setName(name);
+        patch.setStock(stock);
+        return patch;
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
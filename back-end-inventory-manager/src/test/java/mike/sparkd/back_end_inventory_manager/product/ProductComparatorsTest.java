@@ -0,0 +1,110 @@
+package mike.sparkd.back_end_inventory_manager.product;
+
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.DefaultProductSortStrategy;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.MultiFieldProductSortStrategy;
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.ProductComparators;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public class ProductComparatorsTest {
+
+    private static final String[] SORT_BY = {null, "name", "category", "unitPrice", "stock", "expirationDate"};
+
+    // Cadena comparing/thenComparing/reversed por campo (sin el id, que se agrega al final)
+    private static Comparator<Product> reference(DefaultProductSortStrategy field) {
+        return switch (field) {
+            case BY_ID -> Comparator.comparing(Product::getId);
+            case BY_NAME -> Comparator.comparing(Product::getNameKey, Comparator.nullsLast(String::compareTo));
+            case BY_CATEGORY -> Comparator.comparing(Product::getCategoryKey, Comparator.nullsLast(String::compareTo));
+            case BY_UNIT_PRICE -> Comparator.comparingDouble(Product::getUnitPrice);
+            case BY_STOCK -> Comparator.comparingInt(Product::getStock);
+            case BY_EXPIRATION_DATE -> Comparator.comparing(Product::getExpirationDate,
+                    Comparator.nullsLast(Comparator.<LocalDate>naturalOrder()));
+        };
+    }
+
+    private static List<Product> randomCatalog() {
+        Random random = new Random(11);
+        List<Product> out = new ArrayList<>();
+        for (long id = 1; id <= 400; id++) {
+            Product p = new Product(random.nextInt(8) == 0 ? null : "Voucher " + random.nextInt(20),
+                    random.nextInt(8) == 0 ? null : "Cat " + random.nextInt(4),
+                    random.nextInt(5) * 10f,
+                    random.nextInt(3) == 0 ? null : LocalDate.of(2030, 1, 1).plusDays(random.nextInt(10)),
+                    random.nextInt(4));
+            p.setId(id);
+            out.add(p);
+        }
+        return out;
+    }
+
+    @Test
+    void multiField_ordenPrimarioSecundarioId() {
+        List<Product> catalog = randomCatalog();
+        for (String primary : SORT_BY) {
+            for (String secondary : SORT_BY) {
+                for (String direction : List.of("asc", "desc")) {
+                    Comparator<Product> expected = reference(DefaultProductSortStrategy.fromSortBy(primary));
+                    if (secondary != null && !secondary.equalsIgnoreCase(primary)) {
+                        expected = expected.thenComparing(reference(DefaultProductSortStrategy.fromSortBy(secondary)));
+                    }
+                    expected = expected.thenComparing(Product::getId);
+                    if ("desc".equals(direction)) expected = expected.reversed();
+
+                    List<Product> want = new ArrayList<>(catalog);
+                    want.sort(expected);
+                    List<Product> got = new ArrayList<>(catalog);
+                    got.sort(new MultiFieldProductSortStrategy(primary, secondary).buildComparator(direction));
+
+                    Assertions.assertEquals(want, got, primary + "," + secondary + "," + direction);
+                }
+            }
+        }
+    }
+
+    @Test
+    void multiField_elSecundarioDesempataAntesQueElId() {
+        Product caro = p(1L, "Zeta", 20f);
+        Product baratoZ = p(2L, "Zeta", 10f);
+        Product baratoA = p(3L, "Alfa", 10f);
+        List<Product> list = new ArrayList<>(List.of(caro, baratoZ, baratoA));
+
+        list.sort(new MultiFieldProductSortStrategy("unitPrice", "name").buildComparator("asc"));
+        // mismo precio: Alfa antes que Zeta aunque tenga id mayor (antes del cache quedaba 2, 3, 1)
+        Assertions.assertEquals(List.of(baratoA, baratoZ, caro), list);
+
+        list.sort(new MultiFieldProductSortStrategy("unitPrice", "name").buildComparator("desc"));
+        Assertions.assertEquals(List.of(caro, baratoZ, baratoA), list);
+
+        // sin secundario el id desempata
+        list.sort(new MultiFieldProductSortStrategy("unitPrice", "").buildComparator("asc"));
+        Assertions.assertEquals(List.of(baratoZ, baratoA, caro), list);
+    }
+
+    private static Product p(long id, String name, float price) {
+        Product p = new Product(name, "Cat", price, null, 1);
+        p.setId(id);
+        return p;
+    }
+
+    @Test
+    void comparadores_seConstruyenUnaVezYReversedDaElOpuesto() {
+        for (DefaultProductSortStrategy field : DefaultProductSortStrategy.values()) {
+            Comparator<Product> asc = field.buildComparator("asc");
+            Comparator<Product> desc = field.buildComparator("DESC");
+
+            Assertions.assertSame(asc, field.buildComparator("asc"));
+            Assertions.assertSame(desc, asc.reversed());
+            Assertions.assertSame(asc, desc.reversed());
+        }
+        Assertions.assertSame(DefaultProductSortStrategy.BY_STOCK.buildComparator("asc"),
+                ProductComparators.of(DefaultProductSortStrategy.BY_STOCK, DefaultProductSortStrategy.BY_ID, "asc"));
+    }
+}
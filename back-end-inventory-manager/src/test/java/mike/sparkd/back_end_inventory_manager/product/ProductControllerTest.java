@@ -2,13 +2,17 @@ package mike.sparkd.back_end_inventory_manager.product;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.LocalDate;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import mike.sparkd.back_end_inventory_manager.common.exception.ConflictException;
 import mike.sparkd.back_end_inventory_manager.common.exception.GlobalExceptionHandler;
 import mike.sparkd.back_end_inventory_manager.common.exception.NotFoundException;
 import mike.sparkd.back_end_inventory_manager.product.Controller.ProductController;
+import mike.sparkd.back_end_inventory_manager.product.Model.CategoryExpirySummary;
 import mike.sparkd.back_end_inventory_manager.product.Model.CategoryInventorySummary;
+import mike.sparkd.back_end_inventory_manager.product.Model.ExpiryHorizon;
 import mike.sparkd.back_end_inventory_manager.product.Model.PageResponse;
 import mike.sparkd.back_end_inventory_manager.product.Model.Product;
 import mike.sparkd.back_end_inventory_manager.product.Service.ProductService;
@@ -76,6 +80,28 @@ public class ProductControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.content[1].name").value("B"));
     }
 
+    @Test
+    void getSearchedProducts_usesCursorSearch_whenCursorPresent() throws Exception {
+        Product a = new Product("A", "Amazon", 10.0F, LocalDate.now().plusMonths(1L), 10);
+        a.setId(11L);
+
+        PageResponse<Product> page = new PageResponse<>(List.of(a), 0, 10, 20L, "next");
+
+        Mockito.when(productService.searchByCursor("abc", 10, null, null, "all", "id", "asc"))
+                .thenReturn(page);
+
+        mockMvc.perform(get(END_POINT_PATH)
+                        .param("cursor", "abc")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].id").value(11))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").value("next"));
+
+        Mockito.verify(productService, Mockito.never()).search(
+                ArgumentMatchers.anyInt(), ArgumentMatchers.anyInt(), ArgumentMatchers.any(), ArgumentMatchers.any(),
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
     @Test
     void getInventorySummaryByCategory_returns200_andList() throws Exception {
         List<CategoryInventorySummary> metrics = List.of(
@@ -240,6 +266,105 @@ public class ProductControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.status").value(409));
     }
 
+    @Test
+    void getSearchedProducts_returns304_whenVersionUnchanged() throws Exception {
+        Mockito.when(productService.getVersion()).thenReturn(7L);
+        Mockito.when(productService.search(1, 10, null, null, "all", "id", "asc"))
+                .thenReturn(new PageResponse<>(List.of(), 1, 10, 0L));
+
+        String etag = this.mockMvc.perform(get(END_POINT_PATH))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("Cache-Control", "no-cache"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        this.mockMvc.perform(get(END_POINT_PATH).header("If-None-Match", etag))
+                .andExpect(MockMvcResultMatchers.status().isNotModified());
+        Mockito.verify(productService, Mockito.times(1)).search(1, 10, null, null, "all", "id", "asc");
+
+        // otra consulta u otra version: respuesta completa
+        this.mockMvc.perform(get(END_POINT_PATH).param("page", "2").header("If-None-Match", etag))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        Mockito.when(productService.getVersion()).thenReturn(8L);
+        this.mockMvc.perform(get(END_POINT_PATH).header("If-None-Match", etag))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+
+    // ===================== GET /expiring =====================
+
+    @Test
+    void getExpiringProducts_returns200_withDefaults() throws Exception {
+        Product soon = new Product("AWS", "Cloud", 10.0F, LocalDate.now().plusDays(2), 3);
+        soon.setId(4L);
+        Mockito.when(productService.getExpiringProducts(7, 100)).thenReturn(List.of(soon));
+
+        this.mockMvc.perform(get(END_POINT_PATH + "/expiring"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(4));
+    }
+
+    @Test
+    void getExpiringSummary_returns200_forRequestedDays() throws Exception {
+        Mockito.when(productService.getExpiringSummary(30))
+                .thenReturn(List.of(new CategoryInventorySummary("Cloud", 3, 30.0, 10.0)));
+
+        this.mockMvc.perform(get(END_POINT_PATH + "/expiring/summary").param("days", "30"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].totalUnitsInStock").value(3));
+    }
+
+    // ===================== GET /metrics/expiry =====================
+
+    @Test
+    void getExpiryMetrics_returns200_withHorizonsPerCategory() throws Exception {
+        Map<ExpiryHorizon, CategoryExpirySummary.Totals> horizons = new EnumMap<>(ExpiryHorizon.class);
+        for (ExpiryHorizon h : ExpiryHorizon.values()) horizons.put(h, new CategoryExpirySummary.Totals(0, 0.0));
+        horizons.put(ExpiryHorizon.LESS_THAN_1_WEEK, new CategoryExpirySummary.Totals(4, 40.0));
+        horizons.put(ExpiryHorizon.NO_EXPIRATION, new CategoryExpirySummary.Totals(2, 5.0));
+        Mockito.when(productService.getExpiryMetrics()).thenReturn(List.of(new CategoryExpirySummary("Cloud", horizons)));
+
+        this.mockMvc.perform(get(END_POINT_PATH + "/metrics/expiry"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].category").value("Cloud"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].horizons.LESS_THAN_1_WEEK.units").value(4))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].valueAtRisk").value(40.0));
+    }
+
+    // ===================== POST /{id}/stock =====================
+
+    @Test
+    void adjustStock_returns200_withAdjustedProduct() throws Exception {
+        Product adjusted = new Product("AWS", "Cloud", 10.0F, null, 7);
+        adjusted.setId(1L);
+        Mockito.when(productService.adjustStock(1L, -3)).thenReturn(adjusted);
+
+        this.mockMvc.perform(post(END_POINT_PATH + "/{id}/stock", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"delta\":-3}"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.stock").value(7));
+    }
+
+    @Test
+    void adjustStock_returns409_whenStockWouldGoNegative() throws Exception {
+        Mockito.when(productService.adjustStock(1L, -50))
+                .thenThrow(new ConflictException("Product 1 has 7 units in stock, cannot apply -50"));
+
+        this.mockMvc.perform(post(END_POINT_PATH + "/{id}/stock", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"delta\":-50}"))
+                .andExpect(MockMvcResultMatchers.status().isConflict());
+    }
+
+    @Test
+    void adjustStock_returns400_whenDeltaMissing() throws Exception {
+        this.mockMvc.perform(post(END_POINT_PATH + "/{id}/stock", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        verifyNoInteractions(productService);
+    }
+
     // ===================== POST =====================
 
     @Test
@@ -0,0 +1,294 @@
+package mike.sparkd.back_end_inventory_manager.product;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import mike.sparkd.back_end_inventory_manager.common.exception.ConflictException;
+import mike.sparkd.back_end_inventory_manager.common.exception.NotFoundException;
+import mike.sparkd.back_end_inventory_manager.product.Model.CategoryExpirySummary;
+import mike.sparkd.back_end_inventory_manager.product.Model.CategoryInventorySummary;
+import mike.sparkd.back_end_inventory_manager.product.Model.PageResponse;
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.Repository.InMemoryProductRepository;
+import mike.sparkd.back_end_inventory_manager.product.Repository.ProductRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Las implementaciones alternativas deben comportarse igual que el InMemory para las mismas operaciones.
+// Cada subclase da su repositorio y agrega sólo las pruebas propias de su almacenamiento.
+public abstract class ProductRepositoryParityTest<R extends ProductRepository> {
+
+    protected R repository;
+    protected InMemoryProductRepository reference;
+
+    protected abstract R newRepository();
+
+    @BeforeEach
+    void setUp() {
+        repository = newRepository();
+        reference = new InMemoryProductRepository();
+    }
+
+    @Test
+    void crud_assignsIdsAndKeepsCreationDate() {
+        Product saved = repository.save(new Product("Nuevo", "Cat", 10.0F, LocalDate.now().plusDays(3), 4));
+        Assertions.assertEquals(reference.getSize() + 1L, saved.getId());
+
+        Product toUpdate = new Product("Nuevo 2", "Cat", 12.0F, null, 0);
+        toUpdate.setId(saved.getId());
+        repository.update(toUpdate);
+
+        Product reloaded = repository.getProductById(saved.getId()).orElseThrow();
+        Assertions.assertEquals("Nuevo 2", reloaded.getName());
+        Assertions.assertNull(reloaded.getExpirationDate());
+        Assertions.assertEquals(saved.getCreationDate(), reloaded.getCreationDate());
+
+        Assertions.assertTrue(repository.deleteById(saved.getId()));
+        Assertions.assertFalse(repository.deleteById(saved.getId()));
+        Assertions.assertTrue(repository.getProductById(saved.getId()).isEmpty());
+
+        Product ghost = new Product("Ghost", "Cat", 1.0F, null, 1);
+        ghost.setId(999L);
+        Assertions.assertThrows(NotFoundException.class, () -> repository.update(ghost));
+    }
+
+    @Test
+    void searchAndMetrics_matchInMemoryRepositoryAfterRandomWrites() {
+        randomWrites(5);
+        Assertions.assertEquals(reference.getSize(), repository.getAllProducts().size());
+        assertSameSearchAndMetrics();
+    }
+
+    // Misma secuencia aleatoria de altas, modificaciones y bajas en los dos repositorios
+    protected void randomWrites(long seed) {
+        Random random = new Random(seed);
+        String[] categories = {"Certificación Cloud", "certificación cloud ", "DevOps", "", null};
+        for (int i = 0; i < 400; i++) {
+            int op = random.nextInt(3);
+            String category = categories[random.nextInt(categories.length)];
+            float price = random.nextInt(1000) / 10.0F;
+            int stock = random.nextInt(4);
+            LocalDate exp = random.nextBoolean() ? null : LocalDate.now().plusDays(random.nextInt(60));
+            if (op == 0) {
+                String name = "Voucher " + random.nextInt(50);
+                repository.save(new Product(name, category, price, exp, stock));
+                reference.save(new Product(name, category, price, exp, stock));
+            } else {
+                long id = 1 + random.nextInt(reference.getSize() + 5);
+                if (op == 1 && reference.getProductById(id).isPresent()) {
+                    String name = "Updated " + random.nextInt(50);
+                    repository.update(withId(new Product(name, category, price, exp, stock), id));
+                    reference.update(withId(new Product(name, category, price, exp, stock), id));
+                } else {
+                    Assertions.assertEquals(reference.deleteById(id), repository.deleteById(id));
+                }
+            }
+        }
+    }
+
+    protected void assertSameSearchAndMetrics() {
+        for (String sortBy : new String[]{"id", "name", "unitPrice", "stock", "expirationDate", "category"}) {
+            for (String availability : new String[]{"all", "in", "out"}) {
+                assertSamePage(null, "certificación cloud", availability, 1, 7, sortBy, "asc");
+                assertSamePage("updated", null, availability, 2, 5, sortBy, "desc");
+                assertSamePage(null, null, availability, 3, 20, sortBy, "asc");
+                assertSameCursorPages("voucher", null, availability, 9, sortBy, "desc");
+            }
+            for (String direction : new String[]{"asc", "desc"}) {
+                for (String secondary : new String[]{"name", "expirationDate"}) {
+                    for (int page : new int[]{1, 4}) {
+                        Assertions.assertEquals(
+                                describe(reference.getFilteredAndPaginatedProducts(sortBy, secondary, page, direction)),
+                                describe(repository.getFilteredAndPaginatedProducts(sortBy, secondary, page, direction)));
+                    }
+                }
+            }
+        }
+
+        List<CategoryInventorySummary> expected = reference.getInventorySummaryByCategory();
+        List<CategoryInventorySummary> actual = repository.getInventorySummaryByCategory();
+        Assertions.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assertions.assertEquals(expected.get(i).getCategory(), actual.get(i).getCategory());
+            Assertions.assertEquals(expected.get(i).getTotalUnitsInStock(), actual.get(i).getTotalUnitsInStock());
+            Assertions.assertEquals(expected.get(i).getTotalStockValue(), actual.get(i).getTotalStockValue(), 0.01);
+        }
+    }
+
+    @Test
+    void nameSearch_comparaLaClaveGuardadaIgualQueElInMemory() {
+        String[] names = {"  Ñandú Cloud ", "ÑANDÚ", "ñandu", "Émile", "emile", "Zeta 😀", "zeta", "ZETA 😀 2", "a", "İstanbul"};
+        for (String name : names) {
+            repository.save(new Product(name, "Nombres", 1.0F, null, 1));
+            reference.save(new Product(name, "Nombres", 1.0F, null, 1));
+        }
+        for (String filter : new String[]{null, "ñandú", "zeta 😀", "e", "i̇stan", ""}) {
+            for (String direction : new String[]{"asc", "desc"}) {
+                assertSamePage(filter, "nombres", "all", 1, 20, "name", direction);
+                assertSameCursorPages(filter, "nombres", "all", 3, "name", direction);
+            }
+        }
+    }
+
+    @Test
+    void iterateProducts_matchesInMemoryAcrossChunks() {
+        for (int i = 0; i < 3000; i++) {
+            Product a = new Product("Item " + i, i % 3 == 0 ? "DevOps" : "Cloud", i, null, i % 4);
+            Product b = new Product("Item " + i, i % 3 == 0 ? "DevOps" : "Cloud", i, null, i % 4);
+            repository.save(a);
+            reference.save(b);
+            if (i % 5 == 0) {
+                repository.deleteById(a.getId());
+                reference.deleteById(b.getId());
+            }
+        }
+        Assertions.assertEquals(describe(drain(reference.iterateProducts("item 1", "devops", "in"))),
+                describe(drain(repository.iterateProducts("item 1", "devops", "in"))));
+        Assertions.assertEquals(describe(drain(reference.iterateProducts(null, null, "all"))),
+                describe(drain(repository.iterateProducts(null, null, "all"))));
+    }
+
+    @Test
+    void updateAllAndDeleteAllById_matchInMemoryInBothModes() {
+        List<Product> forRepo = new ArrayList<>();
+        List<Product> forReference = new ArrayList<>();
+        for (long id = 1; id <= 4; id++) {
+            forRepo.add(withId(new Product("Updated " + id, "DevOps", 5.0F * id, null, (int) id), id));
+            forReference.add(withId(new Product("Updated " + id, "DevOps", 5.0F * id, null, (int) id), id));
+        }
+        List<Product> withGhost = new ArrayList<>(forRepo);
+        withGhost.add(withId(new Product("Ghost", "Cat", 1.0F, null, 1), 999L));
+
+        Assertions.assertEquals(List.of(999L), repository.updateAll(withGhost, true));
+        Assertions.assertEquals(reference.getProductById(1L).orElseThrow().getName(), repository.getProductById(1L).orElseThrow().getName());
+
+        Assertions.assertEquals(List.of(999L), repository.updateAll(withGhost, false));
+        reference.updateAll(forReference, true);
+        Assertions.assertEquals(List.of(999L), repository.deleteAllById(List.of(2L, 999L), true));
+        Assertions.assertTrue(repository.getProductById(2L).isPresent());
+        Assertions.assertEquals(List.of(999L), repository.deleteAllById(List.of(2L, 3L, 999L), false));
+        reference.deleteAllById(List.of(2L, 3L), true);
+
+        Assertions.assertEquals(describe(drain(reference.iterateProducts(null, null, "all"))),
+                describe(drain(repository.iterateProducts(null, null, "all"))));
+        List<CategoryInventorySummary> expected = reference.getInventorySummaryByCategory();
+        List<CategoryInventorySummary> actual = repository.getInventorySummaryByCategory();
+        Assertions.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assertions.assertEquals(expected.get(i).getTotalUnitsInStock(), actual.get(i).getTotalUnitsInStock());
+            Assertions.assertEquals(expected.get(i).getTotalStockValue(), actual.get(i).getTotalStockValue(), 0.01);
+        }
+    }
+
+    @Test
+    void adjustStock_matchesInMemory() {
+        Assertions.assertEquals(reference.adjustStock(1L, 3).getStock(), repository.adjustStock(1L, 3).getStock());
+        Assertions.assertEquals(0, repository.adjustStock(2L, -repository.getProductById(2L).orElseThrow().getStock()).getStock());
+        reference.adjustStock(2L, -reference.getProductById(2L).orElseThrow().getStock());
+        Assertions.assertThrows(ConflictException.class, () -> repository.adjustStock(2L, -1));
+        Assertions.assertThrows(NotFoundException.class, () -> repository.adjustStock(999L, 1));
+        Assertions.assertEquals(describe(drain(reference.iterateProducts(null, null, "all"))),
+                describe(drain(repository.iterateProducts(null, null, "all"))));
+    }
+
+    @Test
+    void expiry_matchesInMemory() {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 40; i++) {
+            LocalDate exp = i % 4 == 0 ? null : today.plusDays(i % 13 - 6);
+            repository.save(new Product("Exp " + i, i % 2 == 0 ? "Cloud" : "DevOps", i, exp, i % 5));
+            reference.save(new Product("Exp " + i, i % 2 == 0 ? "Cloud" : "DevOps", i, exp, i % 5));
+        }
+        Assertions.assertEquals(describe(reference.getExpiringBetween(today, today.plusDays(14), 7)),
+                describe(repository.getExpiringBetween(today, today.plusDays(14), 7)));
+        List<CategoryInventorySummary> expected = reference.getExpiringSummaryByCategory(today, today.plusDays(3));
+        List<CategoryInventorySummary> actual = repository.getExpiringSummaryByCategory(today, today.plusDays(3));
+        Assertions.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assertions.assertEquals(expected.get(i).getTotalUnitsInStock(), actual.get(i).getTotalUnitsInStock());
+        }
+        Assertions.assertEquals(describeHorizons(reference.getExpirySummaryByCategory(today)),
+                describeHorizons(repository.getExpirySummaryByCategory(today)));
+        Assertions.assertEquals(describe(reference.removeExpired(today, 100)), describe(repository.removeExpired(today, 100)));
+        Assertions.assertEquals(reference.getSize(), repository.getAllProducts().size());
+    }
+
+    @Test
+    void getVersion_movesOnWritesOnly() {
+        long v0 = repository.getVersion();
+        repository.getByParamsSearch(null, null, "all", 1, 10, "name", "asc");
+        repository.getInventorySummaryByCategory();
+        Assertions.assertEquals(v0, repository.getVersion());
+        Product p = repository.save(new Product("Version", "Cloud", 1.0F, null, 1));
+        long v1 = repository.getVersion();
+        Assertions.assertTrue(v1 > v0);
+        repository.adjustStock(p.getId(), 1);
+        Assertions.assertTrue(repository.getVersion() > v1);
+    }
+
+    @Test
+    void getByCursorSearch_walksAllRows() {
+        PageResponse<Product> page = repository.getByParamsSearch(null, null, "all", 1, 6, "unitPrice", "desc");
+        int seen = page.getContent().size();
+        while (page.getNextCursor() != null) {
+            page = repository.getByCursorSearch(null, null, "all", page.getNextCursor(), 6, "unitPrice", "desc");
+            seen += page.getContent().size();
+        }
+        Assertions.assertEquals(repository.getAllProducts().size(), seen);
+    }
+
+    private void assertSamePage(String name, String category, String availability,
+                                int page, int size, String sortBy, String direction) {
+        assertSame(reference.getByParamsSearch(name, category, availability, page, size, sortBy, direction),
+                repository.getByParamsSearch(name, category, availability, page, size, sortBy, direction));
+    }
+
+    private void assertSameCursorPages(String name, String category, String availability,
+                                       int size, String sortBy, String direction) {
+        PageResponse<Product> expected = reference.getByParamsSearch(name, category, availability, 1, size, sortBy, direction);
+        PageResponse<Product> actual = repository.getByParamsSearch(name, category, availability, 1, size, sortBy, direction);
+        assertSame(expected, actual);
+        while (expected.getNextCursor() != null) {
+            Assertions.assertEquals(expected.getNextCursor(), actual.getNextCursor());
+            expected = reference.getByCursorSearch(name, category, availability, expected.getNextCursor(), size, sortBy, direction);
+            actual = repository.getByCursorSearch(name, category, availability, actual.getNextCursor(), size, sortBy, direction);
+            assertSame(expected, actual);
+        }
+        Assertions.assertNull(actual.getNextCursor());
+    }
+
+    private static List<String> describeHorizons(List<CategoryExpirySummary> summaries) {
+        return summaries.stream()
+                .flatMap(s -> s.getHorizons().entrySet().stream()
+                        .map(e -> s.getCategory() + "|" + e.getKey() + "|" + e.getValue().getUnits()
+                                + "|" + Math.round(e.getValue().getValue() * 100)))
+                .toList();
+    }
+
+    private static void assertSame(PageResponse<Product> expected, PageResponse<Product> actual) {
+        Assertions.assertEquals(expected.getTotalElements(), actual.getTotalElements());
+        Assertions.assertEquals(describe(expected.getContent()), describe(actual.getContent()));
+    }
+
+    private static List<String> describe(List<Product> products) {
+        return products.stream()
+                .map(p -> p.getId() + "|" + p.getName() + "|" + p.getCategory() + "|" + p.getUnitPrice()
+                        + "|" + p.getStock() + "|" + p.getExpirationDate())
+                .toList();
+    }
+
+    private static List<Product> drain(Iterator<Product> it) {
+        List<Product> out = new ArrayList<>();
+        it.forEachRemaining(out::add);
+        return out;
+    }
+
+    private static Product withId(Product p, long id) {
+        p.setId(id);
+        return p;
+    }
+}
@@ -259,4 +259,19 @@ public class ProductServiceTest {
         Assertions.assertEquals(expected, result);
         Mockito.verify(repository).getInventorySummaryByCategory();
     }
+
+    // -------- searchByCursor --------
+
+    @Test
+    void searchByCursor_defaultsParametersAndDelegates() {
+        PageResponse<Product> expected = new PageResponse<>(List.of(), 0, 10, 0L);
+
+        Mockito.when(repository.getByCursorSearch(null, null, "all", "abc", 10, "id", "asc"))
+                .thenReturn(expected);
+
+        PageResponse<Product> result = service.searchByCursor("abc", null, null, null, null, null, null);
+
+        Assertions.assertSame(expected, result);
+        Mockito.verify(repository).getByCursorSearch(null, null, "all", "abc", 10, "id", "asc");
+    }
 }
@@ -0,0 +1,58 @@
+package mike.sparkd.back_end_inventory_manager.product;
+
+import mike.sparkd.back_end_inventory_manager.product.SortingHelpers.TopKSelection;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public class TopKSelectionTest {
+
+    private List<Integer> shuffled(int n) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < n; i++) list.add(i);
+        Collections.shuffle(list, new Random(7));
+        return list;
+    }
+
+    @Test
+    void sortedWindow_returnsSameWindowAsFullSort() {
+        List<Integer> data = shuffled(1000);
+        List<Integer> sorted = new ArrayList<>(data);
+        sorted.sort(Comparator.naturalOrder());
+
+        Assertions.assertEquals(sorted.subList(0, 10),
+                TopKSelection.sortedWindow(data.iterator(), Comparator.naturalOrder(), 0, 10));
+        Assertions.assertEquals(sorted.subList(30, 40),
+                TopKSelection.sortedWindow(data.iterator(), Comparator.naturalOrder(), 30, 10));
+    }
+
+    @Test
+    void sortedWindow_respectsReversedComparator() {
+        List<Integer> data = shuffled(100);
+        List<Integer> window = TopKSelection.sortedWindow(data.iterator(), Comparator.<Integer>reverseOrder(), 0, 3);
+
+        Assertions.assertEquals(List.of(99, 98, 97), window);
+    }
+
+    @Test
+    void sortedWindow_handlesWindowPastTheEnd() {
+        List<Integer> data = shuffled(15);
+
+        Assertions.assertEquals(List.of(10, 11, 12, 13, 14),
+                TopKSelection.sortedWindow(data.iterator(), Comparator.naturalOrder(), 10, 10));
+        Assertions.assertTrue(TopKSelection.sortedWindow(data.iterator(), Comparator.naturalOrder(), 20, 10).isEmpty());
+    }
+
+    @Test
+    void sortedWindow_invalidArguments_throwIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> TopKSelection.sortedWindow(List.of(1).iterator(), Comparator.<Integer>naturalOrder(), -1, 10));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> TopKSelection.sortedWindow(List.of(1).iterator(), Comparator.<Integer>naturalOrder(), 0, 0));
+    }
+}
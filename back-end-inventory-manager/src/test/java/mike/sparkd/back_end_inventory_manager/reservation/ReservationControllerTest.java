@@ -0,0 +1,90 @@
+package mike.sparkd.back_end_inventory_manager.reservation;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import mike.sparkd.back_end_inventory_manager.common.exception.ConflictException;
+import mike.sparkd.back_end_inventory_manager.common.exception.GlobalExceptionHandler;
+import mike.sparkd.back_end_inventory_manager.common.exception.NotFoundException;
+import mike.sparkd.back_end_inventory_manager.reservation.Controller.ReservationController;
+import mike.sparkd.back_end_inventory_manager.reservation.Model.Reservation;
+import mike.sparkd.back_end_inventory_manager.reservation.Service.ReservationService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+@WebMvcTest(ReservationController.class)
+@Import(GlobalExceptionHandler.class)
+public class ReservationControllerTest {
+
+    private static final String END_POINT_PATH = "/api/v1/reservations";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReservationService reservationService;
+
+    @Test
+    void create_returns201_withReservation() throws Exception {
+        Mockito.when(reservationService.reserve(1L, 2, Duration.ofSeconds(60)))
+                .thenReturn(new Reservation(7L, 1L, 2, Instant.parse("2030-01-01T00:01:00Z")));
+
+        mockMvc.perform(post(END_POINT_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":1,\"quantity\":2,\"ttlSeconds\":60}"))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(7))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.quantity").value(2));
+    }
+
+    @Test
+    void create_returns409_whenStockIsShort() throws Exception {
+        Mockito.when(reservationService.reserve(ArgumentMatchers.eq(1L), ArgumentMatchers.eq(50), ArgumentMatchers.isNull()))
+                .thenThrow(new ConflictException("Product 1 has 3 units in stock, cannot apply -50"));
+
+        mockMvc.perform(post(END_POINT_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":1,\"quantity\":50}"))
+                .andExpect(MockMvcResultMatchers.status().isConflict());
+    }
+
+    @Test
+    void create_returns400_forNonPositiveQuantity() throws Exception {
+        mockMvc.perform(post(END_POINT_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":1,\"quantity\":0}"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        verifyNoInteractions(reservationService);
+    }
+
+    @Test
+    void confirm_returns404_whenExpired() throws Exception {
+        Mockito.when(reservationService.confirm(7L))
+                .thenThrow(new NotFoundException("Reservation 7 not found or already expired"));
+
+        mockMvc.perform(post(END_POINT_PATH + "/{id}/confirm", 7L))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    void release_returns204() throws Exception {
+        Mockito.when(reservationService.release(7L))
+                .thenReturn(new Reservation(7L, 1L, 2, Instant.parse("2030-01-01T00:01:00Z")));
+
+        mockMvc.perform(delete(END_POINT_PATH + "/{id}", 7L))
+                .andExpect(MockMvcResultMatchers.status().isNoContent());
+    }
+}
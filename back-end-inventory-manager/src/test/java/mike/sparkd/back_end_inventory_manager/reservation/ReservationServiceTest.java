@@ -0,0 +1,186 @@
+package mike.sparkd.back_end_inventory_manager.reservation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+import mike.sparkd.back_end_inventory_manager.common.exception.BadRequestException;
+import mike.sparkd.back_end_inventory_manager.common.exception.ConflictException;
+import mike.sparkd.back_end_inventory_manager.common.exception.NotFoundException;
+import mike.sparkd.back_end_inventory_manager.common.persistence.DurableStore;
+import mike.sparkd.back_end_inventory_manager.product.Model.PageResponse;
+import mike.sparkd.back_end_inventory_manager.product.Model.Product;
+import mike.sparkd.back_end_inventory_manager.product.Repository.InMemoryProductRepository;
+import mike.sparkd.back_end_inventory_manager.reservation.Model.Reservation;
+import mike.sparkd.back_end_inventory_manager.reservation.Repository.InMemoryReservationRepository;
+import mike.sparkd.back_end_inventory_manager.reservation.Service.ReservationService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ReservationServiceTest {
+
+    private InMemoryProductRepository products;
+    private InMemoryReservationRepository reservations;
+    private ReservationService service;
+    private long productId;
+
+    @BeforeEach
+    void setUp() {
+        products = new InMemoryProductRepository();
+        reservations = new InMemoryReservationRepository();
+        service = new ReservationService(products, reservations, Duration.ofMinutes(10), Duration.ofHours(1));
+        productId = products.save(new Product("Flash sale", "Reservas", 20.0F, null, 5)).getId();
+    }
+
+    @Test
+    void reserve_takesUnitsOutOfAvailableStock() {
+        service.reserve(productId, 3, null);
+        Reservation last = service.reserve(productId, 2, Duration.ofSeconds(30));
+
+        Assertions.assertEquals(0, stock());
+        Assertions.assertEquals(0L, inStock().getTotalElements());
+        Assertions.assertEquals(1L, products.getByParamsSearch(null, "reservas", "out", 1, 10, "id", "asc").getTotalElements());
+        Assertions.assertThrows(ConflictException.class, () -> service.reserve(productId, 1, null));
+        Assertions.assertEquals(2, reservations.getSize());
+        Assertions.assertEquals(2, service.getReservation(last.getId()).getQuantity());
+    }
+
+    @Test
+    void confirmKeepsUnitsOutAndReleaseGivesThemBack() {
+        Reservation sold = service.reserve(productId, 2, null);
+        Reservation dropped = service.reserve(productId, 3, null);
+
+        service.confirm(sold.getId());
+        service.release(dropped.getId());
+
+        Assertions.assertEquals(3, stock());
+        Assertions.assertEquals(0, reservations.getSize());
+        Assertions.assertThrows(NotFoundException.class, () -> service.confirm(dropped.getId()));
+        Assertions.assertThrows(NotFoundException.class, () -> service.release(sold.getId()));
+        Assertions.assertTrue(products.isInventorySummaryConsistent());
+    }
+
+    @Test
+    void releaseExpired_returnsOnlyDueReservationsToStock() {
+        Reservation shortHold = service.reserve(productId, 2, Duration.ofSeconds(5));
+        Reservation longHold = service.reserve(productId, 1, Duration.ofMinutes(30));
+
+        Assertions.assertEquals(0, service.releaseExpired(Instant.now()));
+        Assertions.assertEquals(1, service.releaseExpired(shortHold.getExpiresAt()));
+        Assertions.assertEquals(4, stock());
+        Assertions.assertThrows(NotFoundException.class, () -> service.confirm(shortHold.getId()));
+
+        // una reserva confirmada ya no vence
+        service.confirm(longHold.getId());
+        Assertions.assertEquals(0, service.releaseExpired(longHold.getExpiresAt().plusSeconds(1)));
+        Assertions.assertEquals(4, stock());
+    }
+
+    @Test
+    void releaseExpired_handlesManyOutstandingReservationsAcrossWheelTurns() {
+        Product big = products.save(new Product("Stock grande", "Reservas", 1.0F, null, 100_000));
+        Instant start = Instant.now();
+        for (int i = 0; i < 20_000; i++) {
+            // vencimientos repartidos en casi todos los buckets del wheel (hasta ~55 min)
+            service.reserve(big.getId(), 1, Duration.ofSeconds(1 + i % 3300));
+        }
+        Assertions.assertEquals(80_000, products.getProductById(big.getId()).orElseThrow().getStock());
+
+        int expired = service.releaseExpired(start.plusSeconds(60));
+        expired += service.releaseExpired(start.plus(Duration.ofHours(2)));
+
+        Assertions.assertEquals(20_000, expired);
+        Assertions.assertEquals(100_000, products.getProductById(big.getId()).orElseThrow().getStock());
+        Assertions.assertEquals(0, reservations.getSize());
+    }
+
+    @Test
+    void reserve_rejectsInvalidTtlAndUnknownProduct() {
+        Assertions.assertThrows(BadRequestException.class, () -> service.reserve(productId, 1, Duration.ofHours(2)));
+        Assertions.assertThrows(BadRequestException.class, () -> service.reserve(productId, 1, Duration.ZERO));
+        Assertions.assertThrows(NotFoundException.class, () -> service.reserve(999_999L, 1, null));
+        Assertions.assertEquals(5, stock());
+        Assertions.assertEquals(0, reservations.getSize());
+    }
+
+    @Test
+    void restart_recoversOutstandingReservationsWithStock() throws IOException {
+        Path dir = Files.createTempDirectory("reservations");
+        InMemoryProductRepository firstProducts = new InMemoryProductRepository(DurableStore.open(dir, "products"));
+        InMemoryReservationRepository firstReservations = new InMemoryReservationRepository(DurableStore.open(dir, "reservations"));
+        ReservationService first = new ReservationService(firstProducts, firstReservations, Duration.ofMinutes(10), Duration.ofHours(1));
+        long id = firstProducts.save(new Product("Durable", "Reservas", 5.0F, null, 10)).getId();
+
+        Reservation kept = first.reserve(id, 4, null);
+        Assertions.assertTrue(firstReservations.checkpoint());
+        Reservation released = first.reserve(id, 3, null);
+        first.release(released.getId());
+        Reservation expiring = first.reserve(id, 2, Duration.ofSeconds(2));
+        firstProducts.close();
+        firstReservations.close();
+
+        InMemoryProductRepository secondProducts = new InMemoryProductRepository(DurableStore.open(dir, "products"));
+        InMemoryReservationRepository secondReservations = new InMemoryReservationRepository(DurableStore.open(dir, "reservations"));
+        try {
+            ReservationService second = new ReservationService(secondProducts, secondReservations, Duration.ofMinutes(10), Duration.ofHours(1));
+            Assertions.assertEquals(4, secondProducts.getProductById(id).orElseThrow().getStock());
+            Assertions.assertEquals(2, secondReservations.getSize());
+
+            Assertions.assertEquals(1, second.releaseExpired(expiring.getExpiresAt()));
+            Assertions.assertEquals(6, secondProducts.getProductById(id).orElseThrow().getStock());
+            Assertions.assertEquals(4, second.confirm(kept.getId()).getQuantity());
+            Assertions.assertTrue(second.reserve(id, 1, null).getId() > expiring.getId());
+        } finally {
+            secondProducts.close();
+            secondReservations.close();
+        }
+    }
+
+    private int stock() {
+        return products.getProductById(productId).orElseThrow().getStock();
+    }
+
+    @Test
+    void restart_reconciliaReservasYStockCortadosEntreLosDosLogs() throws IOException {
+        Path dir = Files.createTempDirectory("reservations");
+        InMemoryProductRepository firstProducts = new InMemoryProductRepository(DurableStore.open(dir, "products"));
+        InMemoryReservationRepository firstReservations = new InMemoryReservationRepository(DurableStore.open(dir, "reservations"));
+        ReservationService first = new ReservationService(firstProducts, firstReservations, Duration.ofMinutes(10), Duration.ofHours(1));
+        long id = firstProducts.save(new Product("Durable", "Reservas", 5.0F, null, 10)).getId();
+
+        Reservation kept = first.reserve(id, 1, null);
+        // reserve cortado: el stock salió pero la reserva nunca llegó a su log
+        firstProducts.takeHold(id, firstReservations.nextId(), 3);
+        Assertions.assertTrue(firstProducts.checkpoint());
+        // confirm cortado: el hold se cerró pero falta el END de la reserva
+        Reservation sold = first.reserve(id, 2, null);
+        Assertions.assertTrue(firstProducts.endHold(sold.getId(), false));
+        Assertions.assertEquals(4, firstProducts.getProductById(id).orElseThrow().getStock());
+        firstProducts.close();
+        firstReservations.close();
+
+        InMemoryProductRepository secondProducts = new InMemoryProductRepository(DurableStore.open(dir, "products"));
+        InMemoryReservationRepository secondReservations = new InMemoryReservationRepository(DurableStore.open(dir, "reservations"));
+        try {
+            ReservationService second = new ReservationService(secondProducts, secondReservations, Duration.ofMinutes(10), Duration.ofHours(1));
+            // vuelven las 3 del hold huérfano; las 2 vendidas y la reservada siguen fuera
+            Assertions.assertEquals(7, secondProducts.getProductById(id).orElseThrow().getStock());
+            Assertions.assertEquals(Set.of(kept.getId()), secondProducts.getHoldIds());
+            Assertions.assertEquals(1, secondReservations.getSize());
+            Assertions.assertThrows(NotFoundException.class, () -> second.confirm(sold.getId()));
+            Assertions.assertEquals(1, second.release(kept.getId()).getQuantity());
+            Assertions.assertEquals(8, secondProducts.getProductById(id).orElseThrow().getStock());
+        } finally {
+            secondProducts.close();
+            secondReservations.close();
+        }
+    }
+
+    private PageResponse<Product> inStock() {
+        return products.getByParamsSearch(null, "reservas", "in", 1, 10, "id", "asc");
+    }
+}